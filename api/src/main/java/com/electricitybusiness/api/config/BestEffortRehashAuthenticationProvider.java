@@ -0,0 +1,42 @@
+package com.electricitybusiness.api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Authentification par identifiant et mot de passe dont le recalcul de l'empreinte à la connexion est facultatif :
+ * si le pool de hachage est saturé, la connexion aboutit avec l'empreinte actuelle, recalculée à une connexion suivante.
+ * Le mot de passe ayant déjà été vérifié, refuser la connexion pour ce seul recalcul coûterait une seconde vérification.
+ */
+public class BestEffortRehashAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(BestEffortRehashAuthenticationProvider.class);
+
+    private UserDetailsPasswordService userDetailsPasswordService;
+
+    @Override
+    public void setUserDetailsPasswordService(UserDetailsPasswordService userDetailsPasswordService) {
+        // Conservé ici plutôt que dans la classe parente, dont le recalcul ferait échouer la connexion
+        this.userDetailsPasswordService = userDetailsPasswordService;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        if (userDetailsPasswordService != null && getPasswordEncoder().upgradeEncoding(user.getPassword())) {
+            try {
+                String newPassword = getPasswordEncoder().encode(authentication.getCredentials().toString());
+                user = userDetailsPasswordService.updatePassword(user, newPassword);
+            } catch (ResponseStatusException e) {
+                if (e.getStatusCode() != HttpStatus.SERVICE_UNAVAILABLE) throw e;
+                logger.debug("Recalcul de l'empreinte de {} reporté : pool de hachage saturé", user.getUsername());
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
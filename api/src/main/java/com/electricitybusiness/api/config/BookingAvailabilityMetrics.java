@@ -0,0 +1,30 @@
+package com.electricitybusiness.api.config;
+
+import com.electricitybusiness.api.service.BookingIntervalIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expose les jauges des cartes de disponibilité par quart d'heure :
+ * nombre de bornes suivies et mémoire occupée.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingAvailabilityMetrics implements MeterBinder {
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("booking.availability.bitmaps", bookingIntervalIndex, BookingIntervalIndex::getBitmapCount)
+                .description("Bornes ayant une carte de disponibilité en mémoire (au moins une réservation active)")
+                .register(registry);
+        Gauge.builder("booking.availability.bitmap.bytes", bookingIntervalIndex, BookingIntervalIndex::getBitmapBytes)
+                .description("Mémoire occupée par les cartes de disponibilité")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
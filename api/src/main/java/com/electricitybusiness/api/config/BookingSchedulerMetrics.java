@@ -0,0 +1,69 @@
+package com.electricitybusiness.api.config;
+
+import com.electricitybusiness.api.service.BookingSchedulerService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Expose les jauges de la file de transitions de réservation :
+ * transitions en attente, transitions annulées, transitions appliquées (total et débit par seconde)
+ * et mises à jour groupées des bornes (lots, temps passé, lignes modifiées).
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingSchedulerMetrics implements MeterBinder {
+
+    private final BookingSchedulerService bookingSchedulerService;
+
+    private final AtomicReference<Sample> lastFiredSample = new AtomicReference<>();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("booking.scheduler.tasks.registered", bookingSchedulerService, BookingSchedulerService::getRegisteredTaskCount)
+                .description("Transitions de réservation en attente dans la file")
+                .register(registry);
+        FunctionCounter.builder("booking.scheduler.tasks.cancelled", bookingSchedulerService, BookingSchedulerService::getCancelledTaskCount)
+                .description("Transitions de réservation annulées avant échéance")
+                .register(registry);
+        FunctionCounter.builder("booking.scheduler.tasks.fired", bookingSchedulerService, BookingSchedulerService::getFiredTaskCount)
+                .description("Transitions de réservation appliquées")
+                .register(registry);
+        FunctionCounter.builder("booking.scheduler.tasks.parked", bookingSchedulerService, BookingSchedulerService::getParkedTaskCount)
+                .description("Transitions de réservation écartées de la file après trop d'échecs")
+                .register(registry);
+        FunctionTimer.builder("booking.scheduler.terminal.updates", bookingSchedulerService,
+                        BookingSchedulerService::getTerminalUpdateBatchCount,
+                        BookingSchedulerService::getTerminalUpdateNanos, TimeUnit.NANOSECONDS)
+                .description("Lots de mise à jour groupée du statut des bornes et temps passé")
+                .register(registry);
+        FunctionCounter.builder("booking.scheduler.terminal.rows.changed", bookingSchedulerService,
+                        BookingSchedulerService::getTerminalRowsChangedCount)
+                .description("Bornes dont le statut a changé lors des mises à jour groupées")
+                .register(registry);
+        Gauge.builder("booking.scheduler.tasks.fired.rate", this, BookingSchedulerMetrics::firedPerSecond)
+                .description("Transitions de réservation appliquées par seconde depuis la lecture précédente")
+                .baseUnit("tasks/s")
+                .register(registry);
+    }
+
+    /**
+     * Débit d'exécution calculé entre deux lectures de la jauge.
+     * @return Le nombre de tâches exécutées par seconde
+     */
+    double firedPerSecond() {
+        Sample current = new Sample(bookingSchedulerService.getFiredTaskCount(), System.nanoTime());
+        Sample previous = lastFiredSample.getAndSet(current);
+        if (previous == null || current.nanos() <= previous.nanos()) return 0;
+        return (current.count() - previous.count()) * 1_000_000_000.0 / (current.nanos() - previous.nanos());
+    }
+
+    private record Sample(long count, long nanos) {}
+}
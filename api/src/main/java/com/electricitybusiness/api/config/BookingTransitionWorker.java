@@ -0,0 +1,95 @@
+package com.electricitybusiness.api.config;
+
+import com.electricitybusiness.api.service.BookingSchedulerService;
+import com.electricitybusiness.api.service.SchedulerLeaseService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * Worker qui applique périodiquement les transitions de réservation arrivées à échéance.
+ * Seule l'instance qui détient le bail les applique ; chaque passage prolonge le bail (heartbeat).
+ * Chaque lot est traité dans sa propre transaction ; les lots s'enchaînent tant qu'ils sont pleins.
+ * Lorsqu'un lot échoue, les transitions sont reprises une à une pour isoler celle en échec, qui compte
+ * une tentative et est écartée de la file après max-attempts échecs au lieu de bloquer les suivantes.
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@Profile("!test")
+public class BookingTransitionWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingTransitionWorker.class);
+
+    private final BookingSchedulerService bookingSchedulerService;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final Clock clock;
+
+    @Value("${booking.transitions.batch-size:500}")
+    private int batchSize;
+
+    @Value("${booking.transitions.max-attempts:3}")
+    private int maxAttempts;
+
+    @Scheduled(fixedDelayString = "${booking.transitions.poll-interval:PT15S}")
+    public void pollDueTransitions() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        try {
+            if (!schedulerLeaseService.acquireLeadership(now)) return;
+        } catch (RuntimeException e) {
+            logger.warn("Échec de l'acquisition du bail des transitions : {}", e.getMessage());
+            return;
+        }
+
+        try {
+            int applied;
+            do {
+                applied = bookingSchedulerService.applyDueTransitions(now, batchSize, maxAttempts);
+            } while (applied == batchSize);
+        } catch (RuntimeException e) {
+            logger.warn("Échec d'un lot de transitions de réservation, reprise une à une : {}", e.getMessage());
+            applyOneByOne(now);
+        }
+    }
+
+    /**
+     * Applique les transitions échues une à une jusqu'à la première en échec, qui compte une tentative.
+     * Les suivantes sont reprises au prochain passage.
+     */
+    void applyOneByOne(LocalDateTime now) {
+        try {
+            for (int i = 0; i < batchSize; i++) {
+                try {
+                    if (bookingSchedulerService.applyDueTransitions(now, 1, maxAttempts) == 0) return;
+                } catch (RuntimeException e) {
+                    bookingSchedulerService.recordFailedAttempt(now, maxAttempts, e);
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Base indisponible : la file reste intacte et sera reprise au prochain passage
+            logger.warn("Échec de la reprise des transitions de réservation : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Libère le bail à l'arrêt pour qu'une autre instance reprenne sans attendre l'expiration.
+     */
+    @PreDestroy
+    public void releaseLeadership() {
+        try {
+            schedulerLeaseService.releaseLeadership();
+        } catch (RuntimeException e) {
+            logger.warn("Impossible de libérer le bail des transitions : {}", e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.electricitybusiness.api.config;
 
+import com.electricitybusiness.api.model.Repairer;
+import com.electricitybusiness.api.model.User;
 import com.electricitybusiness.api.repository.RepairerRepository;
 import com.electricitybusiness.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailService implements UserDetailsService {
+public class CustomUserDetailService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
     private final RepairerRepository repairerRepository;
 
@@ -21,4 +25,24 @@ public class CustomUserDetailService implements UserDetailsService {
                 .or(() -> repairerRepository.findByEmailRepairer(username).map(repairer -> (UserDetails) repairer))
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé : " + username));
     }
+
+    /**
+     * Enregistre l'empreinte recalculée à la connexion lorsque le coût BCrypt configuré a augmenté.
+     * Seul le mot de passe change : le cache des utilisateurs authentifiés et les jetons restent valides.
+     * @param userDetails L'utilisateur authentifié
+     * @param newPassword La nouvelle empreinte
+     * @return L'utilisateur portant la nouvelle empreinte
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        if (userDetails instanceof User user) {
+            userRepository.updatePasswordByEmailUser(user.getEmailUser(), newPassword);
+            user.setPasswordUser(newPassword);
+        } else if (userDetails instanceof Repairer repairer) {
+            repairerRepository.updatePasswordByEmailRepairer(repairer.getEmailRepairer(), newPassword);
+            repairer.setPasswordRepairer(newPassword);
+        }
+        return userDetails;
+    }
 }
@@ -0,0 +1,29 @@
+package com.electricitybusiness.api.config;
+
+import com.github.benmanes.caffeine.jcache.CacheManagerImpl;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Fabrique des régions du cache de second niveau d'Hibernate, adossée à Caffeine via JCache.
+ * Chaque SessionFactory reçoit son propre gestionnaire de caches, configuré par le fichier
+ * désigné par hibernate.javax.cache.uri et fermé avec elle : le fournisseur JCache partage sinon
+ * un même gestionnaire entre tous les contextes de la JVM (contextes de test sur des bases distinctes).
+ */
+public class HibernateCacheRegionFactory extends JCacheRegionFactory {
+
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+        CachingProvider cachingProvider = getCachingProvider(properties);
+        URI uri = getUri(settings, properties);
+        return new CacheManagerImpl(cachingProvider, false,
+                uri != null ? uri : cachingProvider.getDefaultURI(),
+                getClassLoader(cachingProvider), new Properties());
+    }
+}
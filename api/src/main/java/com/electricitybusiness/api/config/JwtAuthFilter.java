@@ -1,6 +1,8 @@
 package com.electricitybusiness.api.config;
 
 import com.electricitybusiness.api.service.JwtService;
+import com.electricitybusiness.api.service.PrincipalCache;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.io.DecodingException;
@@ -13,6 +15,7 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,12 +25,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(
@@ -44,22 +51,25 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt, jwtService.getAccessSecretKey());
+            // Une seule lecture du token : la signature et l'expiration sont vérifiées ici
+            final Claims claims = jwtService.extractAllClaims(jwt, jwtService.getAccessSecretKey());
+            final String userEmail = claims.getSubject();
 
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
             if (userEmail != null && authentication == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                Optional<List<GrantedAuthority>> statelessAuthorities = jwtService.extractStatelessAuthorities(claims);
 
-                if (userDetails != null && jwtService.isTokenValid(jwt, jwtService.getAccessSecretKey(), userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+                if (statelessAuthorities.isPresent()) {
+                    // Token sans état à jour : rôle lu dans le token, sans chargement de l'utilisateur
+                    authenticate(request, userEmail, statelessAuthorities.get());
+                } else {
+                    UserDetails userDetails = principalCache.get(userEmail, claims.getId(),
+                            () -> this.userDetailsService.loadUserByUsername(userEmail));
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    if (userDetails != null && userEmail.equals(userDetails.getUsername())) {
+                        authenticate(request, userDetails, userDetails.getAuthorities());
+                    }
                 }
             }
 
@@ -86,4 +96,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
     }
 
+    private void authenticate(HttpServletRequest request, Object principal,
+                              Collection<? extends GrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                authorities
+        );
+
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
@@ -0,0 +1,38 @@
+package com.electricitybusiness.api.config;
+
+import com.electricitybusiness.api.service.LoginRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expose l'activité du limiteur des tentatives de connexion :
+ * seaux en mémoire, rejets par clé (IP, email) et seaux retirés.
+ */
+@Component
+@RequiredArgsConstructor
+public class LoginRateLimiterMetrics implements MeterBinder {
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("security.login.rate_limit.buckets", loginRateLimiter, LoginRateLimiter::size)
+                .description("Seaux de jetons du limiteur de connexion en mémoire")
+                .register(registry);
+        FunctionCounter.builder("security.login.rate_limit.rejected", loginRateLimiter, LoginRateLimiter::getIpRejectionCount)
+                .tag("key", "ip")
+                .description("Tentatives de connexion rejetées par le limiteur")
+                .register(registry);
+        FunctionCounter.builder("security.login.rate_limit.rejected", loginRateLimiter, LoginRateLimiter::getEmailRejectionCount)
+                .tag("key", "email")
+                .description("Tentatives de connexion rejetées par le limiteur")
+                .register(registry);
+        FunctionCounter.builder("security.login.rate_limit.evictions", loginRateLimiter, LoginRateLimiter::getEvictionCount)
+                .description("Seaux retirés du limiteur de connexion")
+                .register(registry);
+    }
+}
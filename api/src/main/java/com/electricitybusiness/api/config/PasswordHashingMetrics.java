@@ -0,0 +1,42 @@
+package com.electricitybusiness.api.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expose l'activité du pool de hachage des mots de passe :
+ * durée des hachages, file d'attente, hachages en cours et rejets.
+ */
+@Component
+@RequiredArgsConstructor
+public class PasswordHashingMetrics implements MeterBinder {
+
+    private final PasswordEncoder passwordEncoder;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(passwordEncoder instanceof BoundedPasswordEncoder encoder)) return;
+
+        FunctionTimer.builder("security.password.hash", encoder,
+                        BoundedPasswordEncoder::getHashCount, BoundedPasswordEncoder::getHashTimeNanos, TimeUnit.NANOSECONDS)
+                .description("Hachages et vérifications de mots de passe exécutés par le pool")
+                .register(registry);
+        Gauge.builder("security.password.hash.queue", encoder, BoundedPasswordEncoder::getQueueSize)
+                .description("Hachages de mots de passe en attente d'un thread du pool")
+                .register(registry);
+        Gauge.builder("security.password.hash.active", encoder, BoundedPasswordEncoder::getActiveCount)
+                .description("Hachages de mots de passe en cours")
+                .register(registry);
+        FunctionCounter.builder("security.password.hash.rejected", encoder, BoundedPasswordEncoder::getRejectedCount)
+                .description("Hachages rejetés (file pleine, réponse 503)")
+                .register(registry);
+    }
+}
@@ -0,0 +1,68 @@
+package com.electricitybusiness.api.config;
+
+import com.electricitybusiness.api.service.JwtService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker qui purge périodiquement les refresh tokens expirés.
+ * Chaque lot est supprimé dans sa propre transaction ; les lots s'enchaînent tant qu'ils sont pleins.
+ * La purge est idempotente : plusieurs instances peuvent l'exécuter sans coordination.
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@Profile("!test")
+public class RefreshTokenPurgeWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPurgeWorker.class);
+
+    private final JwtService jwtService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.refresh-tokens.purge-batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${security.refresh-tokens.purge-interval:PT1H}")
+    public void purgeExpiredTokens() {
+        Counter purged = Counter.builder("security.refresh_tokens.purged")
+                .description("Refresh tokens expirés supprimés")
+                .register(meterRegistry);
+        Timer duration = Timer.builder("security.refresh_tokens.purge.duration")
+                .description("Durée d'une purge des refresh tokens expirés")
+                .register(meterRegistry);
+
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.nanoTime();
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = jwtService.purgeExpiredRefreshTokens(now, batchSize);
+                purged.increment(deleted);
+                total += deleted;
+            } while (deleted == batchSize);
+        } catch (RuntimeException e) {
+            // Les lots déjà supprimés restent acquis ; le prochain passage reprend le reste
+            logger.warn("Purge des refresh tokens interrompue après {} suppressions : {}", total, e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            duration.record(elapsed, TimeUnit.NANOSECONDS);
+            if (total > 0) {
+                logger.info("Purge des refresh tokens : {} jetons expirés supprimés en {} ms", total, elapsed / 1_000_000);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.electricitybusiness.api.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Borne le nombre de requêtes traitées simultanément lorsque Tomcat s'exécute sur des threads virtuels :
+ * la taille du pool de threads ne limite plus l'admission, et sans cette borne chaque requête attendrait
+ * une connexion Hikari jusqu'à l'expiration du délai. Au-delà, la requête attend un permis pendant un délai court
+ * puis reçoit une réponse 503. Placé avant la chaîne de sécurité, dont l'authentification peut lire la base.
+ * Une requête asynchrone (flux NDJSON) garde son permis jusqu'à la fin du traitement asynchrone, et non
+ * jusqu'au retour du thread de la requête ; le dispatch asynchrone final n'en reprend pas.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final Duration acquireTimeout;
+
+    private final LongAdder rejections = new LongAdder();
+
+    public RequestConcurrencyLimitFilter(@Value("${web.request-limit.max-concurrent:8}") int maxConcurrent,
+                                         @Value("${web.request-limit.acquire-timeout:PT5S}") Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!acquire()) {
+            rejections.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) permits.release();
+        };
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+                async = true;
+            }
+        } finally {
+            if (!async) release.run();
+        }
+    }
+
+    /**
+     * Nombre de requêtes en cours de traitement.
+     * @return Le nombre de permis pris
+     */
+    public int getInFlightCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * Nombre cumulé de requêtes rejetées faute de permis.
+     * @return Le nombre de rejets depuis le démarrage
+     */
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * Rend le permis à la fin du traitement asynchrone, qu'il aboutisse, expire ou échoue.
+     */
+    private record ReleasingAsyncListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Traitement relancé : le listener doit être réenregistré pour rester notifié
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
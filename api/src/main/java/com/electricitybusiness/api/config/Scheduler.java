@@ -1,33 +1,122 @@
 package com.electricitybusiness.api.config;
 
-import com.electricitybusiness.api.model.Booking;
-import com.electricitybusiness.api.model.BookingStatus;
+import com.electricitybusiness.api.dto.booking.BookingSlotDTO;
 import com.electricitybusiness.api.repository.BookingRepository;
 import com.electricitybusiness.api.service.BookingSchedulerService;
+import com.electricitybusiness.api.service.SchedulerLeaseService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
+/**
+ * Complète la file de transitions au démarrage pour les réservations actives qui n'y figurent pas encore.
+ * Le parcours se fait en arrière-plan, par pages de projections légères (keyset sur l'identifiant public),
+ * pendant que l'API sert déjà le trafic ; sa progression et sa durée sont exposées en métriques.
+ */
 @Component
 @RequiredArgsConstructor
 @Profile("!test")
 public class Scheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(Scheduler.class);
+
     private final BookingRepository bookingRepository;
     private final BookingSchedulerService bookingSchedulerService;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final TaskScheduler taskScheduler;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    @Value("${booking.transitions.rehydration-batch-size:1000}")
+    private int batchSize;
 
     @EventListener(ApplicationReadyEvent.class)
     public void onStartup() {
-        // Au démarrage de l'application, reprogrammer les tâches pour les réservations confirmées futures
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> futureConfirmed = bookingRepository.findAllByStatusBookingAndEndingDateAfter(BookingStatus.ACCEPTEE, now);
-        // Adapte la chaîne de statut à votre énumération/valeurs (par exemple "ACCEPTEE" ou énumération)
-        for (Booking booking : futureConfirmed) {
-            bookingSchedulerService.scheduleBookingTasks(booking);
+        // Ne pas retarder la disponibilité de l'application : le parcours des réservations se fait en arrière-plan
+        taskScheduler.schedule(this::rehydrate, Instant.now());
+    }
+
+    /**
+     * Parcourt les réservations actives page par page et insère les transitions manquantes,
+     * chaque page dans sa propre transaction.
+     */
+    void rehydrate() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        // Seule l'instance leader complète la file, les autres la trouveront déjà remplie
+        try {
+            if (!schedulerLeaseService.acquireLeadership(now)) return;
+        } catch (RuntimeException e) {
+            // Création concurrente du bail par une autre instance au premier démarrage
+            return;
+        }
+
+        Counter bookings = Counter.builder("booking.scheduler.rehydration.bookings")
+                .description("Réservations actives parcourues par la reprise de la file au démarrage")
+                .register(meterRegistry);
+        Counter created = Counter.builder("booking.scheduler.rehydration.transitions.created")
+                .description("Transitions manquantes insérées par la reprise de la file au démarrage")
+                .register(meterRegistry);
+        LongTaskTimer active = LongTaskTimer.builder("booking.scheduler.rehydration.active")
+                .description("Reprise de la file de transitions en cours")
+                .register(meterRegistry);
+        Timer duration = Timer.builder("booking.scheduler.rehydration.duration")
+                .description("Durée de la reprise de la file de transitions au démarrage")
+                .register(meterRegistry);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        LongTaskTimer.Sample running = active.start();
+        long scanned = 0;
+        long inserted = 0;
+        try {
+            UUID lastPublicId = null;
+            List<BookingSlotDTO> page;
+            do {
+                page = bookingRepository.findActiveSlotsEndingAfter(now, lastPublicId, PageRequest.ofSize(batchSize));
+                if (page.isEmpty()) break;
+
+                int createdInPage = rehydratePage(page, now);
+                bookings.increment(page.size());
+                created.increment(createdInPage);
+                scanned += page.size();
+                inserted += createdInPage;
+                lastPublicId = page.get(page.size() - 1).getPublicId();
+            } while (page.size() == batchSize);
+
+            logger.info("Reprise de la file de transitions terminée : {} réservations parcourues, {} transitions insérées",
+                    scanned, inserted);
+        } catch (RuntimeException e) {
+            // Les pages déjà traitées restent acquises ; le prochain démarrage complétera le reste
+            logger.warn("Reprise de la file de transitions interrompue après {} réservations : {}", scanned, e.getMessage());
+        } finally {
+            running.stop();
+            sample.stop(duration);
+        }
+    }
+
+    private int rehydratePage(List<BookingSlotDTO> page, LocalDateTime now) {
+        try {
+            return bookingSchedulerService.rehydrateSlots(page, now);
+        } catch (DataIntegrityViolationException e) {
+            // Une réservation de la page a été planifiée entre-temps par une requête : on relit la page une fois
+            return bookingSchedulerService.rehydrateSlots(page, now);
         }
     }
 }
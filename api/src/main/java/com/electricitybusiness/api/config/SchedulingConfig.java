@@ -1,19 +1,43 @@
 package com.electricitybusiness.api.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
 @EnableScheduling
 public class SchedulingConfig {
+
+    // Nombre maximal de tâches planifiées exécutées simultanément, chacune pouvant tenir une connexion JDBC
+    private static final int SCHEDULER_CONCURRENCY = 8;
+
+    private static final String THREAD_NAME_PREFIX = "booking-scheduler-";
+
     @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
     public ThreadPoolTaskScheduler taskScheduler() {
         ThreadPoolTaskScheduler ts = new ThreadPoolTaskScheduler();
-        ts.setPoolSize(8);
-        ts.setThreadNamePrefix("booking-scheduler-");
+        ts.setPoolSize(SCHEDULER_CONCURRENCY);
+        ts.setThreadNamePrefix(THREAD_NAME_PREFIX);
         ts.initialize();
         return ts;
     }
+
+    /**
+     * Profil virtual-threads : chaque tâche s'exécute sur un thread virtuel, la limite de concurrence
+     * remplace la taille du pool pour borner le nombre de connexions tenues par les tâches.
+     */
+    @Bean(name = "taskScheduler")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskScheduler virtualThreadTaskScheduler() {
+        SimpleAsyncTaskScheduler ts = new SimpleAsyncTaskScheduler();
+        ts.setVirtualThreads(true);
+        ts.setConcurrencyLimit(SCHEDULER_CONCURRENCY);
+        ts.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        return ts;
+    }
 }
@@ -0,0 +1,60 @@
+package com.electricitybusiness.api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+
+/**
+ * Expose, par région du cache de second niveau d'Hibernate :
+ * entrées, succès, échecs, taux de succès et évictions.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory jCacheRegionFactory)) return;
+
+        CacheManager cacheManager = jCacheRegionFactory.getCacheManager();
+        for (String region : cacheManager.getCacheNames()) {
+            Cache<?, ?> cache = cacheManager.getCache(region).unwrap(Cache.class);
+            Gauge.builder("hibernate.cache.region.size", cache, Cache::estimatedSize)
+                    .tag("region", region)
+                    .description("Entrées de la région du cache de second niveau")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.region.requests", cache, c -> c.stats().hitCount())
+                    .tag("region", region)
+                    .tag("result", "hit")
+                    .description("Lectures servies par la région du cache de second niveau")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.region.requests", cache, c -> c.stats().missCount())
+                    .tag("region", region)
+                    .tag("result", "miss")
+                    .description("Lectures absentes de la région du cache de second niveau")
+                    .register(registry);
+            Gauge.builder("hibernate.cache.region.hit.ratio", cache, c -> c.stats().hitRate())
+                    .tag("region", region)
+                    .description("Taux de succès de la région du cache de second niveau")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.region.evictions", cache, c -> c.stats().evictionCount())
+                    .tag("region", region)
+                    .description("Entrées évincées de la région du cache de second niveau")
+                    .register(registry);
+        }
+    }
+}
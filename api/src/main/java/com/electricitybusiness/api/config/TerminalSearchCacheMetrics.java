@@ -0,0 +1,47 @@
+package com.electricitybusiness.api.config;
+
+import com.electricitybusiness.api.service.TerminalSearchCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expose les compteurs du cache de recherche de bornes :
+ * entrées, succès, échecs et évictions par cause (taille, expiration, invalidation).
+ */
+@Component
+@RequiredArgsConstructor
+public class TerminalSearchCacheMetrics implements MeterBinder {
+
+    private final TerminalSearchCache terminalSearchCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("terminal.search.cache.size", terminalSearchCache, TerminalSearchCache::size)
+                .description("Entrées du cache de recherche de bornes")
+                .register(registry);
+        FunctionCounter.builder("terminal.search.cache.requests", terminalSearchCache, TerminalSearchCache::getHitCount)
+                .tag("result", "hit")
+                .description("Recherches de bornes servies par le cache")
+                .register(registry);
+        FunctionCounter.builder("terminal.search.cache.requests", terminalSearchCache, TerminalSearchCache::getMissCount)
+                .tag("result", "miss")
+                .description("Recherches de bornes ayant chargé une entrée du cache")
+                .register(registry);
+        FunctionCounter.builder("terminal.search.cache.evictions", terminalSearchCache, TerminalSearchCache::getSizeEvictionCount)
+                .tag("cause", "size")
+                .description("Entrées évincées du cache de recherche de bornes")
+                .register(registry);
+        FunctionCounter.builder("terminal.search.cache.evictions", terminalSearchCache, TerminalSearchCache::getExpiredEvictionCount)
+                .tag("cause", "expired")
+                .description("Entrées évincées du cache de recherche de bornes")
+                .register(registry);
+        FunctionCounter.builder("terminal.search.cache.evictions", terminalSearchCache, TerminalSearchCache::getInvalidatedEvictionCount)
+                .tag("cause", "invalidated")
+                .description("Entrées évincées du cache de recherche de bornes")
+                .register(registry);
+    }
+}
@@ -0,0 +1,40 @@
+package com.electricitybusiness.api.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expose l'activité du profil virtual-threads : requêtes en cours et rejetées par la borne de concurrence,
+ * épinglages des threads virtuels détectés par JFR.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@RequiredArgsConstructor
+public class VirtualThreadMetrics implements MeterBinder {
+
+    private final RequestConcurrencyLimitFilter requestConcurrencyLimitFilter;
+    private final VirtualThreadPinningMonitor virtualThreadPinningMonitor;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("http.server.concurrency.in_flight", requestConcurrencyLimitFilter, RequestConcurrencyLimitFilter::getInFlightCount)
+                .description("Requêtes en cours de traitement sous la borne de concurrence")
+                .register(registry);
+        FunctionCounter.builder("http.server.concurrency.rejected", requestConcurrencyLimitFilter, RequestConcurrencyLimitFilter::getRejectionCount)
+                .description("Requêtes rejetées (503) faute de permis de la borne de concurrence")
+                .register(registry);
+        FunctionTimer.builder("jvm.threads.virtual.pinned", virtualThreadPinningMonitor,
+                        VirtualThreadPinningMonitor::getPinnedCount, VirtualThreadPinningMonitor::getPinnedNanos, TimeUnit.NANOSECONDS)
+                .description("Épinglages de threads virtuels sur leur thread porteur au-delà du seuil")
+                .register(registry);
+    }
+}
@@ -0,0 +1,106 @@
+package com.electricitybusiness.api.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Détecte, par l'événement JFR jdk.VirtualThreadPinned, les threads virtuels restés épinglés à leur thread porteur
+ * (blocage dans un bloc synchronized ou un appel natif) au-delà d'un seuil.
+ * Les épinglages sont comptés et chaque site est journalisé une fois, avec sa première frame applicative.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final String APPLICATION_PACKAGE = "com.electricitybusiness.";
+
+    @Value("${web.virtual-threads.pinning-threshold:PT0.02S}")
+    private Duration threshold;
+
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+        } catch (RuntimeException e) {
+            // JFR indisponible (JVM sans support) : l'application fonctionne sans détection
+            logger.warn("Détection de l'épinglage des threads virtuels indisponible : {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) stream.close();
+    }
+
+    /**
+     * Nombre cumulé d'épinglages au-delà du seuil.
+     * @return Le nombre d'épinglages depuis le démarrage
+     */
+    public long getPinnedCount() {
+        return pinnedEvents.sum();
+    }
+
+    /**
+     * Durée cumulée des épinglages au-delà du seuil.
+     * @return La durée totale en nanosecondes
+     */
+    public double getPinnedNanos() {
+        return pinnedNanos.sum();
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        pinnedNanos.add(event.getDuration().toNanos());
+
+        String site = site(event.getStackTrace());
+        if (reportedSites.add(site)) {
+            logger.warn("Thread virtuel épinglé {} ms dans {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) return "(pile indisponible)";
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) return describe(frame);
+        }
+        return describe(frames.get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -20,6 +20,8 @@ public class WebConfig {
                         )
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        // Curseur de la page suivante des listes paginées
+                        .exposedHeaders("X-Next-Cursor")
                         .allowCredentials(true)
                 ;
             }
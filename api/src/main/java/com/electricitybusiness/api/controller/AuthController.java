@@ -4,10 +4,13 @@ import com.electricitybusiness.api.config.CustomUserDetailService;
 import com.electricitybusiness.api.model.RefreshToken;
 import com.electricitybusiness.api.model.User;
 import com.electricitybusiness.api.service.JwtService;
+import com.electricitybusiness.api.service.LoginRateLimiter;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -16,17 +19,22 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailService customUserDetailService;
+    private final LoginRateLimiter loginRateLimiter;
 
 /*    @PostMapping("/login")
     public ResponseEntity<?> authenticate(@RequestBody AuthRequest request, HttpServletResponse response) {
@@ -43,7 +51,7 @@ public class AuthController {
             final RefreshToken refreshToken = jwtService.generateRefreshTokenBdd((User) userDetails);
 
             // Création d'un cookie HttpOnly pour le refresh token (optionnel mais recommandé)
-            ResponseCookie cookie = ResponseCookie.from("refreshToken", refreshToken.getIdRefreshToken())
+            ResponseCookie cookie = ResponseCookie.from("refreshToken", refreshToken.getToken())
                     .httpOnly(true)
                     .secure(true)
                     .path("/")
@@ -63,29 +71,29 @@ public class AuthController {
     }*/
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticate(@RequestBody AuthRequest request, HttpServletResponse response) {
-        System.out.println("AuthController: Attempting authentication for user: " + request.emailUser());
+    public ResponseEntity<?> authenticate(@RequestBody AuthRequest request, HttpServletRequest httpRequest,
+                                          HttpServletResponse response) {
+        // Limitation par IP et par email avant toute lecture en base ou tout hachage ;
+        // derrière le proxy de l'hébergeur, getRemoteAddr() est l'adresse du client résolue par Tomcat (RemoteIpValve)
+        long retryAfterNanos = loginRateLimiter.acquire(httpRequest.getRemoteAddr(), request.emailUser());
+        if (retryAfterNanos > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos) + 1))
+                    .body(Map.of("error", "Trop de tentatives de connexion, réessayez plus tard."));
+        }
+
         try {
-            System.out.println("AuthController: Calling authenticationManager.authenticate() for user: " + request.emailUser());
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.emailUser(), request.passwordUser())
             );
-            System.out.println("AuthController: Authentication successful for user: " + request.emailUser());
+            logger.debug("Authentification réussie");
 
-            System.out.println("AuthController: Loading UserDetails for user: " + request.emailUser());
             final UserDetails userDetails = customUserDetailService.loadUserByUsername(request.emailUser());
-            System.out.println("AuthController: UserDetails loaded: " + userDetails.getUsername());
-
-            System.out.println("AuthController: Generating Access Token for user: " + userDetails.getUsername());
-            final String jwt = jwtService.generateAccessToken(userDetails.getUsername());
-            System.out.println("AuthController: Access Token generated.");
-
-            System.out.println("AuthController: Generating Refresh Token in DB for user: " + userDetails.getUsername());
+            final String jwt = jwtService.generateAccessToken(userDetails);
             final RefreshToken refreshToken = jwtService.generateRefreshTokenBdd((User) userDetails);
-            System.out.println("AuthController: Refresh Token generated with ID: " + refreshToken.getIdRefreshToken());
+            logger.debug("Jetons d'accès et de rafraîchissement générés");
 
-            System.out.println("AuthController: Creating HttpOnly cookie for refresh token.");
-            ResponseCookie cookie = ResponseCookie.from("refreshToken", refreshToken.getIdRefreshToken())
+            ResponseCookie cookie = ResponseCookie.from("refreshToken", refreshToken.getToken())
                     .httpOnly(true)
                     .secure(true)
                     .path("/")
@@ -94,13 +102,16 @@ public class AuthController {
                     .build();
 
             response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
-            System.out.println("AuthController: Authentication successful for user: " + request.emailUser() + ". Returning access token.");
             return ResponseEntity.ok(Map.of("accessToken", jwt));
 
+        } catch (ResponseStatusException e) {
+            // Pool de hachage saturé : rejet immédiat, le client peut réessayer
+            return ResponseEntity.status(e.getStatusCode())
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getReason()));
         } catch (Exception e) {
-            System.err.println("AuthController: ERROR - Authentication failed for user: " + request.emailUser());
-            e.printStackTrace(); // Ceci est CRUCIAL pour voir la stack trace complète de l'erreur
-            System.err.println("AuthController: Returning UNAUTHORIZED response.");
+            // Identifiants refusés ou erreur inattendue : même réponse, la cause reste dans les journaux de débogage
+            logger.debug("Échec de l'authentification", e);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Email ou mot de passe incorrect"));
         }
@@ -134,7 +145,6 @@ public class AuthController {
 
         try {
             User user = refreshTokenSaved.get().getUser();
-            String username = user.getUsername();
 
             // Valide le refresh token avec la clé de refresh
             if (!jwtService.isTokenValid(refreshToken, jwtService.getRefreshSecretKey(), user)) { // <--- UTILISER getRefreshSecretKey()
@@ -143,10 +153,13 @@ public class AuthController {
             }
 
             // Génère un nouvel ACCESS token
-            String newAccessToken = jwtService.generateAccessToken(username); // OK, utilise la clé d'accès
+            String newAccessToken = jwtService.generateAccessToken(user); // OK, utilise la clé d'accès
+
+            // Rotation : l'ancien refresh token est remplacé dans la même transaction
+            RefreshToken rotated = jwtService.rotateRefreshToken(refreshTokenSaved.get());
 
             // Met à jour le cookie du refresh token
-            ResponseCookie cookie = ResponseCookie.from("refreshToken", refreshToken)
+            ResponseCookie cookie = ResponseCookie.from("refreshToken", rotated.getToken())
                     .httpOnly(true)
                     .secure(true) // Assurez-vous que c'est bien 'true' en production
                     .path("/")
@@ -1,6 +1,7 @@
 package com.electricitybusiness.api.controller;
 
 import com.electricitybusiness.api.dto.booking.BookingCreateDTO;
+import com.electricitybusiness.api.dto.booking.BookingCursor;
 import com.electricitybusiness.api.dto.booking.BookingDTO;
 import com.electricitybusiness.api.dto.booking.BookingStatusDTO;
 import com.electricitybusiness.api.dto.car.CarCreateDTO;
@@ -24,6 +25,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.swing.text.Document;
@@ -48,21 +50,46 @@ public class BookingController {
     private final EntityMapper mapper;
     private final UserService userService;
     private final TerminalService terminalService;
+    private final NdjsonExporter ndjsonExporter;
 
     /**
-     * Récupère toutes les réservations.
-     * GET /api/bookings
+     * Récupère toutes les réservations, ou une page triée par date de début si limit ou after est fourni.
+     * GET /api/bookings/all?limit=100&after=2025-01-31T08:00_42
      *
-     * @return Une liste de toutes les réservations
+     * @param limit Le nombre maximal de réservations de la page (optionnel)
+     * @param after Le curseur renvoyé par la page précédente dans l'en-tête X-Next-Cursor (optionnel)
+     * @return Une liste de réservations
      */
     @GetMapping("/all")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<List<BookingDTO>> getAllBookings() {
-        List<Booking> bookings = bookingService.getAllBookings();
-        List<BookingDTO> bookingDTO = bookings.stream()
-                .map(mapper::toBookingDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(bookingDTO);
+    public ResponseEntity<List<BookingDTO>> getAllBookings(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after
+    ) {
+        if (limit != null || after != null) {
+            int pageSize = limit != null ? limit : ListResponses.DEFAULT_PAGE_SIZE;
+            BookingCursor cursor = after != null ? BookingCursor.parse(after) : null;
+            if (!ListResponses.isValidPageSize(pageSize) || (after != null && cursor == null)) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<Booking> page = bookingService.getBookingsPage(
+                    cursor != null ? cursor.startingDate() : null, cursor != null ? cursor.idBooking() : null, pageSize);
+            return ListResponses.page(page, pageSize, mapper::toBookingDTO, booking -> BookingCursor.of(booking).toString());
+        }
+
+        return ResponseEntity.ok(bookingService.getAllBookingDTOs());
+    }
+
+    /**
+     * Exporte toutes les réservations au fil de la lecture, une ligne JSON par réservation.
+     * GET /api/bookings/all (Accept: application/x-ndjson)
+     *
+     * @return Un flux NDJSON de réservations triées par date de début
+     */
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllBookings() {
+        return ndjsonExporter.export(bookingService::forEachBooking, mapper::toBookingDTO);
     }
 /*    @GetMapping
     public ResponseEntity<List<BookingDTO>> getAllBookings() {
@@ -322,25 +349,51 @@ public class BookingController {
 
 
     /**
-     * Récupère tous les Réservations d'un utilisateur.
-     * GET /api/booking/user/owner
-     * @return Une liste de tous les véhicules
+     * Récupère tous les Réservations des lieux de l'utilisateur, ou une page triée par date de début si limit ou after est fourni.
+     * GET /api/booking/user/owner?limit=100&after=2025-01-31T08:00_42
+     * @param limit Le nombre maximal de réservations de la page (optionnel)
+     * @param after Le curseur renvoyé par la page précédente dans l'en-tête X-Next-Cursor (optionnel)
+     * @return Une liste de réservations
      */
     @GetMapping("/user/owner")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<BookingDTO>> getAllBookingsByUserOwner() {
+    public ResponseEntity<List<BookingDTO>> getAllBookingsByUserOwner(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after
+    ) {
         // Récupérer l'utilisateur authentifié
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
         Long idUser = userService.getIdByEmailUser(email);
         User user = userService.getUserById(idUser);
 
-        // Récupérer les voitures de l'utilisateur
-        List<Booking> bookings = bookingService.getBookingsByUserOwner(user);
-        List<BookingDTO> bookingsDTO = bookings.stream()
-                .map(mapper::toBookingDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(bookingsDTO);
+        if (limit != null || after != null) {
+            int pageSize = limit != null ? limit : ListResponses.DEFAULT_PAGE_SIZE;
+            BookingCursor cursor = after != null ? BookingCursor.parse(after) : null;
+            if (!ListResponses.isValidPageSize(pageSize) || (after != null && cursor == null)) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<Booking> page = bookingService.getBookingsByUserOwnerPage(user,
+                    cursor != null ? cursor.startingDate() : null, cursor != null ? cursor.idBooking() : null, pageSize);
+            return ListResponses.page(page, pageSize, mapper::toBookingDTO, booking -> BookingCursor.of(booking).toString());
+        }
+
+        return ResponseEntity.ok(bookingService.getBookingDTOsByUserOwner(user));
+    }
+
+    /**
+     * Exporte les Réservations des lieux de l'utilisateur au fil de la lecture, une ligne JSON par réservation.
+     * GET /api/booking/user/owner (Accept: application/x-ndjson)
+     * @return Un flux NDJSON de réservations triées par date de début
+     */
+    @GetMapping(value = "/user/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> streamAllBookingsByUserOwner() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User user = userService.getUserById(userService.getIdByEmailUser(authentication.getName()));
+
+        return ndjsonExporter.export(
+                action -> bookingService.forEachBookingByUserOwner(user, action), mapper::toBookingDTO);
     }
 
     @PostMapping("/user")
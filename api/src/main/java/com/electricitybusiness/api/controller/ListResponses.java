@@ -0,0 +1,40 @@
+package com.electricitybusiness.api.controller;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Réponses des listes volumineuses par pages : le curseur de la page suivante est renvoyé dans l'en-tête
+ * X-Next-Cursor. Les exports complets en flux NDJSON passent par NdjsonExporter.
+ */
+final class ListResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private ListResponses() {
+    }
+
+    static boolean isValidPageSize(int limit) {
+        return limit >= 1 && limit <= MAX_PAGE_SIZE;
+    }
+
+    /**
+     * Convertit une page d'entités ; une page complète porte le curseur de la page suivante.
+     */
+    static <E, D> ResponseEntity<List<D>> page(List<E> entities, int limit,
+                                               Function<E, D> toDto, Function<E, String> cursorOf) {
+        List<D> dtos = entities.stream().map(toDto).toList();
+        if (entities.size() < limit) {
+            return ResponseEntity.ok(dtos);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, cursorOf.apply(entities.get(entities.size() - 1)))
+                .body(dtos);
+    }
+}
@@ -0,0 +1,105 @@
+package com.electricitybusiness.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Exports NDJSON des listes volumineuses : une ligne JSON par élément, écrite au fil de la lecture.
+ * La source parcourt les entités dans une transaction de lecture qui tient une connexion JDBC pendant toute
+ * l'écriture, au rythme du client : le nombre d'exports simultanés est donc borné pour laisser au reste de l'API
+ * des connexions du pool, et un export au-delà reçoit une réponse 503.
+ * La durée d'un export est elle aussi bornée : un client trop lent voit son flux interrompu,
+ * pour qu'il ne prive pas les autres exports de leur permis.
+ */
+@Component
+public class NdjsonExporter {
+
+    private static final Object PERMIT_INTERCEPTOR_KEY = NdjsonExporter.class.getName() + ".permit";
+
+    private static final Logger logger = LoggerFactory.getLogger(NdjsonExporter.class);
+
+    private final ObjectMapper objectMapper;
+    private final Semaphore permits;
+    private final Duration maxDuration;
+
+    public NdjsonExporter(ObjectMapper objectMapper,
+                          @Value("${web.ndjson.max-concurrent-exports:1}") int maxConcurrentExports,
+                          @Value("${web.ndjson.max-duration:PT2M}") Duration maxDuration) {
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(maxConcurrentExports);
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Écrit chaque entité fournie par la source sous forme d'une ligne JSON, sans accumuler la liste.
+     * @param source Parcourt les entités (dans sa propre transaction) et les passe au consommateur
+     * @param toDto Convertit chaque entité avant écriture
+     * @return Le flux NDJSON, interrompu au-delà de la durée maximale,
+     * ou une réponse 503 si le nombre maximal d'exports simultanés est atteint
+     */
+    public <E> ResponseEntity<StreamingResponseBody> export(Consumer<Consumer<E>> source, Function<E, ?> toDto) {
+        if (!permits.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+
+        // Rendu à la fin du flux, ou à la fin de la requête asynchrone si le flux n'a pas pu s'exécuter (délai dépassé)
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) permits.release();
+        };
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            WebAsyncUtils.getAsyncManager(attributes.getRequest()).registerCallableInterceptor(PERMIT_INTERCEPTOR_KEY,
+                    new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                            release.run();
+                        }
+                    });
+        }
+
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        StreamingResponseBody body = output -> {
+            try {
+                source.accept(entity -> {
+                    try {
+                        if (System.nanoTime() - deadline > 0) {
+                            logger.warn("Export NDJSON interrompu après {} : client trop lent", maxDuration);
+                            throw new IOException("Durée maximale de l'export dépassée");
+                        }
+                        output.write(objectMapper.writeValueAsBytes(toDto.apply(entity)));
+                        output.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                release.run();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
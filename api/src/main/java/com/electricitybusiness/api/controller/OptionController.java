@@ -39,11 +39,7 @@ public class OptionController {
     @GetMapping
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<List<OptionDTO>> getAllOptions() {
-        List<Option> options = optionService.getAllOptions();
-        List<OptionDTO> optionsDTO = options.stream()
-                .map(mapper::toOptionDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(optionsDTO);
+        return ResponseEntity.ok(optionService.getAllOptionDTOs());
     }
 
     /**
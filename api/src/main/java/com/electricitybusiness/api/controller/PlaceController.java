@@ -11,11 +11,13 @@ import com.electricitybusiness.api.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -33,20 +35,42 @@ public class PlaceController {
     private final PlaceService placeService;
     private final EntityMapper mapper;
     private final UserService userService;
+    private final NdjsonExporter ndjsonExporter;
 
     /**
-     * Récupère tous les lieux.
-     * GET /api/places
-     * @return Une liste de tous les lieux
+     * Récupère tous les lieux, ou une page si limit ou after est fourni.
+     * GET /api/places?limit=100&after=42
+     * @param limit Le nombre maximal de lieux de la page (optionnel)
+     * @param after Le curseur renvoyé par la page précédente dans l'en-tête X-Next-Cursor (optionnel)
+     * @return Une liste de lieux
      */
     @GetMapping
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<List<PlaceDTO>> getAllLieux() {
-        List<Place> places = placeService.getAllPlaces();
-        List<PlaceDTO> lieuxDTO = places.stream()
-                .map(mapper::toPlaceDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(lieuxDTO);
+    public ResponseEntity<List<PlaceDTO>> getAllLieux(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after
+    ) {
+        if (limit != null || after != null) {
+            int pageSize = limit != null ? limit : ListResponses.DEFAULT_PAGE_SIZE;
+            if (!ListResponses.isValidPageSize(pageSize)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ListResponses.page(placeService.getPlacesPage(after != null ? after : 0L, pageSize),
+                    pageSize, mapper::toPlaceDTO, place -> place.getIdPlace().toString());
+        }
+
+        return ResponseEntity.ok(placeService.getAllPlaceDTOs());
+    }
+
+    /**
+     * Exporte tous les lieux au fil de la lecture, une ligne JSON par lieu.
+     * GET /api/places (Accept: application/x-ndjson)
+     * @return Un flux NDJSON de lieux
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllLieux() {
+        return ndjsonExporter.export(placeService::forEachPlace, mapper::toPlaceDTO);
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.electricitybusiness.api.controller;
 
+import com.electricitybusiness.api.dto.terminal.NearbyTerminalDTO;
 import com.electricitybusiness.api.dto.terminal.TerminalCreateDTO;
 import com.electricitybusiness.api.dto.terminal.TerminalDTO;
 import com.electricitybusiness.api.dto.terminal.TerminalSearchDTO;
@@ -14,11 +15,13 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -36,24 +39,48 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TerminalController {
 
+    private static final int MAX_NEAREST_TERMINALS = 100;
+
     private final TerminalService terminalService;
     private final EntityMapper mapper;
     private final UserService userService;
+    private final NdjsonExporter ndjsonExporter;
 
 
     /**
-     * Récupère toutes les Terminals de recharge.
-     * GET /api/terminals
-     * @return Une liste de toutes les Terminals
+     * Récupère toutes les Terminals de recharge, ou une page si limit ou after est fourni.
+     * GET /api/terminals?limit=100&after=42
+     * @param limit Le nombre maximal de Terminals de la page (optionnel)
+     * @param after Le curseur renvoyé par la page précédente dans l'en-tête X-Next-Cursor (optionnel)
+     * @return Une liste de Terminals
      */
     @GetMapping
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<List<TerminalDTO>> getAllTerminals() {
-        List<Terminal> terminals = terminalService.getAllTerminals();
-        List<TerminalDTO> TerminalDTO = terminals.stream()
-                .map(mapper::toTerminalDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(TerminalDTO);
+    public ResponseEntity<List<TerminalDTO>> getAllTerminals(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after
+    ) {
+        if (limit != null || after != null) {
+            int pageSize = limit != null ? limit : ListResponses.DEFAULT_PAGE_SIZE;
+            if (!ListResponses.isValidPageSize(pageSize)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ListResponses.page(terminalService.getTerminalsPage(after != null ? after : 0L, pageSize),
+                    pageSize, mapper::toTerminalDTO, terminal -> terminal.getIdTerminal().toString());
+        }
+
+        return ResponseEntity.ok(terminalService.getAllTerminalDTOs());
+    }
+
+    /**
+     * Exporte toutes les Terminals de recharge au fil de la lecture, une ligne JSON par Terminal.
+     * GET /api/terminals (Accept: application/x-ndjson)
+     * @return Un flux NDJSON de Terminals
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllTerminals() {
+        return ndjsonExporter.export(terminalService::forEachTerminal, mapper::toTerminalDTO);
     }
 
     /**
@@ -155,6 +182,39 @@ public class TerminalController {
 
         return ResponseEntity.ok(terminalDTO);
     }
+
+    /**
+     * Recherche les k Terminals libres les plus proches d'un point, triées par distance.
+     * GET /api/terminals/nearest
+     * @param longitude La longitude du point de recherche
+     * @param latitude La latitude du point de recherche
+     * @param k Le nombre de Terminals souhaitées (20 par défaut, 100 au plus)
+     * @param occupied Le statut d'occupation des Terminals (optionnel)
+     * @param startingDate La date de début de la période souhaitée (optionnel)
+     * @param endingDate La date de fin de la période souhaitée (optionnel)
+     * @return Les Terminals les plus proches avec leur distance en kilomètres
+     */
+    @GetMapping("/nearest")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<NearbyTerminalDTO>> findNearestTerminals(
+            @RequestParam(required = false) BigDecimal longitude,
+            @RequestParam(required = false) BigDecimal latitude,
+            @RequestParam(defaultValue = "20") int k,
+            @RequestParam(required = false) Boolean occupied,
+            @RequestParam(required = false) LocalDateTime startingDate,
+            @RequestParam(required = false) LocalDateTime endingDate
+    ) {
+        if (longitude == null || latitude == null || k < 1 || k > MAX_NEAREST_TERMINALS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<NearbyTerminalDTO> nearest = terminalService.findNearestAvailable(
+                        longitude, latitude, k, occupied, startingDate, endingDate).stream()
+                .map(nearby -> new NearbyTerminalDTO(mapper.toTerminalDTO(nearby.terminal()), nearby.distanceKm()))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(nearest);
+    }
     
     // Requete pour le user connecté
 
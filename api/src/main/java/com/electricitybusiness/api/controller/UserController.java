@@ -9,9 +9,11 @@ import com.electricitybusiness.api.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,15 +31,30 @@ public class UserController {
     private final UserService userService;
     private final EntityMapper mapper;
     private final JwtService jwtService;
+    private final NdjsonExporter ndjsonExporter;
 
     /**
-     * Récupère tous les utilisateurs.
-     * GET /api/users
-     * @return Une liste de tous les utilisateurs
+     * Récupère tous les utilisateurs, ou une page si limit ou after est fourni.
+     * GET /api/users?limit=100&after=42
+     * @param limit Le nombre maximal d'utilisateurs de la page (optionnel)
+     * @param after Le curseur renvoyé par la page précédente dans l'en-tête X-Next-Cursor (optionnel)
+     * @return Une liste d'utilisateurs
      */
     @GetMapping
     @PreAuthorize("hasAuthority('ADMIN')")
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
+    public ResponseEntity<List<UserDTO>> getAllUsers(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after
+    ) {
+        if (limit != null || after != null) {
+            int pageSize = limit != null ? limit : ListResponses.DEFAULT_PAGE_SIZE;
+            if (!ListResponses.isValidPageSize(pageSize)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ListResponses.page(userService.getUsersPage(after != null ? after : 0L, pageSize),
+                    pageSize, mapper::toDTO, user -> user.getIdUser().toString());
+        }
+
         List<UserDTO> userDTOList = userService.getAllUsers();
         if (userDTOList.isEmpty()) {
             throw new ResourceNotFoundException("Aucun utilisateur trouvé");
@@ -45,6 +62,17 @@ public class UserController {
         return ResponseEntity.ok(userDTOList);
     }
 
+    /**
+     * Exporte tous les utilisateurs au fil de la lecture, une ligne JSON par utilisateur.
+     * GET /api/users (Accept: application/x-ndjson)
+     * @return Un flux NDJSON d'utilisateurs
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ndjsonExporter.export(userService::forEachUser, mapper::toDTO);
+    }
+
     /**
      * Récupère un utilisateur par son ID.
      * GET /api/users/{id}
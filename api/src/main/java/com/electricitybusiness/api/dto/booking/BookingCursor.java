@@ -0,0 +1,40 @@
+package com.electricitybusiness.api.dto.booking;
+
+import com.electricitybusiness.api.model.Booking;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Curseur de pagination des réservations : position de la dernière réservation d'une page
+ * dans l'ordre (date de début, identifiant). Sérialisé sous la forme "2025-01-31T08:00_42".
+ */
+public record BookingCursor(LocalDateTime startingDate, Long idBooking) {
+
+    private static final char SEPARATOR = '_';
+
+    public static BookingCursor of(Booking booking) {
+        return new BookingCursor(booking.getStartingDate(), booking.getIdBooking());
+    }
+
+    /**
+     * Lit un curseur transmis par le client.
+     * @param value Le curseur sérialisé
+     * @return Le curseur, ou null s'il est mal formé
+     */
+    public static BookingCursor parse(String value) {
+        int separator = value.lastIndexOf(SEPARATOR);
+        if (separator <= 0) return null;
+        try {
+            return new BookingCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.valueOf(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return startingDate.toString() + SEPARATOR + idBooking;
+    }
+}
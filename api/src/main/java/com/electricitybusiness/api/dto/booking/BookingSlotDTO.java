@@ -0,0 +1,28 @@
+package com.electricitybusiness.api.dto.booking;
+
+import com.electricitybusiness.api.model.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection légère d'une réservation
+ * Ne contient que le créneau et la borne, sans charger les entités liées
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSlotDTO {
+    private UUID publicId;
+
+    private UUID terminalPublicId;
+
+    private LocalDateTime startingDate;
+
+    private LocalDateTime endingDate;
+
+    private BookingStatus statusBooking;
+}
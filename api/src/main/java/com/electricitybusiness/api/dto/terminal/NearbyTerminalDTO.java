@@ -0,0 +1,18 @@
+package com.electricitybusiness.api.dto.terminal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO d'une borne proche du point de recherche
+ * Associe la borne à sa distance en kilomètres
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyTerminalDTO {
+    private TerminalDTO terminal;
+
+    private Double distanceKm;
+}
@@ -0,0 +1,25 @@
+package com.electricitybusiness.api.dto.terminal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Projection légère d'une borne pour l'index spatial
+ * Ne contient que l'identifiant et la position, sans charger les entités liées
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TerminalPointDTO {
+    private Long idTerminal;
+
+    private UUID publicId;
+
+    private BigDecimal latitude;
+
+    private BigDecimal longitude;
+}
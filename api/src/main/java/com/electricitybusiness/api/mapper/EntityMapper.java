@@ -20,7 +20,6 @@ import com.electricitybusiness.api.dto.user.*;
 import com.electricitybusiness.api.model.*;
 import com.electricitybusiness.api.repository.*;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -39,8 +38,6 @@ public class EntityMapper implements IEntityMapper {
 
     private final PasswordEncoder passwordEncoder;
 
-    BCryptPasswordEncoder bc = new BCryptPasswordEncoder();
-
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
     private final PlaceRepository placeRepository;
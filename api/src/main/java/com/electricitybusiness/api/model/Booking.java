@@ -6,19 +6,41 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
  * Entité représentant une réservation dans le système.
  * Une réservation est associée à un utilisateur, un véhicule, une borne et éventuellement une option.
+ * Le graphe "Booking.details" charge en une requête tout ce que lit EntityMapper.toBookingDTO.
+ * La date de dernière modification permet aux index en mémoire de ne relire que les réservations modifiées.
  */
 
 @Data
 @Entity
-@Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.details",
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode("car"),
+                @NamedAttributeNode("option"),
+                @NamedAttributeNode(value = "terminal", subgraph = "terminal")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "terminal", attributeNodes = {
+                        @NamedAttributeNode("user"),
+                        @NamedAttributeNode(value = "place", subgraph = "place")
+                }),
+                @NamedSubgraph(name = "place", attributeNodes = {
+                        @NamedAttributeNode("user"),
+                        @NamedAttributeNode("address")
+                })
+        })
+@Table(name = "bookings",
+        indexes = @Index(name = "idx_bookings_starting_date_id", columnList = "starting_date, id_booking"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Booking {
@@ -31,27 +53,27 @@ public class Booking {
     @Column(nullable = false, unique = true, updatable = false)
     private UUID publicId = UUID.randomUUID();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonBackReference
     @EqualsAndHashCode.Exclude
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car")
     @JsonBackReference
     @EqualsAndHashCode.Exclude
     @ToString.Exclude
     private Car car;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "terminal")
     @JsonBackReference
     @EqualsAndHashCode.Exclude
     @ToString.Exclude
     private Terminal terminal;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "option_id")
     @JsonBackReference
     @Nullable
@@ -83,5 +105,14 @@ public class Booking {
     @NotNull(message = "La date de fin est obligatoire")
     private LocalDateTime endingDate;
 
+    @Column(name = "updated_at")
+    @UpdateTimestamp
+    private Instant updatedAt;
 
+    public Booking(Long idBooking, UUID publicId, User user, Car car, Terminal terminal, Option option,
+                   String numberBooking, BookingStatus statusBooking, BigDecimal totalAmount, LocalDateTime paymentDate,
+                   LocalDateTime startingDate, LocalDateTime endingDate) {
+        this(idBooking, publicId, user, car, terminal, option, numberBooking, statusBooking, totalAmount, paymentDate,
+                startingDate, endingDate, null);
+    }
 }
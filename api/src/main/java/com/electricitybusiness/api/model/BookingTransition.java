@@ -0,0 +1,54 @@
+package com.electricitybusiness.api.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entité représentant une transition planifiée pour une réservation :
+ * auto-validation, occupation ou libération de la borne à une date d'échéance.
+ * Les transitions sont persistées pour survivre aux redémarrages ; elles sont supprimées une fois appliquées.
+ * Une transition dont l'application échoue trop souvent est écartée de la file et conservée pour analyse.
+ */
+@Data
+@Entity
+@Table(name = "booking_transitions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_booking_transitions_booking_type",
+                columnNames = {"booking_public_id", "transition_type"}),
+        indexes = @Index(name = "idx_booking_transitions_due_at", columnList = "due_at"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingTransition {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_booking_transition")
+    @EqualsAndHashCode.Include
+    private Long idBookingTransition;
+
+    @Column(name = "booking_public_id", nullable = false)
+    @NotNull(message = "La réservation est obligatoire")
+    private UUID bookingPublicId;
+
+    @Column(name = "terminal_public_id")
+    private UUID terminalPublicId;
+
+    @Column(name = "transition_type", length = 20, nullable = false)
+    @NotNull(message = "Le type de transition est obligatoire")
+    @Enumerated(EnumType.STRING)
+    private TransitionType transitionType;
+
+    @Column(name = "due_at", nullable = false)
+    @NotNull(message = "La date d'échéance est obligatoire")
+    private LocalDateTime dueAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    public BookingTransition(Long idBookingTransition, UUID bookingPublicId, UUID terminalPublicId,
+                             TransitionType transitionType, LocalDateTime dueAt) {
+        this(idBookingTransition, bookingPublicId, terminalPublicId, transitionType, dueAt, 0);
+    }
+}
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -16,6 +18,8 @@ import java.util.UUID;
  */
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "places")
 @Table(name = "places")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,7 +35,7 @@ public class Place {
     @Column(name = "instruction_place", columnDefinition = "TEXT")
     private String instructionPlace;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_user")
     private User user;
 
@@ -43,7 +47,7 @@ public class Place {
     )
     private Set<Media> medias = new HashSet<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="id_address", nullable=false)
     private Address address;
 }
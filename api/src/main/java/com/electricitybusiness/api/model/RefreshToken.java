@@ -7,22 +7,35 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 /**
  * Classe représentant un refresh tokken pour l'authentification.
  * Un jeton de rafraîchissement est utilisé pour obtenir un nouveau jeton d'accès sans nécessiter une nouvelle authentification.
+ * Seule l'empreinte SHA-256 du jeton est stockée (clé de taille fixe) ; les jetons expirés sont purgés par lots.
  */
 @Data
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens",
+        indexes = @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at"))
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class RefreshToken {
+    // Empreinte SHA-256 du jeton signé, en hexadécimal
     @Id
-    private String idRefreshToken;
+    @Column(name = "token_hash", length = 64, columnDefinition = "char(64)")
+    private String tokenHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonBackReference
     private User user;
+
+    // Jeton signé transmis au client, connu uniquement à l'émission
+    @Transient
+    private String token;
 }
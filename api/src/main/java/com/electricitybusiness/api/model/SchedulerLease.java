@@ -0,0 +1,29 @@
+package com.electricitybusiness.api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entité représentant un bail (lease) détenu par une instance de l'API.
+ * Le détenteur du bail est le seul à exécuter les tâches planifiées qu'il protège ; il le prolonge
+ * à chaque passage (heartbeat). Un bail expiré peut être repris par une autre instance.
+ */
+@Data
+@Entity
+@Table(name = "scheduler_leases")
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerLease {
+    @Id
+    @Column(name = "lease_name", length = 50)
+    @EqualsAndHashCode.Include
+    private String leaseName;
+
+    @Column(name = "owner", length = 100, nullable = false)
+    private String owner;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -17,10 +17,13 @@ import java.util.UUID;
 /**
  * Entité représentant une borne électrique dans le système.
  * Une borne appartient à un lieu et peut avoir des réservations et des tarifs.
+ * Son statut et son occupation changent à chaque réservation : elle n'est pas mise dans le cache de second niveau,
+ * local à chaque instance, pour ne jamais servir un état périmé écrit par une autre instance.
  */
 @Data
 @Entity
-@Table(name = "terminals")
+@Table(name = "terminals",
+        indexes = @Index(name = "idx_terminals_latitude_longitude", columnList = "latitude, longitude"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Terminal {
@@ -81,7 +84,7 @@ public class Terminal {
     @Column(name = "last_maintenance")
     private LocalDateTime lastMaintenance;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_user")
     @JsonBackReference
     @EqualsAndHashCode.Exclude
@@ -101,7 +104,7 @@ public class Terminal {
     @ToString.Exclude
     private Set<Media> medias = new HashSet<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_place")
     @JsonBackReference
     @EqualsAndHashCode.Exclude
@@ -0,0 +1,11 @@
+package com.electricitybusiness.api.model;
+
+/**
+ * Classe représentant le type d'une transition planifiée pour une réservation.
+ * L'ordre de déclaration est l'ordre d'application de transitions ayant la même échéance.
+ */
+public enum TransitionType {
+    AUTO_VALIDATION,
+    LIBERATION_BORNE,
+    OCCUPATION_BORNE
+}
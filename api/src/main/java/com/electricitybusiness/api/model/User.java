@@ -102,7 +102,7 @@ public class User implements UserDetails {
     @EqualsAndHashCode.Exclude
     private List<Terminal> terminals = new ArrayList<>();
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
@@ -2,7 +2,10 @@ package com.electricitybusiness.api.repository;
 
 import com.electricitybusiness.api.model.Address;
 import com.electricitybusiness.api.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,5 +24,6 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
 
     boolean existsByPublicId(UUID publicId);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Address> findByPublicId(UUID publicId);
 }
@@ -1,23 +1,43 @@
 package com.electricitybusiness.api.repository;
 
+import com.electricitybusiness.api.dto.booking.BookingDTO;
+import com.electricitybusiness.api.dto.booking.BookingSlotDTO;
 import com.electricitybusiness.api.model.*;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    /** Toutes les réservations, avec les entités liées lues par le mapper.
+     *
+     * @return La liste de toutes les réservations.
+     */
+    @Override
+    @EntityGraph("Booking.details")
+    List<Booking> findAll();
+
     /** Méthodes basiques de recherche
      *
      * @param user
      * @return
      */
+    @EntityGraph("Booking.details")
     List<Booking> findByUser(User user);
 
     /** Méthodes basiques de recherche
@@ -25,6 +45,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * @param terminal
      * @return
      */
+    @EntityGraph("Booking.details")
     List<Booking> findByTerminal(Terminal terminal);
 
     /** Méthodes basiques de recherche
@@ -32,6 +53,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * @param status
      * @return
      */
+    @EntityGraph("Booking.details")
     List<Booking> findByStatusBooking(BookingStatus status);
 
     /** Méthodes basiques de recherche
@@ -40,6 +62,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * @param status
      * @return
      */
+    @EntityGraph("Booking.details")
     List<Booking> findByUserAndStatusBooking(User user, BookingStatus status);
 
     /** Méthodes basiques de recherche
@@ -48,6 +71,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * @param status
      * @return
      */
+    @EntityGraph("Booking.details")
     List<Booking> findByTerminalAndStatusBooking(Terminal terminal, BookingStatus status);
 
     // Méthodes user
@@ -61,6 +85,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * @param statusBooking Le statut des réservations à rechercher (optionnelle).
      * @return Une liste de réservations correspondant aux critères spécifiés.
      */
+    @EntityGraph("Booking.details")
     @Query("SELECT b FROM Booking b " +
             "WHERE b.user = :user " +
             "AND (:startingDate IS NULL OR b.startingDate >= :startingDate)" +
@@ -83,15 +108,116 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * @param user L'utilisateur propriétaire des lieux.
      * @return Une liste de réservations associées aux lieux de l'utilisateur.
      */
+    @EntityGraph("Booking.details")
     @Query("SELECT b FROM Booking b JOIN b.terminal t JOIN t.place p JOIN p.user WHERE p.user = :user")
     List<Booking> findBookingsByUserOwner(User user);
 
+    /** Toutes les réservations, projetées directement en DTO (utilisateurs, adresse et borne compris) en une requête.
+     * Les lieux des adresses ne sont pas renseignés : ils sont chargés à part, une requête pour toutes les adresses.
+     *
+     * @return Une liste de réservations sous forme de DTO.
+     */
+    @Query("SELECT new com.electricitybusiness.api.dto.booking.BookingDTO(" +
+            "b.publicId, b.numberBooking, b.startingDate, b.endingDate, b.statusBooking, b.totalAmount, b.paymentDate, " +
+            "new com.electricitybusiness.api.dto.user.UserDTO(c.surnameUser, c.firstName, c.pseudo, c.emailUser, " +
+            "c.role, c.dateOfBirth, c.phone, c.iban, c.banished), " +
+            "new com.electricitybusiness.api.dto.user.UserDTO(o.surnameUser, o.firstName, o.pseudo, o.emailUser, " +
+            "o.role, o.dateOfBirth, o.phone, o.iban, o.banished), " +
+            "new com.electricitybusiness.api.dto.address.AddressDTO(a.publicId, a.nameAddress, a.address, a.postCode, " +
+            "a.city, a.country, a.region, a.complement, a.floor, a.mainAddress, null), " +
+            "new com.electricitybusiness.api.dto.terminal.TerminalDTO(t.publicId, t.nameTerminal, t.latitude, t.longitude, " +
+            "t.price, t.power, t.instructionTerminal, t.standing, t.statusTerminal, t.occupied, t.dateCreation, " +
+            "t.lastMaintenance), " +
+            "c.idUser, t.idTerminal, car.idCar, opt.idOption) " +
+            "FROM Booking b LEFT JOIN b.user c LEFT JOIN b.car car LEFT JOIN b.option opt " +
+            "LEFT JOIN b.terminal t LEFT JOIN t.place p LEFT JOIN p.user o LEFT JOIN p.address a")
+    List<BookingDTO> findAllDTOs();
+
+    /** Réservations des lieux d'un propriétaire, projetées directement en DTO, sans les lieux des adresses.
+     *
+     * @param user Le propriétaire des lieux.
+     * @return Une liste de réservations sous forme de DTO.
+     */
+    @Query("SELECT new com.electricitybusiness.api.dto.booking.BookingDTO(" +
+            "b.publicId, b.numberBooking, b.startingDate, b.endingDate, b.statusBooking, b.totalAmount, b.paymentDate, " +
+            "new com.electricitybusiness.api.dto.user.UserDTO(c.surnameUser, c.firstName, c.pseudo, c.emailUser, " +
+            "c.role, c.dateOfBirth, c.phone, c.iban, c.banished), " +
+            "new com.electricitybusiness.api.dto.user.UserDTO(o.surnameUser, o.firstName, o.pseudo, o.emailUser, " +
+            "o.role, o.dateOfBirth, o.phone, o.iban, o.banished), " +
+            "new com.electricitybusiness.api.dto.address.AddressDTO(a.publicId, a.nameAddress, a.address, a.postCode, " +
+            "a.city, a.country, a.region, a.complement, a.floor, a.mainAddress, null), " +
+            "new com.electricitybusiness.api.dto.terminal.TerminalDTO(t.publicId, t.nameTerminal, t.latitude, t.longitude, " +
+            "t.price, t.power, t.instructionTerminal, t.standing, t.statusTerminal, t.occupied, t.dateCreation, " +
+            "t.lastMaintenance), " +
+            "c.idUser, t.idTerminal, car.idCar, opt.idOption) " +
+            "FROM Booking b LEFT JOIN b.user c LEFT JOIN b.car car LEFT JOIN b.option opt " +
+            "LEFT JOIN b.terminal t LEFT JOIN t.place p LEFT JOIN p.user o LEFT JOIN p.address a" +
+            " WHERE p.user = :user")
+    List<BookingDTO> findDTOsByUserOwner(@Param("user") User user);
+
+    /** Page de réservations triées par date de début puis identifiant (pagination par curseur).
+     *
+     * @param afterStartingDate La date de début de la dernière réservation de la page précédente, ou null pour la première page.
+     * @param afterId           L'identifiant de la dernière réservation de la page précédente.
+     * @param pageable          La taille de la page.
+     * @return Une page de réservations.
+     */
+    @EntityGraph("Booking.details")
+    @Query("SELECT b FROM Booking b " +
+            "WHERE (:afterStartingDate IS NULL OR b.startingDate > :afterStartingDate " +
+            "OR (b.startingDate = :afterStartingDate AND b.idBooking > :afterId)) " +
+            "ORDER BY b.startingDate, b.idBooking")
+    List<Booking> findPageAfter(@Param("afterStartingDate") LocalDateTime afterStartingDate,
+                                @Param("afterId") Long afterId,
+                                Pageable pageable);
+
+    /** Page de réservations des lieux d'un propriétaire, triées par date de début puis identifiant.
+     *
+     * @param user              Le propriétaire des lieux.
+     * @param afterStartingDate La date de début de la dernière réservation de la page précédente, ou null pour la première page.
+     * @param afterId           L'identifiant de la dernière réservation de la page précédente.
+     * @param pageable          La taille de la page.
+     * @return Une page de réservations.
+     */
+    @EntityGraph("Booking.details")
+    @Query("SELECT b FROM Booking b JOIN b.terminal t JOIN t.place p " +
+            "WHERE p.user = :user " +
+            "AND (:afterStartingDate IS NULL OR b.startingDate > :afterStartingDate " +
+            "OR (b.startingDate = :afterStartingDate AND b.idBooking > :afterId)) " +
+            "ORDER BY b.startingDate, b.idBooking")
+    List<Booking> findPageByUserOwnerAfter(@Param("user") User user,
+                                           @Param("afterStartingDate") LocalDateTime afterStartingDate,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+
+    /** Parcourt toutes les réservations, triées par date de début puis identifiant, sans les charger en une fois.
+     * Le flux doit être consommé puis fermé dans une transaction.
+     *
+     * @return Un flux de réservations.
+     */
+    @EntityGraph("Booking.details")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Booking b ORDER BY b.startingDate, b.idBooking")
+    Stream<Booking> streamAll();
+
+    /** Parcourt les réservations des lieux d'un propriétaire, triées par date de début puis identifiant.
+     * Le flux doit être consommé puis fermé dans une transaction.
+     *
+     * @param user Le propriétaire des lieux.
+     * @return Un flux de réservations.
+     */
+    @EntityGraph("Booking.details")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Booking b JOIN b.terminal t JOIN t.place p WHERE p.user = :user ORDER BY b.startingDate, b.idBooking")
+    Stream<Booking> streamByUserOwner(@Param("user") User user);
+
     /** Recherche des réservations d'un utilisateur avec un statut spécifique.
      *
      * @param user   L'utilisateur pour lequel les réservations doivent être trouvées.
      * @param status Le statut des réservations à rechercher.
      * @return Une liste de réservations correspondant aux critères spécifiés.
      */
+    @EntityGraph("Booking.details")
     List<Booking> findBookingsByUserAndStatusBooking(User user, BookingStatus status);
 
     /** Supprime une réservation par son identifiant public.
@@ -112,34 +238,85 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * @param publicId L'identifiant public de la réservation à rechercher.
      * @return Un Optional contenant la réservation si elle existe, sinon vide.
      */
+    @EntityGraph("Booking.details")
     Optional<Booking> findByPublicId(UUID publicId);
 
-    // Méthodes changement status automatiques
-
-    /** Recherche des réservations avec un statut spécifique dont la date de fin est passée.
-     *
-     * @param status   Le statut des réservations à rechercher.
-     * @param dateTime La date et l'heure actuelles pour comparer avec la date de fin des réservations.
-     * @return Une liste de réservations correspondant aux critères spécifiés.
-     */
-    List<Booking> findAllByStatusBookingAndEndingDateAfter(BookingStatus status, LocalDateTime dateTime);
-
-    /** Recherche des réservations qui se chevauchent avec une nouvelle plage de dates pour un terminal donné.
+    /** Vérifie l'existence d'une réservation active qui chevauche une nouvelle plage de dates pour un terminal donné.
+     * Aucune entité n'est chargée.
      *
      * @param terminal          Le terminal pour lequel vérifier les chevauchements.
      * @param newStartingDate   La date de début de la nouvelle réservation.
      * @param newEndingDate     La date de fin de la nouvelle réservation.
-     * @return Une liste de réservations qui se chevauchent avec la nouvelle plage de dates.
+     * @return true si au moins une réservation chevauche la plage de dates, sinon false.
      */
-    @Query("SELECT b FROM Booking b " +
+    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Booking b " +
             "WHERE b.terminal = :terminal " +
             "AND b.statusBooking IN ('EN_ATTENTE', 'ACCEPTEE') " +
-            "AND ( " +
-            "    (:newStartingDate < b.endingDate AND :newEndingDate > b.startingDate) " + // Conditions de chevauchement
-            ")")
-    List<Booking> findOverlappingBookings(
+            "AND :newStartingDate < b.endingDate AND :newEndingDate > b.startingDate")
+    boolean existsOverlappingBookings(
             @Param("terminal") Terminal terminal,
             @Param("newStartingDate") LocalDateTime newStartingDate,
             @Param("newEndingDate") LocalDateTime newEndingDate
     );
+
+    /** Recherche les créneaux des réservations actives (EN_ATTENTE ou ACCEPTEE) qui ne sont pas encore terminées.
+     *
+     * @param dateTime La date et l'heure à partir de laquelle les réservations sont considérées comme actives.
+     * @return Une liste de créneaux légers (réservation, borne, début, fin, statut).
+     */
+    @Query("SELECT new com.electricitybusiness.api.dto.booking.BookingSlotDTO(" +
+            "b.publicId, t.publicId, b.startingDate, b.endingDate, b.statusBooking) " +
+            "FROM Booking b JOIN b.terminal t " +
+            "WHERE b.statusBooking IN ('EN_ATTENTE', 'ACCEPTEE') " +
+            "AND b.endingDate > :dateTime")
+    List<BookingSlotDTO> findActiveSlotsEndingAfter(@Param("dateTime") LocalDateTime dateTime);
+
+    /** Recherche les créneaux des réservations créées ou modifiées depuis une date, quel que soit leur statut,
+     * pour que l'index en mémoire retire celles qui ne sont plus actives.
+     *
+     * @param since La date de modification à partir de laquelle les réservations sont relues.
+     * @return Une liste de créneaux légers (réservation, borne, début, fin, statut).
+     */
+    @Query("SELECT new com.electricitybusiness.api.dto.booking.BookingSlotDTO(" +
+            "b.publicId, t.publicId, b.startingDate, b.endingDate, b.statusBooking) " +
+            "FROM Booking b JOIN b.terminal t " +
+            "WHERE b.updatedAt >= :since")
+    List<BookingSlotDTO> findSlotsUpdatedSince(@Param("since") Instant since);
+
+    /** Parcourt par pages (keyset sur l'identifiant public) les créneaux des réservations actives qui ne sont pas encore terminées.
+     * Chaque page reprend après le dernier identifiant de la précédente, sans OFFSET ni chargement des entités liées.
+     *
+     * @param dateTime      La date et l'heure à partir de laquelle les réservations sont considérées comme actives.
+     * @param afterPublicId Le dernier identifiant public de la page précédente, ou null pour la première page.
+     * @param pageable      La taille de la page.
+     * @return Une page de créneaux légers, triés par identifiant public.
+     */
+    @Query("SELECT new com.electricitybusiness.api.dto.booking.BookingSlotDTO(" +
+            "b.publicId, t.publicId, b.startingDate, b.endingDate, b.statusBooking) " +
+            "FROM Booking b JOIN b.terminal t " +
+            "WHERE b.statusBooking IN ('EN_ATTENTE', 'ACCEPTEE') " +
+            "AND b.endingDate > :dateTime " +
+            "AND (:afterPublicId IS NULL OR b.publicId > :afterPublicId) " +
+            "ORDER BY b.publicId")
+    List<BookingSlotDTO> findActiveSlotsEndingAfter(@Param("dateTime") LocalDateTime dateTime,
+                                                    @Param("afterPublicId") UUID afterPublicId,
+                                                    Pageable pageable);
+
+    /** Change en une seule requête le statut de plusieurs réservations, uniquement si leur statut est encore celui attendu.
+     *
+     * @param publicIds      Les identifiants publics des réservations à mettre à jour.
+     * @param expectedStatus Le statut actuel attendu des réservations.
+     * @param newStatus      Le nouveau statut des réservations.
+     * @param updatedAt      La date de modification enregistrée (non renseignée par Hibernate sur une mise à jour en masse).
+     * @return Le nombre de réservations mises à jour.
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.statusBooking = :newStatus, b.updatedAt = :updatedAt " +
+            "WHERE b.publicId IN :publicIds AND b.statusBooking = :expectedStatus")
+    int updateStatusByPublicIdIn(
+            @Param("publicIds") Collection<UUID> publicIds,
+            @Param("expectedStatus") BookingStatus expectedStatus,
+            @Param("newStatus") BookingStatus newStatus,
+            @Param("updatedAt") Instant updatedAt
+    );
 }
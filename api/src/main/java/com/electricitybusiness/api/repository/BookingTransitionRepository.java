@@ -0,0 +1,71 @@
+package com.electricitybusiness.api.repository;
+
+import com.electricitybusiness.api.model.BookingTransition;
+import com.electricitybusiness.api.model.TransitionType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Interface de gestion des opérations CRUD pour les transitions planifiées des réservations.
+ * Hérite de JpaRepository pour les opérations de base de données.
+ */
+@Repository
+public interface BookingTransitionRepository extends JpaRepository<BookingTransition, Long> {
+
+    /**
+     * Réserve un lot de transitions échues (SELECT ... FOR UPDATE SKIP LOCKED).
+     * Les lignes déjà verrouillées par une autre transaction sont ignorées, ce qui permet à plusieurs
+     * workers de se partager la file sans se bloquer ni traiter deux fois la même transition.
+     * Les transitions écartées après trop d'échecs ne sont plus réservées.
+     *
+     * @param now La date courante.
+     * @param maxAttempts Le nombre d'échecs à partir duquel une transition est écartée.
+     * @param pageable La taille du lot.
+     * @return Les transitions échues verrouillées, triées par date d'échéance.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT bt FROM BookingTransition bt WHERE bt.dueAt <= :now AND bt.attempts < :maxAttempts " +
+            "ORDER BY bt.dueAt, bt.idBookingTransition")
+    List<BookingTransition> claimDueTransitions(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts,
+                                                Pageable pageable);
+
+    /**
+     * Compte un échec d'application d'une transition.
+     *
+     * @param idBookingTransition L'identifiant de la transition.
+     * @return Le nombre de transitions modifiées.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BookingTransition bt SET bt.attempts = bt.attempts + 1 WHERE bt.idBookingTransition = :idBookingTransition")
+    int incrementAttempts(@Param("idBookingTransition") Long idBookingTransition);
+
+    /**
+     * Supprime les transitions d'une réservation pour les types donnés.
+     *
+     * @param bookingPublicId L'identifiant public de la réservation.
+     * @param transitionTypes Les types de transition à supprimer.
+     * @return Le nombre de transitions supprimées.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM BookingTransition bt WHERE bt.bookingPublicId = :bookingPublicId AND bt.transitionType IN :transitionTypes")
+    int deleteByBookingPublicIdAndTransitionTypeIn(@Param("bookingPublicId") UUID bookingPublicId,
+                                                   @Param("transitionTypes") Collection<TransitionType> transitionTypes);
+
+    /**
+     * Recherche les transitions déjà planifiées pour un ensemble de réservations.
+     *
+     * @param bookingPublicIds Les identifiants publics des réservations.
+     * @return Les transitions de ces réservations.
+     */
+    List<BookingTransition> findByBookingPublicIdIn(Collection<UUID> bookingPublicIds);
+}
@@ -0,0 +1,61 @@
+package com.electricitybusiness.api.repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Rectangle latitude/longitude englobant un cercle de recherche.
+ * Sert de préfiltre indexable avant le calcul exact de la distance (haversine) :
+ * tout point du cercle est dans le rectangle, l'inverse n'est pas vrai.
+ * Une longitude nulle signifie que le rectangle couvre toutes les longitudes (pôle ou antiméridien dans le cercle).
+ */
+public record GeoBoundingBox(BigDecimal minLatitude, BigDecimal maxLatitude,
+                             BigDecimal minLongitude, BigDecimal maxLongitude) {
+
+    public static final double EARTH_RADIUS_KM = 6371;
+
+    private static final int SCALE = 8;
+
+    /**
+     * Calcule le rectangle englobant un cercle de rayon donné autour d'un point.
+     * @param latitude La latitude du centre
+     * @param longitude La longitude du centre
+     * @param radius Le rayon en kilomètres
+     * @return Le rectangle englobant, ou un rectangle vide (toutes bornes nulles) si un paramètre manque
+     */
+    public static GeoBoundingBox around(BigDecimal latitude, BigDecimal longitude, Double radius) {
+        if (latitude == null || longitude == null || radius == null) {
+            return new GeoBoundingBox(null, null, null, null);
+        }
+
+        double angularRadius = radius / EARTH_RADIUS_KM;
+        double lat = latitude.doubleValue();
+        double lon = longitude.doubleValue();
+        double deltaLat = Math.toDegrees(angularRadius);
+        double minLat = lat - deltaLat;
+        double maxLat = lat + deltaLat;
+
+        if (minLat <= -90 || maxLat >= 90) {
+            // Le cercle contient un pôle : toutes les longitudes sont concernées
+            return new GeoBoundingBox(floor(Math.max(minLat, -90)), ceil(Math.min(maxLat, 90)), null, null);
+        }
+
+        // Écart de longitude maximal atteint sur le cercle (et non à la latitude du centre)
+        double deltaLon = Math.toDegrees(Math.asin(Math.sin(angularRadius) / Math.cos(Math.toRadians(lat))));
+        double minLon = lon - deltaLon;
+        double maxLon = lon + deltaLon;
+        if (minLon < -180 || maxLon > 180) {
+            // Le cercle traverse l'antiméridien : on ne filtre que sur la latitude
+            return new GeoBoundingBox(floor(minLat), ceil(maxLat), null, null);
+        }
+        return new GeoBoundingBox(floor(minLat), ceil(maxLat), floor(minLon), ceil(maxLon));
+    }
+
+    private static BigDecimal floor(double value) {
+        return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.FLOOR);
+    }
+
+    private static BigDecimal ceil(double value) {
+        return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.CEILING);
+    }
+}
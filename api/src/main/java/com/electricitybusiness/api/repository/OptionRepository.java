@@ -1,9 +1,14 @@
 package com.electricitybusiness.api.repository;
 
+import com.electricitybusiness.api.dto.option.OptionDTO;
 import com.electricitybusiness.api.model.Option;
 import com.electricitybusiness.api.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -17,14 +22,31 @@ import java.util.UUID;
  */
 @Repository
 public interface OptionRepository extends JpaRepository<Option, Long> {
+    /**
+     * Toutes les options, projetées directement en DTO avec le nom de l'adresse de leur lieu.
+     * @return La liste des options sous forme de DTO
+     */
+    @Query("SELECT new com.electricitybusiness.api.dto.option.OptionDTO(" +
+            "o.publicId, o.nameOption, o.priceOption, o.descriptionOption, a.nameAddress) " +
+            "FROM Option o LEFT JOIN o.place p LEFT JOIN p.address a")
+    List<OptionDTO> findAllDTOs();
+
+    // Les listes chargent le lieu et son adresse avec l'option : EntityMapper.toOptionDTO lit le nom de l'adresse
+    @Override
+    @EntityGraph(attributePaths = "place.address")
+    List<Option> findAll();
+
+    @EntityGraph(attributePaths = "place.address")
     List<Option> findOptionsByPlace_PublicId(UUID publicId);
 
+    @EntityGraph(attributePaths = "place.address")
     List<Option> findOptionByPlace_User(User user);
 
     void deleteOptionByPublicId(UUID publicId);
 
     boolean existsByPublicId(UUID publicId);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Option> findByPublicId(UUID publicId);
 
 /*
@@ -39,6 +61,9 @@ public interface OptionRepository extends JpaRepository<Option, Long> {
 /*
     @Query("SELECT o FROM Option o, Terminal t WHERE t.place = o.place AND t.publicId = :terminalId")
 */
+    // Appelée à chaque ouverture du formulaire de réservation : résultat en cache de requêtes
+    @EntityGraph(attributePaths = "place.address")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT o FROM Option o WHERE o.place = (SELECT t.place FROM Terminal t WHERE t.publicId = :terminalId)")
     List<Option> findByTerminalPublicId(@Param("terminalId") UUID terminalId);
 
@@ -1,14 +1,24 @@
 package com.electricitybusiness.api.repository;
 
+import com.electricitybusiness.api.dto.place.PlaceDTO;
 import com.electricitybusiness.api.model.Car;
 import com.electricitybusiness.api.model.Place;
 import com.electricitybusiness.api.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Interface de gestion des opérations CRUD pour les lieux.
@@ -16,11 +26,56 @@ import java.util.UUID;
  */
 @Repository
 public interface PlaceRepository extends JpaRepository<Place,Long> {
+    // Les listes chargent l'adresse avec le lieu : EntityMapper.toPlaceDTO en lit le nom et l'identifiant
+    @Override
+    @EntityGraph(attributePaths = "address")
+    List<Place> findAll();
+
+    @EntityGraph(attributePaths = "address")
     List<Place> findPlacesByUser(User user);
 
     void deletePlaceByPublicId(UUID publicId);
 
     boolean existsByPublicId(UUID publicId);
 
+    @EntityGraph(attributePaths = "address")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Place> findByPublicId(UUID publicId);
+
+    /**
+     * Tous les lieux, projetés directement en DTO avec le nom de leur adresse.
+     * @return La liste des lieux sous forme de DTO
+     */
+    @Query("SELECT new com.electricitybusiness.api.dto.place.PlaceDTO(p.publicId, p.instructionPlace, a.nameAddress, a.publicId) " +
+            "FROM Place p JOIN p.address a")
+    List<PlaceDTO> findAllDTOs();
+
+    /**
+     * Lieux de plusieurs adresses, projetés directement en DTO.
+     * @param addressPublicIds Les identifiants publics des adresses
+     * @return La liste des lieux de ces adresses sous forme de DTO
+     */
+    @Query("SELECT new com.electricitybusiness.api.dto.place.PlaceDTO(p.publicId, p.instructionPlace, a.nameAddress, a.publicId) " +
+            "FROM Place p JOIN p.address a WHERE a.publicId IN :addressPublicIds ORDER BY p.idPlace")
+    List<PlaceDTO> findDTOsByAddressPublicIdIn(@Param("addressPublicIds") Collection<UUID> addressPublicIds);
+
+    /**
+     * Page de lieux triés par identifiant (pagination par curseur).
+     * @param afterId Le dernier identifiant de la page précédente (0 pour la première page)
+     * @param pageable La taille de la page
+     * @return Une page de lieux
+     */
+    @EntityGraph(attributePaths = "address")
+    @Query("SELECT p FROM Place p WHERE p.idPlace > :afterId ORDER BY p.idPlace")
+    List<Place> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Parcourt tous les lieux triés par identifiant, sans les charger en une fois.
+     * Le flux doit être consommé puis fermé dans une transaction.
+     * @return Un flux de lieux
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @EntityGraph(attributePaths = "address")
+    @Query("SELECT p FROM Place p ORDER BY p.idPlace")
+    Stream<Place> streamAll();
 }
@@ -1,13 +1,49 @@
 package com.electricitybusiness.api.repository;
 
 import com.electricitybusiness.api.model.RefreshToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
-    Optional<RefreshToken> findByIdRefreshToken(String idRefreshToken);
+    // Le renouvellement du jeton d'accès lit l'utilisateur du refresh token
+    @EntityGraph(attributePaths = "user")
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
 
+    /**
+     * Empreintes d'un lot de refresh tokens expirés, lues sur l'index de la date d'expiration.
+     * @param now La date courante
+     * @param pageable La taille du lot
+     * @return Les empreintes des jetons expirés
+     */
+    @Query("SELECT r.tokenHash FROM RefreshToken r WHERE r.expiresAt < :now")
+    List<String> findExpiredTokenHashes(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Supprime des refresh tokens par empreinte.
+     * @param tokenHashes Les empreintes à supprimer
+     * @return Le nombre de lignes supprimées
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.tokenHash IN :tokenHashes")
+    int deleteByTokenHashIn(@Param("tokenHashes") Collection<String> tokenHashes);
+
+    /**
+     * Supprime un refresh token par empreinte.
+     * @param tokenHash L'empreinte du jeton
+     * @return Le nombre de lignes supprimées (0 si le jeton a déjà été utilisé ou révoqué)
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
 }
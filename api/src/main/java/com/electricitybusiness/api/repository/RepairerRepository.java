@@ -2,6 +2,9 @@ package com.electricitybusiness.api.repository;
 
 import com.electricitybusiness.api.model.Repairer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +12,14 @@ import java.util.Optional;
 @Repository
 public interface RepairerRepository extends JpaRepository<Repairer, Long> {
     Optional<Repairer> findByEmailRepairer(String email);
+
+    /**
+     * Remplace l'empreinte du mot de passe d'un réparateur (recalcul au coût BCrypt courant).
+     * @param email L'email du réparateur
+     * @param password La nouvelle empreinte
+     * @return Le nombre de lignes modifiées
+     */
+    @Modifying
+    @Query("UPDATE Repairer r SET r.passwordRepairer = :password WHERE r.emailRepairer = :email")
+    int updatePasswordByEmailRepairer(@Param("email") String email, @Param("password") String password);
 }
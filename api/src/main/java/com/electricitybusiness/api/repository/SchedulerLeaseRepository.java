@@ -0,0 +1,67 @@
+package com.electricitybusiness.api.repository;
+
+import com.electricitybusiness.api.model.SchedulerLease;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Interface de gestion des baux des tâches planifiées.
+ * Hérite de JpaRepository pour les opérations de base de données.
+ */
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Prolonge le bail s'il appartient déjà à l'instance, ou le reprend s'il a expiré.
+     * La condition est évaluée par la base dans la même requête, ce qui rend l'opération atomique.
+     *
+     * @param leaseName Le nom du bail.
+     * @param owner L'identifiant de l'instance.
+     * @param now La date courante.
+     * @param expiresAt La nouvelle date d'expiration.
+     * @return 1 si le bail est détenu par l'instance après l'appel, sinon 0.
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.expiresAt = :expiresAt " +
+            "WHERE l.leaseName = :leaseName AND (l.owner = :owner OR l.expiresAt < :now)")
+    int renewOrTakeOver(@Param("leaseName") String leaseName,
+                        @Param("owner") String owner,
+                        @Param("now") LocalDateTime now,
+                        @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Crée le bail s'il n'existe pas encore. Une création concurrente échoue sur la clé primaire.
+     *
+     * @param leaseName Le nom du bail.
+     * @param owner L'identifiant de l'instance.
+     * @param expiresAt La date d'expiration.
+     * @return Le nombre de lignes insérées.
+     */
+    // Table déclarée : sans elle, Hibernate vide toutes les régions du cache de second niveau après une requête native
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "scheduler_leases"))
+    @Query(value = "INSERT INTO scheduler_leases (lease_name, owner, expires_at) VALUES (:leaseName, :owner, :expiresAt)",
+            nativeQuery = true)
+    int insertLease(@Param("leaseName") String leaseName,
+                    @Param("owner") String owner,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Libère le bail s'il appartient à l'instance.
+     *
+     * @param leaseName Le nom du bail.
+     * @param owner L'identifiant de l'instance.
+     * @return Le nombre de baux libérés.
+     */
+    @Modifying
+    @Query("DELETE FROM SchedulerLease l WHERE l.leaseName = :leaseName AND l.owner = :owner")
+    int release(@Param("leaseName") String leaseName, @Param("owner") String owner);
+}
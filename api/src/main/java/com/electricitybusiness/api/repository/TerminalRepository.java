@@ -1,20 +1,30 @@
 package com.electricitybusiness.api.repository;
 
 import com.electricitybusiness.api.dto.terminal.TerminalDTO;
+import com.electricitybusiness.api.dto.terminal.TerminalPointDTO;
 import com.electricitybusiness.api.model.Place;
 import com.electricitybusiness.api.model.Terminal;
 import com.electricitybusiness.api.model.TerminalStatus;
 import com.electricitybusiness.api.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Interface de gestion des opérations CRUD pour les Terminals.
@@ -53,6 +63,8 @@ public interface TerminalRepository extends JpaRepository<Terminal,Long> {
 
     /**
      * Recherche des terminaux en fonction de plusieurs critères.
+     * Les terminaux sont d'abord préfiltrés sur le rectangle englobant le cercle de recherche (colonnes indexées),
+     * la distance exacte n'est calculée que pour les candidats.
      *
      * @param longitude    La longitude du point central pour la recherche de proximité.
      * @param latitude     La latitude du point central pour la recherche de proximité.
@@ -62,11 +74,42 @@ public interface TerminalRepository extends JpaRepository<Terminal,Long> {
      * @param endingDate   La date de fin pour vérifier la disponibilité.
      * @return Une liste de terminaux correspondant aux critères de recherche.
      */
+    default List<Terminal> searchTerminals(
+            BigDecimal longitude,
+            BigDecimal latitude,
+            Double radius,
+            Boolean occupied,
+            LocalDateTime startingDate,
+            LocalDateTime endingDate
+    ) {
+        GeoBoundingBox box = GeoBoundingBox.around(latitude, longitude, radius);
+        return searchTerminalsWithinBox(longitude, latitude, radius,
+                box.minLatitude(), box.maxLatitude(), box.minLongitude(), box.maxLongitude(),
+                occupied, startingDate, endingDate);
+    }
+
+    /**
+     * Recherche des terminaux dans un rectangle latitude/longitude puis dans le rayon exact (haversine).
+     *
+     * @param longitude    La longitude du point central pour la recherche de proximité.
+     * @param latitude     La latitude du point central pour la recherche de proximité.
+     * @param radius       Le rayon de recherche en kilomètres.
+     * @param minLatitude  La latitude minimale du rectangle englobant (null pour ne pas filtrer).
+     * @param maxLatitude  La latitude maximale du rectangle englobant.
+     * @param minLongitude La longitude minimale du rectangle englobant (null pour ne pas filtrer).
+     * @param maxLongitude La longitude maximale du rectangle englobant.
+     * @param occupied     Le statut d'occupation du terminal (true pour occupé, false pour libre).
+     * @param startingDate La date de début pour vérifier la disponibilité.
+     * @param endingDate   La date de fin pour vérifier la disponibilité.
+     * @return Une liste de terminaux correspondant aux critères de recherche.
+     */
     @Query("""
     SELECT t FROM Terminal t
     WHERE t.statusTerminal = 'LIBRE'
           AND
         (:occupied IS NULL OR t.occupied = :occupied)
+          AND (:minLatitude IS NULL OR t.latitude BETWEEN :minLatitude AND :maxLatitude)
+          AND (:minLongitude IS NULL OR t.longitude BETWEEN :minLongitude AND :maxLongitude)
           AND (
               :latitude IS NULL OR :longitude IS NULL OR :radius IS NULL OR
               (6371 * 2 * ASIN(SQRT(
@@ -80,6 +123,7 @@ public interface TerminalRepository extends JpaRepository<Terminal,Long> {
               NOT EXISTS (
                   SELECT 1 FROM Booking b
                   WHERE b.terminal = t
+                  AND b.statusBooking IN ('EN_ATTENTE', 'ACCEPTEE')
                   AND NOT (
                       b.endingDate <= :startingDate
                       OR b.startingDate >= :endingDate
@@ -87,15 +131,97 @@ public interface TerminalRepository extends JpaRepository<Terminal,Long> {
               )
           )
     """)
-    List<Terminal> searchTerminals(
+    List<Terminal> searchTerminalsWithinBox(
             @Param("longitude") BigDecimal longitude,
             @Param("latitude") BigDecimal latitude,
             @Param("radius") Double radius,
+            @Param("minLatitude") BigDecimal minLatitude,
+            @Param("maxLatitude") BigDecimal maxLatitude,
+            @Param("minLongitude") BigDecimal minLongitude,
+            @Param("maxLongitude") BigDecimal maxLongitude,
+            @Param("occupied") Boolean occupied,
+            @Param("startingDate") LocalDateTime startingDate,
+            @Param("endingDate") LocalDateTime endingDate
+    );
+
+    /**
+     * Filtre des terminaux candidats (issus de l'index spatial) sur leur statut, leur occupation
+     * et l'absence de réservation active (EN_ATTENTE ou ACCEPTEE) sur la période demandée.
+     *
+     * @param publicIds    Les identifiants publics des terminaux candidats.
+     * @param occupied     Le statut d'occupation du terminal (true pour occupé, false pour libre).
+     * @param startingDate La date de début pour vérifier la disponibilité.
+     * @param endingDate   La date de fin pour vérifier la disponibilité.
+     * @return Les terminaux candidats correspondant aux critères.
+     */
+    @Query("""
+    SELECT t FROM Terminal t
+    WHERE t.publicId IN :publicIds
+          AND t.statusTerminal = 'LIBRE'
+          AND (:occupied IS NULL OR t.occupied = :occupied)
+          AND (
+              :startingDate IS NULL OR :endingDate IS NULL OR
+              NOT EXISTS (
+                  SELECT 1 FROM Booking b
+                  WHERE b.terminal = t
+                  AND b.statusBooking IN ('EN_ATTENTE', 'ACCEPTEE')
+                  AND NOT (
+                      b.endingDate <= :startingDate
+                      OR b.startingDate >= :endingDate
+                  )
+              )
+          )
+    """)
+    List<Terminal> findAvailableByPublicIdIn(
+            @Param("publicIds") Collection<UUID> publicIds,
             @Param("occupied") Boolean occupied,
             @Param("startingDate") LocalDateTime startingDate,
             @Param("endingDate") LocalDateTime endingDate
     );
 
+    /**
+     * Parcourt par pages (keyset sur l'identifiant) la position de tous les terminaux.
+     *
+     * @param afterId  Le dernier identifiant de la page précédente (0 pour la première page).
+     * @param pageable La taille de la page.
+     * @return Une page de positions, triées par identifiant.
+     */
+    @Query("SELECT new com.electricitybusiness.api.dto.terminal.TerminalPointDTO(" +
+            "t.idTerminal, t.publicId, t.latitude, t.longitude) " +
+            "FROM Terminal t WHERE t.idTerminal > :afterId ORDER BY t.idTerminal")
+    List<TerminalPointDTO> findPointsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Tous les terminaux, projetés directement en DTO : aucune entité n'est chargée dans le contexte de persistance.
+     *
+     * @return La liste des terminaux sous forme de DTO.
+     */
+    @Query("SELECT new com.electricitybusiness.api.dto.terminal.TerminalDTO(" +
+            "t.publicId, t.nameTerminal, t.latitude, t.longitude, t.price, t.power, " +
+            "t.instructionTerminal, t.standing, t.statusTerminal, t.occupied, t.dateCreation, t.lastMaintenance) " +
+            "FROM Terminal t")
+    List<TerminalDTO> findAllDTOs();
+
+    /**
+     * Page de terminaux triés par identifiant (pagination par curseur).
+     *
+     * @param afterId  Le dernier identifiant de la page précédente (0 pour la première page).
+     * @param pageable La taille de la page.
+     * @return Une page de terminaux.
+     */
+    @Query("SELECT t FROM Terminal t WHERE t.idTerminal > :afterId ORDER BY t.idTerminal")
+    List<Terminal> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Parcourt tous les terminaux triés par identifiant, sans les charger en une fois.
+     * Le flux doit être consommé puis fermé dans une transaction.
+     *
+     * @return Un flux de terminaux.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t FROM Terminal t ORDER BY t.idTerminal")
+    Stream<Terminal> streamAll();
+
     /**
      * Trouve les terminaux associés à un identifiant public de lieu donné.
      *
@@ -118,5 +244,39 @@ public interface TerminalRepository extends JpaRepository<Terminal,Long> {
      * @return true si le terminal existe, sinon false.
      */
     Optional<Terminal> findByPublicId(UUID publicId);
-}
 
+    /**
+     * Récupère des terminaux par leurs identifiants publics, sans filtre sur leur statut.
+     * @param publicIds Les identifiants publics des terminaux.
+     * @return Les terminaux trouvés.
+     */
+    List<Terminal> findByPublicIdIn(Collection<UUID> publicIds);
+
+    /**
+     * Verrouille la ligne d'un terminal jusqu'à la fin de la transaction courante (SELECT ... FOR UPDATE).
+     * Sérialise les écritures concurrentes sur un même terminal sans bloquer les autres terminaux.
+     *
+     * @param idTerminal L'identifiant du terminal à verrouiller.
+     * @return Un Optional contenant le terminal verrouillé s'il existe, sinon vide.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Terminal t WHERE t.idTerminal = :idTerminal")
+    Optional<Terminal> findByIdForUpdate(@Param("idTerminal") Long idTerminal);
+
+    /**
+     * Met à jour en une seule requête le statut et l'occupation de plusieurs terminaux.
+     * Les terminaux déjà dans l'état demandé ne sont pas réécrits.
+     *
+     * @param publicIds Les identifiants publics des terminaux à mettre à jour.
+     * @param statusTerminal Le nouveau statut des terminaux.
+     * @param occupied Le nouvel état d'occupation des terminaux.
+     * @return Le nombre de terminaux dont l'état a changé.
+     */
+    @Modifying
+    @Query("UPDATE Terminal t SET t.statusTerminal = :statusTerminal, t.occupied = :occupied " +
+            "WHERE t.publicId IN :publicIds " +
+            "AND (t.statusTerminal <> :statusTerminal OR t.occupied <> :occupied)")
+    int updateStatusByPublicIdIn(@Param("publicIds") Collection<UUID> publicIds,
+                                 @Param("statusTerminal") TerminalStatus statusTerminal,
+                                 @Param("occupied") Boolean occupied);
+}
@@ -1,10 +1,19 @@
 package com.electricitybusiness.api.repository;
 
 import com.electricitybusiness.api.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interface de gestion des opérations CRUD pour les utilisateurs.
@@ -21,4 +30,32 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmailUser(String emailUser);
 
     Long findIdByEmailUser(String emailUser);
+
+    /**
+     * Page de utilisateurs triés par identifiant (pagination par curseur).
+     * @param afterId Le dernier identifiant de la page précédente (0 pour la première page)
+     * @param pageable La taille de la page
+     * @return Une page de utilisateurs
+     */
+    @Query("SELECT u FROM User u WHERE u.idUser > :afterId ORDER BY u.idUser")
+    List<User> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Parcourt tous les utilisateurs triés par identifiant, sans les charger en une fois.
+     * Le flux doit être consommé puis fermé dans une transaction.
+     * @return Un flux de utilisateurs
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u FROM User u ORDER BY u.idUser")
+    Stream<User> streamAll();
+
+    /**
+     * Remplace l'empreinte du mot de passe d'un utilisateur (recalcul au coût BCrypt courant).
+     * @param emailUser L'email de l'utilisateur
+     * @param passwordUser La nouvelle empreinte
+     * @return Le nombre de lignes modifiées
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.passwordUser = :passwordUser WHERE u.emailUser = :emailUser")
+    int updatePasswordByEmailUser(@Param("emailUser") String emailUser, @Param("passwordUser") String passwordUser);
 }
@@ -0,0 +1,466 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.dto.booking.BookingSlotDTO;
+import com.electricitybusiness.api.model.Booking;
+import com.electricitybusiness.api.model.BookingStatus;
+import com.electricitybusiness.api.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Index en mémoire des créneaux réservés (EN_ATTENTE ou ACCEPTEE) par borne.
+ * Chaque borne possède un ensemble de créneaux triés par date de début, limité aux créneaux non terminés,
+ * ce qui permet de détecter un conflit sans interroger la base de données.
+ * Une carte de bits par borne (un bit par quart d'heure sur un horizon glissant de 60 jours)
+ * répond aux recherches de disponibilité par quelques opérations sur des mots de 64 bits.
+ * L'index est propre à chaque instance : il est tenu à jour par les écritures locales, ne relit chaque minute
+ * que les réservations modifiées depuis sa dernière lecture et n'est entièrement resynchronisé qu'une fois
+ * par heure, pour les suppressions faites par les autres instances.
+ * Un conflit connu rejette une réservation sans requête, l'absence de conflit est confirmée en base sous verrou de la borne.
+ * Les dates sont comparées dans le fuseau des réservations (horloge partagée avec BookingService).
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingIntervalIndex.class);
+
+    private static final UUID LOWEST_UUID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private static final int SLOT_SECONDS = 15 * 60;
+
+    private static final int HORIZON_DAYS = 60;
+
+    // Recouvrement des relectures : transactions validées après leur date de modification, horloges des instances
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    // 96 quarts d'heure par jour, arrondis au mot de 64 bits supérieur
+    static final int HORIZON_WORDS = (HORIZON_DAYS * 96 + Long.SIZE - 1) / Long.SIZE;
+
+    static final int BITMAP_BYTES = HORIZON_WORDS * Long.BYTES;
+
+    private static final Comparator<Slot> SLOT_ORDER = Comparator
+            .comparing(Slot::startingDate)
+            .thenComparing(Slot::bookingPublicId);
+
+    private final BookingRepository bookingRepository;
+
+    private final Clock clock;
+
+    private final Map<UUID, NavigableSet<Slot>> slotsByTerminal = new ConcurrentHashMap<>();
+
+    private final Map<UUID, Slot> slotsByBooking = new ConcurrentHashMap<>();
+
+    private final Map<UUID, SlotBitmap> bitmapsByTerminal = new ConcurrentHashMap<>();
+
+    private volatile boolean warmedUp;
+
+    // Date de la dernière lecture de la base, point de départ de la relecture suivante
+    private volatile Instant syncedAt;
+
+    /**
+     * Charge au démarrage les créneaux des réservations actives non terminées.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        syncedAt = Instant.now(clock);
+        List<BookingSlotDTO> slots = bookingRepository.findActiveSlotsEndingAfter(LocalDateTime.now(clock));
+        slots.forEach(slot -> put(slot.getPublicId(), slot.getTerminalPublicId(),
+                slot.getStartingDate(), slot.getEndingDate(), slot.getStatusBooking()));
+        warmedUp = true;
+        logger.info("Index des créneaux chargé : {} réservations actives en {} ms",
+                slots.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rattrape les réservations créées, modifiées ou annulées par les autres instances depuis la dernière lecture,
+     * puis purge les créneaux terminés de toutes les bornes.
+     * Seules les réservations modifiées sont relues ; la lecture recouvre la précédente d'une minute
+     * pour ne pas manquer une transaction validée après sa date de modification.
+     */
+    @Scheduled(fixedDelayString = "${booking.interval-index.refresh-interval:PT1M}",
+            initialDelayString = "${booking.interval-index.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!warmedUp) return;
+
+        long start = System.nanoTime();
+        Instant readAt = Instant.now(clock);
+        List<BookingSlotDTO> slots = bookingRepository.findSlotsUpdatedSince(syncedAt.minus(SYNC_OVERLAP));
+        syncedAt = readAt;
+
+        int changed = 0;
+        for (BookingSlotDTO slot : slots) {
+            if (apply(slot)) changed++;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        slotsByTerminal.keySet().forEach(terminalPublicId -> pruneExpired(terminalPublicId, now));
+
+        logger.debug("Index des créneaux mis à jour : {} réservations relues, {} créneaux modifiés en {} ms",
+                slots.size(), changed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Resynchronise entièrement l'index avec la base : une réservation supprimée par une autre instance
+     * n'a plus de ligne à relire et n'est retirée qu'ici.
+     * Seules les réservations indexées avant la lecture peuvent être retirées : celles ajoutées localement
+     * pendant la lecture sont conservées.
+     */
+    @Scheduled(fixedDelayString = "${booking.interval-index.resync-interval:PT1H}",
+            initialDelayString = "${booking.interval-index.resync-interval:PT1H}")
+    public void resync() {
+        if (!warmedUp) return;
+
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now(clock);
+        Set<UUID> stale = new HashSet<>(slotsByBooking.keySet());
+        List<BookingSlotDTO> slots = bookingRepository.findActiveSlotsEndingAfter(now);
+
+        int changed = 0;
+        for (BookingSlotDTO slot : slots) {
+            stale.remove(slot.getPublicId());
+            if (apply(slot)) changed++;
+        }
+        stale.forEach(this::evict);
+        slotsByTerminal.keySet().forEach(terminalPublicId -> pruneExpired(terminalPublicId, now));
+
+        logger.debug("Index des créneaux resynchronisé : {} créneaux mis à jour, {} retirés en {} ms",
+                changed, stale.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Vérifie si un créneau chevauche une réservation active de la borne.
+     * Les candidats sont les créneaux qui commencent avant la fin demandée, parcourus à rebours.
+     * Les modifications de réservation n'étant pas vérifiées, deux créneaux d'une même borne peuvent
+     * se chevaucher : un créneau long peut donc couvrir la période sans être le plus proche.
+     * @param terminalPublicId L'identifiant public de la borne
+     * @param startingDate La date de début du créneau demandé
+     * @param endingDate La date de fin du créneau demandé
+     * @return true si un chevauchement est connu de l'index, sinon false
+     */
+    public boolean overlaps(UUID terminalPublicId, LocalDateTime startingDate, LocalDateTime endingDate) {
+        if (terminalPublicId == null || startingDate == null || endingDate == null) return false;
+
+        NavigableSet<Slot> slots = slotsByTerminal.get(terminalPublicId);
+        if (slots == null) return false;
+
+        Slot probe = new Slot(LOWEST_UUID, terminalPublicId, endingDate, endingDate);
+        for (Slot candidate : slots.headSet(probe, false).descendingSet()) {
+            if (candidate.endingDate().isAfter(startingDate)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Indique si l'index a été chargé et peut remplacer la vérification en base des recherches.
+     * @return true une fois le chargement initial terminé
+     */
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    /**
+     * Vérifie qu'une borne n'a aucune réservation active sur une période.
+     * Si aucun quart d'heure de la période n'est marqué, la borne est libre ; un quart d'heure marqué
+     * peut n'être que partiellement réservé (réservation non alignée), d'où la confirmation par l'ensemble trié.
+     * Hors de l'horizon, seule la vérification par l'ensemble trié est faite.
+     * @param terminalPublicId L'identifiant public de la borne
+     * @param startingDate La date de début de la période
+     * @param endingDate La date de fin de la période
+     * @return true si aucune réservation active connue ne chevauche la période
+     */
+    public boolean isFree(UUID terminalPublicId, LocalDateTime startingDate, LocalDateTime endingDate) {
+        if (terminalPublicId == null || startingDate == null || endingDate == null) return true;
+
+        SlotBitmap bitmap = bitmapsByTerminal.get(terminalPublicId);
+        if (bitmap == null) return true;
+
+        long firstSlot = firstSlot(startingDate);
+        long endSlot = endSlot(endingDate);
+        if (bitmap.isClear(firstSlot, endSlot, currentFirstWord(), slotsByTerminal.get(terminalPublicId))) return true;
+        return !overlaps(terminalPublicId, startingDate, endingDate);
+    }
+
+    /**
+     * Nombre de bornes possédant une carte de bits : bornes ayant au moins une réservation active non terminée,
+     * celles dont toutes les réservations sont terminées étant retirées à la purge suivante.
+     * @return Le nombre de cartes de bits en mémoire
+     */
+    public int getBitmapCount() {
+        return bitmapsByTerminal.size();
+    }
+
+    /**
+     * Mémoire occupée par les cartes de bits : BITMAP_BYTES octets par borne comptée dans getBitmapCount.
+     * @return La taille totale des cartes de bits en octets
+     */
+    public long getBitmapBytes() {
+        return (long) bitmapsByTerminal.size() * BITMAP_BYTES;
+    }
+
+    /**
+     * Met à jour l'index pour une réservation enregistrée.
+     * Dans une transaction, la mise à jour est différée après le commit pour ne jamais exposer
+     * un créneau qui serait annulé par un rollback.
+     * @param booking La réservation enregistrée
+     */
+    public void index(Booking booking) {
+        if (booking == null || booking.getPublicId() == null) return;
+
+        UUID bookingPublicId = booking.getPublicId();
+        UUID terminalPublicId = booking.getTerminal() != null ? booking.getTerminal().getPublicId() : null;
+        LocalDateTime startingDate = booking.getStartingDate();
+        LocalDateTime endingDate = booking.getEndingDate();
+        BookingStatus status = booking.getStatusBooking();
+
+        afterCommit(() -> put(bookingPublicId, terminalPublicId, startingDate, endingDate, status));
+    }
+
+    /**
+     * Retire une réservation de l'index (suppression).
+     * @param bookingPublicId L'identifiant public de la réservation
+     */
+    public void remove(UUID bookingPublicId) {
+        if (bookingPublicId == null) return;
+        afterCommit(() -> evict(bookingPublicId));
+    }
+
+    /**
+     * Nombre de créneaux actuellement indexés.
+     * @return Le nombre de réservations actives connues de l'index
+     */
+    public int size() {
+        return slotsByBooking.size();
+    }
+
+    /**
+     * Applique un créneau lu en base s'il diffère de celui de l'index.
+     * @return true si l'index a été modifié
+     */
+    private boolean apply(BookingSlotDTO slot) {
+        Slot current = isActive(slot.getStatusBooking()) ? new Slot(slot.getPublicId(), slot.getTerminalPublicId(),
+                slot.getStartingDate(), slot.getEndingDate()) : null;
+        if (Objects.equals(current, slotsByBooking.get(slot.getPublicId()))) return false;
+
+        put(slot.getPublicId(), slot.getTerminalPublicId(),
+                slot.getStartingDate(), slot.getEndingDate(), slot.getStatusBooking());
+        return true;
+    }
+
+    private static boolean isActive(BookingStatus status) {
+        return status == BookingStatus.EN_ATTENTE || status == BookingStatus.ACCEPTEE;
+    }
+
+    private void put(UUID bookingPublicId, UUID terminalPublicId,
+                     LocalDateTime startingDate, LocalDateTime endingDate, BookingStatus status) {
+        evict(bookingPublicId);
+
+        if (!isActive(status) || terminalPublicId == null || startingDate == null || endingDate == null) return;
+
+        Slot slot = new Slot(bookingPublicId, terminalPublicId, startingDate, endingDate);
+        // Ajout atomique vis-à-vis de la purge, qui retire l'ensemble d'une borne lorsqu'il devient vide
+        NavigableSet<Slot> slots = slotsByTerminal.compute(terminalPublicId, (id, current) -> {
+            NavigableSet<Slot> set = current != null ? current : new ConcurrentSkipListSet<>(SLOT_ORDER);
+            set.add(slot);
+            return set;
+        });
+        slotsByBooking.put(bookingPublicId, slot);
+        bitmapsByTerminal.computeIfAbsent(terminalPublicId, id -> new SlotBitmap())
+                .mark(firstSlot(startingDate), endSlot(endingDate), currentFirstWord(), slots);
+
+        pruneExpired(terminalPublicId, LocalDateTime.now(clock));
+    }
+
+    private void evict(UUID bookingPublicId) {
+        Slot previous = slotsByBooking.remove(bookingPublicId);
+        if (previous == null) return;
+
+        NavigableSet<Slot> slots = slotsByTerminal.get(previous.terminalPublicId());
+        if (slots != null) {
+            slots.remove(previous);
+            SlotBitmap bitmap = bitmapsByTerminal.get(previous.terminalPublicId());
+            if (bitmap != null) {
+                bitmap.unmark(firstSlot(previous.startingDate()), endSlot(previous.endingDate()), currentFirstWord(), slots);
+            }
+            dropIfEmpty(previous.terminalPublicId());
+        }
+    }
+
+    /**
+     * Supprime les créneaux déjà terminés d'une borne pour borner la mémoire.
+     * Les créneaux pouvant se chevaucher, un créneau terminé peut suivre un créneau encore en cours :
+     * le parcours s'arrête au premier créneau qui commence après la date courante.
+     */
+    private void pruneExpired(UUID terminalPublicId, LocalDateTime now) {
+        NavigableSet<Slot> slots = slotsByTerminal.get(terminalPublicId);
+        if (slots == null) return;
+
+        for (Slot slot : slots) {
+            if (slot.startingDate().isAfter(now)) break;
+            if (!slot.endingDate().isAfter(now) && slots.remove(slot)) {
+                slotsByBooking.remove(slot.bookingPublicId(), slot);
+            }
+        }
+        dropIfEmpty(terminalPublicId);
+    }
+
+    /**
+     * Une borne sans réservation active ne garde ni ensemble de créneaux ni carte de bits.
+     * La carte n'est retirée qu'avec l'ensemble : un ajout concurrent recrée l'un puis l'autre.
+     */
+    private void dropIfEmpty(UUID terminalPublicId) {
+        slotsByTerminal.computeIfPresent(terminalPublicId, (id, slots) -> slots.isEmpty() ? null : slots);
+        bitmapsByTerminal.computeIfPresent(terminalPublicId, (id, bitmap) -> slotsByTerminal.containsKey(id) ? bitmap : null);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Numéro absolu du quart d'heure contenant une date.
+     */
+    static long firstSlot(LocalDateTime date) {
+        return Math.floorDiv(date.toEpochSecond(ZoneOffset.UTC), SLOT_SECONDS);
+    }
+
+    /**
+     * Numéro absolu du premier quart d'heure entièrement après une date (borne exclusive).
+     */
+    static long endSlot(LocalDateTime date) {
+        long seconds = date.toEpochSecond(ZoneOffset.UTC) + (date.getNano() > 0 ? 1 : 0);
+        return Math.ceilDiv(seconds, SLOT_SECONDS);
+    }
+
+    private long currentFirstWord() {
+        // Un mot de marge dans le passé pour les périodes qui commencent maintenant
+        return Math.floorDiv(firstSlot(LocalDateTime.now(clock)), Long.SIZE) - 1;
+    }
+
+    record Slot(UUID bookingPublicId, UUID terminalPublicId, LocalDateTime startingDate, LocalDateTime endingDate) {}
+
+    /**
+     * Carte de bits d'une borne : un bit par quart d'heure, mot w stocké dans words[w % HORIZON_WORDS].
+     * L'horizon [firstWord, firstWord + HORIZON_WORDS) avance avec le temps ; les mots qui y entrent
+     * sont recalculés à partir des créneaux de la borne.
+     */
+    static final class SlotBitmap {
+        private final long[] words = new long[HORIZON_WORDS];
+        private long firstWord = Long.MIN_VALUE;
+
+        synchronized void mark(long fromSlot, long toSlot, long currentFirstWord, NavigableSet<Slot> slots) {
+            roll(currentFirstWord, slots);
+            setRange(fromSlot, toSlot);
+        }
+
+        synchronized void unmark(long fromSlot, long toSlot, long currentFirstWord, NavigableSet<Slot> slots) {
+            roll(currentFirstWord, slots);
+            long from = Math.max(fromSlot, firstWord * Long.SIZE);
+            long to = Math.min(toSlot, (firstWord + HORIZON_WORDS) * Long.SIZE);
+            if (from >= to) return;
+            // Un quart d'heure peut être partagé par deux réservations : on le recalcule à partir des créneaux restants
+            clearRange(from, to);
+            refill(from, to, slots);
+        }
+
+        synchronized boolean isClear(long fromSlot, long toSlot, long currentFirstWord, NavigableSet<Slot> slots) {
+            roll(currentFirstWord, slots);
+            if (fromSlot < firstWord * Long.SIZE || toSlot > (firstWord + HORIZON_WORDS) * Long.SIZE) return false;
+
+            for (long word = Math.floorDiv(fromSlot, Long.SIZE); word * Long.SIZE < toSlot; word++) {
+                if ((words[index(word)] & mask(word, fromSlot, toSlot)) != 0) return false;
+            }
+            return true;
+        }
+
+        private void roll(long currentFirstWord, NavigableSet<Slot> slots) {
+            if (firstWord >= currentFirstWord) return;
+
+            long previousEnd = firstWord == Long.MIN_VALUE ? Long.MIN_VALUE : firstWord + HORIZON_WORDS;
+            long newEnd = currentFirstWord + HORIZON_WORDS;
+            long refillFrom = Math.max(previousEnd, currentFirstWord);
+            firstWord = currentFirstWord;
+            for (long word = refillFrom; word < newEnd; word++) {
+                words[index(word)] = 0;
+            }
+            if (slots != null) {
+                refill(refillFrom * Long.SIZE, newEnd * Long.SIZE, slots);
+            }
+        }
+
+        private void refill(long fromSlot, long toSlot, NavigableSet<Slot> slots) {
+            for (Slot slot : slots) {
+                long start = firstSlot(slot.startingDate());
+                if (start >= toSlot) break;
+                long end = endSlot(slot.endingDate());
+                if (end > fromSlot) {
+                    setRange(Math.max(start, fromSlot), Math.min(end, toSlot));
+                }
+            }
+        }
+
+        private void setRange(long fromSlot, long toSlot) {
+            fromSlot = Math.max(fromSlot, firstWord * Long.SIZE);
+            toSlot = Math.min(toSlot, (firstWord + HORIZON_WORDS) * Long.SIZE);
+            for (long word = Math.floorDiv(fromSlot, Long.SIZE); fromSlot < toSlot && word * Long.SIZE < toSlot; word++) {
+                words[index(word)] |= mask(word, fromSlot, toSlot);
+            }
+        }
+
+        private void clearRange(long fromSlot, long toSlot) {
+            for (long word = Math.floorDiv(fromSlot, Long.SIZE); word * Long.SIZE < toSlot; word++) {
+                words[index(word)] &= ~mask(word, fromSlot, toSlot);
+            }
+        }
+
+        /**
+         * Masque des bits du mot qui tombent dans [fromSlot, toSlot).
+         */
+        private static long mask(long word, long fromSlot, long toSlot) {
+            long wordStart = word * Long.SIZE;
+            int low = (int) Math.max(0, fromSlot - wordStart);
+            int high = (int) Math.min(Long.SIZE, toSlot - wordStart);
+            if (low >= high) return 0;
+            long upper = high == Long.SIZE ? -1L : (1L << high) - 1;
+            return upper & (-1L << low);
+        }
+
+        private static int index(long word) {
+            return (int) Math.floorMod(word, (long) HORIZON_WORDS);
+        }
+    }
+}
@@ -1,36 +1,70 @@
 package com.electricitybusiness.api.service;
 
+import com.electricitybusiness.api.dto.booking.BookingSlotDTO;
 import com.electricitybusiness.api.model.Booking;
 import com.electricitybusiness.api.model.BookingStatus;
+import com.electricitybusiness.api.model.BookingTransition;
 import com.electricitybusiness.api.model.TerminalStatus;
+import com.electricitybusiness.api.model.TransitionType;
 import com.electricitybusiness.api.repository.BookingRepository;
+import com.electricitybusiness.api.repository.BookingTransitionRepository;
+import com.electricitybusiness.api.repository.TerminalRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneId;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Service de planification des transitions des réservations (auto-validation, occupation et libération des bornes).
+ * Les transitions sont persistées dans la table booking_transitions, dans la transaction de l'appelant,
+ * puis appliquées par lots lorsqu'elles arrivent à échéance. Les dates d'échéance sont exprimées
+ * dans le fuseau des réservations.
+ */
 @Service
 @RequiredArgsConstructor
 public class BookingSchedulerService {
 
-    private final ThreadPoolTaskScheduler taskScheduler;
-    private final TerminalService terminalService;
-    private final BookingRepository bookingRepository;
+    private static final Logger logger = LoggerFactory.getLogger(BookingSchedulerService.class);
+
+    private static final Set<TransitionType> TERMINAL_TRANSITIONS =
+            EnumSet.of(TransitionType.OCCUPATION_BORNE, TransitionType.LIBERATION_BORNE);
+
+    // À échéance égale, une libération est appliquée avant l'occupation suivante de la même borne
+    private static final Comparator<BookingTransition> APPLY_ORDER = Comparator
+            .comparing(BookingTransition::getDueAt)
+            .thenComparing(BookingTransition::getTransitionType);
 
-    private final Map<UUID, List<ScheduledFuture<?>>> futures = new HashMap<>();
+    // Taille maximale de la liste IN d'une mise à jour de terminaux
+    static final int TERMINAL_UPDATE_CHUNK_SIZE = 500;
+
+    private final BookingTransitionRepository bookingTransitionRepository;
+    private final TerminalRepository terminalRepository;
+    private final BookingRepository bookingRepository;
+    private final TerminalSearchCache terminalSearchCache;
+    private final Clock clock;
 
-    private final Map<UUID, ScheduledFuture<?>> autoValidationTasks = new HashMap<>();
+    private final LongAdder cancelledTasks = new LongAdder();
+    private final LongAdder firedTasks = new LongAdder();
+    private final LongAdder parkedTasks = new LongAdder();
+    private final LongAdder terminalUpdateBatches = new LongAdder();
+    private final LongAdder terminalUpdateNanos = new LongAdder();
+    private final LongAdder terminalRowsChanged = new LongAdder();
 
     /**
      * Planifie les tâches pour occuper et libérer un terminal en fonction des dates
      * de début et de fin d'une réservation.
      * @param booking La réservation pour laquelle planifier les tâches.
      */
+    @Transactional
     public void scheduleBookingTasks(Booking booking) {
         if (booking == null || booking.getPublicId() == null) return;
 
@@ -41,34 +75,19 @@ public class BookingSchedulerService {
         // Annuler les tâches existantes pour cette réservation
         cancelBookingTasks(bookingId);
 
-        Instant nowIf = Instant.now();
-        Instant startDateIf = booking.getStartingDate().atZone(ZoneId.systemDefault()).toInstant();
-        Instant endDateIf = booking.getEndingDate().atZone(ZoneId.systemDefault()).toInstant();
+        Instant nowIf = Instant.now(clock);
+        Instant startDateIf = booking.getStartingDate().atZone(BookingService.BOOKING_ZONE).toInstant();
+        Instant endDateIf = booking.getEndingDate().atZone(BookingService.BOOKING_ZONE).toInstant();
 
         // Vérifier si les dates sont dans le futur
         if (startDateIf.isBefore(nowIf) || endDateIf.isBefore(nowIf)) {
             return;
         }
 
-        Date startDate = Date.from(booking.getStartingDate().atZone(ZoneId.systemDefault()).toInstant());
-        Date endDate = Date.from(booking.getEndingDate().atZone(ZoneId.systemDefault()).toInstant());
-
-        Runnable occupyTask = () -> {
-            try {
-                terminalService.setOccupiedByPublicId(terminalPublicId, TerminalStatus.OCCUPEE, true);
-            } catch (Exception ignored) {}
-        };
-
-        Runnable freeTask = () -> {
-            try {
-                terminalService.setOccupiedByPublicId(terminalPublicId, TerminalStatus.LIBRE, false);
-            } catch (Exception ignored) {}
-        };
-
-        ScheduledFuture<?> f1 = taskScheduler.schedule(occupyTask, startDate);
-        ScheduledFuture<?> f2 = taskScheduler.schedule(freeTask, endDate);
-
-            futures.put(bookingId, Arrays.asList(f1, f2));
+        bookingTransitionRepository.saveAll(List.of(
+                new BookingTransition(null, bookingId, terminalPublicId, TransitionType.OCCUPATION_BORNE, booking.getStartingDate()),
+                new BookingTransition(null, bookingId, terminalPublicId, TransitionType.LIBERATION_BORNE, booking.getEndingDate())
+        ));
     }
 
     /**
@@ -77,8 +96,9 @@ public class BookingSchedulerService {
      * @param bookingPublicId L'identifiant public de la réservation.
      * @param bookingStartInstant L'instant de début de la réservation (en UTC).
      */
+    @Transactional
     public void scheduleAutoValidationTask(UUID bookingPublicId, Instant bookingStartInstant) {
-        Instant now = Instant.now();
+        Instant now = Instant.now(clock);
         Instant scheduleTime = bookingStartInstant.minus(Duration.ofMinutes(30));
 
         // Ne pas planifier si l'heure est déjà passée
@@ -86,43 +106,20 @@ public class BookingSchedulerService {
             return;
         }
 
-        // La tâche à exécuter
-        Runnable autoValidationRunnable = () -> {
-            Optional<Booking> bookingOpt = bookingRepository.findByPublicId(bookingPublicId);
-            bookingOpt.ifPresent(booking -> {
-                // Vérifier si le statut est toujours EN_ATTENTE
-                if (booking.getStatusBooking() == BookingStatus.EN_ATTENTE) {
-                    booking.setStatusBooking(BookingStatus.ACCEPTEE);
-                    bookingRepository.save(booking);
-
-                    // Planifier les tâches d'occupation et de libération du terminal
-                    scheduleBookingTasks(booking);
-                } else {
-                    System.out.println("La réservation " + bookingPublicId + " n'est plus en attente, l'auto-validation est ignorée.");
-                }
-            });
-
-            // Retirer la tâche de la map après exécution
-            autoValidationTasks.remove(bookingPublicId);
-        };
-
-        // Planifier la tâche
-        ScheduledFuture<?> future = taskScheduler.schedule(autoValidationRunnable, scheduleTime);
-        autoValidationTasks.put(bookingPublicId, future);
+        cancelAutoValidationTask(bookingPublicId);
+        bookingTransitionRepository.save(new BookingTransition(null, bookingPublicId, null,
+                TransitionType.AUTO_VALIDATION, LocalDateTime.ofInstant(scheduleTime, BookingService.BOOKING_ZONE)));
     }
 
-
-
     /**
      * Annule toutes les tâches planifiées pour une réservation spécifique.
      * Utile lors de la suppression ou de la modification d'une réservation.
      * @param bookingId L'identifiant public de la réservation.
      */
+    @Transactional
     public void cancelBookingTasks(UUID bookingId) {
-        List<ScheduledFuture<?>> list = futures.remove(bookingId);
-        if (list != null) {
-            list.forEach(f -> { if (f != null) f.cancel(false); });
-        }
+        if (bookingId == null) return;
+        cancelledTasks.add(bookingTransitionRepository.deleteByBookingPublicIdAndTransitionTypeIn(bookingId, TERMINAL_TRANSITIONS));
     }
 
     /**
@@ -130,11 +127,205 @@ public class BookingSchedulerService {
      * Utile si l'utilisateur valide manuellement la réservation avant l'heure prévue.
      * @param bookingPublicId L'identifiant public de la réservation.
      */
+    @Transactional
     public void cancelAutoValidationTask(UUID bookingPublicId) {
-        ScheduledFuture<?> future = autoValidationTasks.remove(bookingPublicId);
-        if (future != null) {
-            future.cancel(false);
-            System.out.println("Tâche d'auto-validation annulée pour la réservation : " + bookingPublicId);
+        if (bookingPublicId == null) return;
+        cancelledTasks.add(bookingTransitionRepository.deleteByBookingPublicIdAndTransitionTypeIn(
+                bookingPublicId, EnumSet.of(TransitionType.AUTO_VALIDATION)));
+    }
+
+    /**
+     * Complète la file pour un lot de créneaux : seules les transitions futures absentes de la table sont insérées,
+     * celles déjà planifiées (par la création ou la modification de la réservation) sont conservées telles quelles.
+     * @param slots Les créneaux des réservations actives
+     * @param now La date courante
+     * @return Le nombre de transitions insérées
+     */
+    @Transactional
+    public int rehydrateSlots(List<BookingSlotDTO> slots, LocalDateTime now) {
+        if (slots.isEmpty()) return 0;
+
+        Set<TransitionKey> existing = new HashSet<>();
+        for (BookingTransition transition : bookingTransitionRepository.findByBookingPublicIdIn(
+                slots.stream().map(BookingSlotDTO::getPublicId).toList())) {
+            existing.add(new TransitionKey(transition.getBookingPublicId(), transition.getTransitionType()));
+        }
+
+        List<BookingTransition> missing = new ArrayList<>();
+        for (BookingSlotDTO slot : slots) {
+            // Mêmes règles que scheduleBookingTasks et scheduleAutoValidationTask
+            if (slot.getStartingDate().isAfter(now)) {
+                addIfMissing(missing, existing, slot, TransitionType.OCCUPATION_BORNE, slot.getStartingDate());
+                addIfMissing(missing, existing, slot, TransitionType.LIBERATION_BORNE, slot.getEndingDate());
+            }
+            LocalDateTime autoValidationAt = slot.getStartingDate().minusMinutes(30);
+            if (slot.getStatusBooking() == BookingStatus.EN_ATTENTE && autoValidationAt.isAfter(now)) {
+                addIfMissing(missing, existing, slot, TransitionType.AUTO_VALIDATION, autoValidationAt);
+            }
+        }
+
+        bookingTransitionRepository.saveAll(missing);
+        return missing.size();
+    }
+
+    /**
+     * Réserve un lot de transitions échues, les applique en masse puis les supprime, dans une seule transaction.
+     * Les lignes verrouillées par un autre worker sont ignorées ; en cas d'échec, le lot reste dans la file.
+     * @param now La date courante
+     * @param batchSize La taille maximale du lot
+     * @param maxAttempts Le nombre d'échecs à partir duquel une transition est écartée
+     * @return Le nombre de transitions appliquées
+     */
+    @Transactional
+    public int applyDueTransitions(LocalDateTime now, int batchSize, int maxAttempts) {
+        List<BookingTransition> due = new ArrayList<>(
+                bookingTransitionRepository.claimDueTransitions(now, maxAttempts, PageRequest.of(0, batchSize)));
+        if (due.isEmpty()) return 0;
+        due.sort(APPLY_ORDER);
+
+        Set<UUID> toValidate = new LinkedHashSet<>();
+        // Dernier état connu de chaque borne dans le lot
+        Map<UUID, Boolean> occupiedByTerminal = new LinkedHashMap<>();
+        for (BookingTransition transition : due) {
+            switch (transition.getTransitionType()) {
+                case AUTO_VALIDATION -> toValidate.add(transition.getBookingPublicId());
+                case OCCUPATION_BORNE -> occupiedByTerminal.put(transition.getTerminalPublicId(), true);
+                case LIBERATION_BORNE -> occupiedByTerminal.put(transition.getTerminalPublicId(), false);
+            }
+        }
+
+        int validated = toValidate.isEmpty() ? 0 :
+                bookingRepository.updateStatusByPublicIdIn(
+                        toValidate, BookingStatus.EN_ATTENTE, BookingStatus.ACCEPTEE, Instant.now(clock));
+        int terminalsChanged = updateTerminals(occupiedByTerminal, true, TerminalStatus.OCCUPEE)
+                + updateTerminals(occupiedByTerminal, false, TerminalStatus.LIBRE);
+
+        bookingTransitionRepository.deleteAllByIdInBatch(due.stream().map(BookingTransition::getIdBookingTransition).toList());
+        firedTasks.add(due.size());
+
+        logger.debug("{} transitions appliquées ({} réservations validées, {} bornes modifiées sur {})",
+                due.size(), validated, terminalsChanged, occupiedByTerminal.size());
+        return due.size();
+    }
+
+    /**
+     * Compte un échec sur la première transition échue, celle dont l'application seule vient d'échouer.
+     * Au-delà de maxAttempts échecs, elle est écartée de la file : conservée en base, elle n'est plus réservée.
+     * @param now La date courante
+     * @param maxAttempts Le nombre d'échecs à partir duquel une transition est écartée
+     * @param cause L'erreur de la dernière tentative
+     */
+    @Transactional
+    public void recordFailedAttempt(LocalDateTime now, int maxAttempts, RuntimeException cause) {
+        List<BookingTransition> failed = bookingTransitionRepository.claimDueTransitions(now, maxAttempts, PageRequest.of(0, 1));
+        if (failed.isEmpty()) return;
+
+        BookingTransition transition = failed.get(0);
+        bookingTransitionRepository.incrementAttempts(transition.getIdBookingTransition());
+        int attempts = transition.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            parkedTasks.increment();
+            logger.error("Transition {} de la réservation {} écartée de la file après {} échecs : {}",
+                    transition.getTransitionType(), transition.getBookingPublicId(), attempts, cause.getMessage());
+        } else {
+            logger.warn("Échec {} de la transition {} de la réservation {} : {}",
+                    attempts, transition.getTransitionType(), transition.getBookingPublicId(), cause.getMessage());
         }
     }
+
+    /**
+     * Nombre de transitions en attente dans la file.
+     * @return Le nombre de transitions planifiées
+     */
+    @Transactional(readOnly = true)
+    public long getRegisteredTaskCount() {
+        return bookingTransitionRepository.count();
+    }
+
+    /**
+     * Nombre cumulé de transitions annulées avant leur échéance.
+     * @return Le nombre de transitions annulées depuis le démarrage
+     */
+    public long getCancelledTaskCount() {
+        return cancelledTasks.sum();
+    }
+
+    /**
+     * Nombre cumulé de transitions appliquées.
+     * @return Le nombre de transitions appliquées depuis le démarrage
+     */
+    public long getFiredTaskCount() {
+        return firedTasks.sum();
+    }
+
+    /**
+     * Nombre cumulé de transitions écartées de la file après trop d'échecs.
+     * @return Le nombre de transitions écartées depuis le démarrage
+     */
+    public long getParkedTaskCount() {
+        return parkedTasks.sum();
+    }
+
+    /**
+     * Nombre cumulé de requêtes de mise à jour groupée des terminaux.
+     * @return Le nombre de lots exécutés depuis le démarrage
+     */
+    public long getTerminalUpdateBatchCount() {
+        return terminalUpdateBatches.sum();
+    }
+
+    /**
+     * Temps cumulé passé dans les mises à jour groupées des terminaux.
+     * @return La durée totale en nanosecondes
+     */
+    public double getTerminalUpdateNanos() {
+        return terminalUpdateNanos.sum();
+    }
+
+    /**
+     * Nombre cumulé de terminaux dont l'état a été modifié par les mises à jour groupées.
+     * @return Le nombre de lignes modifiées depuis le démarrage
+     */
+    public long getTerminalRowsChangedCount() {
+        return terminalRowsChanged.sum();
+    }
+
+    /**
+     * Applique un même état à des terminaux, par lots d'au plus TERMINAL_UPDATE_CHUNK_SIZE identifiants (une requête UPDATE par lot).
+     * @return Le nombre de terminaux dont l'état a effectivement changé
+     */
+    private int updateTerminals(Map<UUID, Boolean> occupiedByTerminal, boolean occupied, TerminalStatus status) {
+        List<UUID> terminalIds = occupiedByTerminal.entrySet().stream()
+                .filter(entry -> entry.getValue() == occupied)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        int changed = 0;
+        for (int from = 0; from < terminalIds.size(); from += TERMINAL_UPDATE_CHUNK_SIZE) {
+            List<UUID> chunk = terminalIds.subList(from, Math.min(from + TERMINAL_UPDATE_CHUNK_SIZE, terminalIds.size()));
+            long start = System.nanoTime();
+            int rows = terminalRepository.updateStatusByPublicIdIn(chunk, status, occupied);
+            long elapsed = System.nanoTime() - start;
+
+            terminalUpdateBatches.increment();
+            terminalUpdateNanos.add(elapsed);
+            terminalRowsChanged.add(rows);
+            logger.debug("Lot de {} bornes passées {} : {} lignes modifiées en {} ms",
+                    chunk.size(), status, rows, elapsed / 1_000_000);
+            if (rows > 0) {
+                terminalSearchCache.evictAll(chunk);
+            }
+            changed += rows;
+        }
+        return changed;
+    }
+
+    private void addIfMissing(List<BookingTransition> missing, Set<TransitionKey> existing,
+                              BookingSlotDTO slot, TransitionType type, LocalDateTime dueAt) {
+        if (existing.contains(new TransitionKey(slot.getPublicId(), type))) return;
+        UUID terminalPublicId = type == TransitionType.AUTO_VALIDATION ? null : slot.getTerminalPublicId();
+        missing.add(new BookingTransition(null, slot.getPublicId(), terminalPublicId, type, dueAt));
+    }
+
+    private record TransitionKey(UUID bookingPublicId, TransitionType transitionType) {}
 }
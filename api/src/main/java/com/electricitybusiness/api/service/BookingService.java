@@ -1,9 +1,15 @@
 package com.electricitybusiness.api.service;
 
+import com.electricitybusiness.api.dto.address.AddressDTO;
+import com.electricitybusiness.api.dto.booking.BookingDTO;
 import com.electricitybusiness.api.dto.booking.BookingStatusDTO;
+import com.electricitybusiness.api.dto.place.PlaceDTO;
 import com.electricitybusiness.api.exception.ConflictException;
+import com.electricitybusiness.api.exception.ResourceNotFoundException;
 import com.electricitybusiness.api.model.*;
 import com.electricitybusiness.api.repository.BookingRepository;
+import com.electricitybusiness.api.repository.PlaceRepository;
+import com.electricitybusiness.api.repository.TerminalRepository;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.font.PdfFontFactory;
@@ -15,10 +21,12 @@ import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,18 +34,30 @@ import java.io.ByteArrayOutputStream;
 import java.time.*;
 import java.util.*;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class BookingService {
+    // Taille maximale de la liste IN lors du chargement des lieux des adresses
+    private static final int ADDRESS_CHUNK_SIZE = 1000;
+
     private final BookingRepository bookingRepository;
+    private final TerminalRepository terminalRepository;
     private final BookingSchedulerService bookingSchedulerService;
+    private final BookingIntervalIndex bookingIntervalIndex;
     private final Clock clock;
+    private final EntityManager entityManager;
+    private final PlaceRepository placeRepository;
+
+    // Fuseau dans lequel les dates de réservation sont saisies et comparées, quel que soit celui de l'hôte
+    public static final ZoneId BOOKING_ZONE = ZoneId.of("Europe/Paris");
 
+    // Statique : la fabrique ne doit pas instancier ce service, qui dépend lui-même de l'horloge
     @Bean
-    public Clock clock() {
-        return Clock.systemDefaultZone();
+    public static Clock clock() {
+        return Clock.system(BOOKING_ZONE);
     }
 
     /**
@@ -48,6 +68,36 @@ public class BookingService {
         return bookingRepository.findAll();
     }
 
+    /**
+     * Récupère toutes les réservations directement sous forme de DTO, sans charger d'entité.
+     * @return Une liste de toutes les réservations sous forme de DTO
+     */
+    @Transactional(readOnly = true)
+    public List<BookingDTO> getAllBookingDTOs() {
+        return withAddressPlaces(bookingRepository.findAllDTOs());
+    }
+
+    /**
+     * Récupère une page de réservations triées par date de début puis identifiant.
+     * @param afterStartingDate La date de début de la dernière réservation de la page précédente (null pour la première page)
+     * @param afterId L'identifiant de la dernière réservation de la page précédente
+     * @param limit Le nombre maximal de réservations
+     * @return Une page de réservations
+     */
+    @Transactional(readOnly = true)
+    public List<Booking> getBookingsPage(LocalDateTime afterStartingDate, Long afterId, int limit) {
+        return bookingRepository.findPageAfter(afterStartingDate, afterId, PageRequest.ofSize(limit));
+    }
+
+    /**
+     * Parcourt toutes les réservations sans les charger en une fois.
+     * @param action L'action appliquée à chaque réservation, dans la transaction de lecture
+     */
+    @Transactional(readOnly = true)
+    public void forEachBooking(Consumer<Booking> action) {
+        EntityStreams.forEachDetached(bookingRepository.streamAll(), entityManager, action);
+    }
+
     /**
      * Récupère une réservation par son ID.
      * @param id L'identifiant de la réservation à récupérer
@@ -60,6 +110,7 @@ public class BookingService {
 
     /**
      * Crée une nouvelle réservation.
+     * La vérification des chevauchements et l'insertion sont atomiques pour un même terminal.
      * @param booking La réservation à enregistrer
      * @return La réservation enregistrée
      */
@@ -68,20 +119,35 @@ public class BookingService {
             throw new IllegalArgumentException("La date de début de réservation ne peut pas être après la date de fin.");
         }
 
-        ZoneId serviceProcessingZone = ZoneId.of("Europe/Paris");
+        ZoneId serviceProcessingZone = BOOKING_ZONE;
         LocalDateTime currentDateTime = LocalDateTime.ofInstant(Instant.now(clock), serviceProcessingZone);
 
         if (booking.getStartingDate().isBefore(currentDateTime.minusMinutes(5))) {
             throw new IllegalArgumentException("La date de début de réservation ne peut pas être dans le passé.");
         }
 
-        List<Booking> overlappingBookings = bookingRepository.findOverlappingBookings(
+        // Rejet rapide depuis l'index en mémoire, sans verrou ni requête
+        UUID terminalPublicId = booking.getTerminal() != null ? booking.getTerminal().getPublicId() : null;
+        if (bookingIntervalIndex.overlaps(terminalPublicId, booking.getStartingDate(), booking.getEndingDate())) {
+            throw new ConflictException("Le terminal est déjà réservé pour la période spécifiée.");
+        }
+
+        // Verrou sur la ligne du terminal : les réservations concurrentes d'un même terminal
+        // sont traitées l'une après l'autre jusqu'au commit, les autres terminaux restent en parallèle
+        if (booking.getTerminal() != null && booking.getTerminal().getIdTerminal() != null) {
+            Long idTerminal = booking.getTerminal().getIdTerminal();
+            terminalRepository.findByIdForUpdate(idTerminal)
+                    .orElseThrow(() -> new ResourceNotFoundException("Terminal not found: " + idTerminal));
+        }
+
+        // Garde-fou final en base : l'index ne connaît pas encore les réservations des autres instances
+        boolean overlapping = bookingRepository.existsOverlappingBookings(
                 booking.getTerminal(),
                 booking.getStartingDate(),
                 booking.getEndingDate()
         );
 
-        if (!overlappingBookings.isEmpty()) {
+        if (overlapping) {
             throw new ConflictException("Le terminal est déjà réservé pour la période spécifiée.");
         }
 
@@ -100,6 +166,7 @@ public class BookingService {
         }
 
         Booking savedBooking = bookingRepository.save(booking);
+        bookingIntervalIndex.index(savedBooking);
 
         if (savedBooking.getStatusBooking() == BookingStatus.EN_ATTENTE) {
             bookingSchedulerService.scheduleAutoValidationTask(savedBooking.getPublicId(), bookingStartInstant);
@@ -119,7 +186,9 @@ public class BookingService {
      */
     public Booking updateBooking(Long id, Booking booking) {
         booking.setIdBooking(id);
-        return bookingRepository.save(booking);
+        Booking updatedBooking = bookingRepository.save(booking);
+        bookingIntervalIndex.index(updatedBooking);
+        return updatedBooking;
     }
 
     /**
@@ -127,6 +196,11 @@ public class BookingService {
      * @param id L'identifiant de la réservation à supprimer
      */
     public void deleteBookingById(Long id) {
+        bookingRepository.findById(id)
+                .ifPresent(booking -> {
+                    bookingIntervalIndex.remove(booking.getPublicId());
+                    cancelScheduledTransitions(booking.getPublicId());
+                });
         bookingRepository.deleteById(id);
     }
 
@@ -216,6 +290,70 @@ public class BookingService {
     @Transactional(readOnly = true)
     public List<Booking> getBookingsByUserOwner(User user) { return bookingRepository.findBookingsByUserOwner(user); }
 
+    /**
+     * Récupère les réservations des lieux d'un propriétaire directement sous forme de DTO, sans charger d'entité.
+     * @param user Le propriétaire des lieux
+     * @return Une liste de réservations sous forme de DTO
+     */
+    @Transactional(readOnly = true)
+    public List<BookingDTO> getBookingDTOsByUserOwner(User user) {
+        return withAddressPlaces(bookingRepository.findDTOsByUserOwner(user));
+    }
+
+    /**
+     * Renseigne les lieux des adresses des réservations projetées, en une requête par tranche d'adresses.
+     * @param bookings Les réservations projetées, dont les adresses n'ont pas encore de lieux
+     * @return Les mêmes réservations
+     */
+    private List<BookingDTO> withAddressPlaces(List<BookingDTO> bookings) {
+        List<UUID> addressIds = bookings.stream()
+                .map(BookingDTO::getAddressDTO)
+                .filter(address -> address != null && address.getPublicId() != null)
+                .map(AddressDTO::getPublicId)
+                .distinct()
+                .toList();
+
+        Map<UUID, List<PlaceDTO>> placesByAddress = new HashMap<>();
+        for (int from = 0; from < addressIds.size(); from += ADDRESS_CHUNK_SIZE) {
+            placeRepository.findDTOsByAddressPublicIdIn(
+                    addressIds.subList(from, Math.min(from + ADDRESS_CHUNK_SIZE, addressIds.size())))
+                    .forEach(place -> placesByAddress
+                            .computeIfAbsent(place.getPublicIdAddress(), id -> new ArrayList<>())
+                            .add(place));
+        }
+
+        for (BookingDTO booking : bookings) {
+            AddressDTO address = booking.getAddressDTO();
+            if (address != null && address.getPublicId() != null) {
+                address.setPlaces(placesByAddress.getOrDefault(address.getPublicId(), List.of()));
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Récupère une page de réservations des lieux d'un propriétaire, triées par date de début puis identifiant.
+     * @param user Le propriétaire des lieux
+     * @param afterStartingDate La date de début de la dernière réservation de la page précédente (null pour la première page)
+     * @param afterId L'identifiant de la dernière réservation de la page précédente
+     * @param limit Le nombre maximal de réservations
+     * @return Une page de réservations
+     */
+    @Transactional(readOnly = true)
+    public List<Booking> getBookingsByUserOwnerPage(User user, LocalDateTime afterStartingDate, Long afterId, int limit) {
+        return bookingRepository.findPageByUserOwnerAfter(user, afterStartingDate, afterId, PageRequest.ofSize(limit));
+    }
+
+    /**
+     * Parcourt les réservations des lieux d'un propriétaire sans les charger en une fois.
+     * @param user Le propriétaire des lieux
+     * @param action L'action appliquée à chaque réservation, dans la transaction de lecture
+     */
+    @Transactional(readOnly = true)
+    public void forEachBookingByUserOwner(User user, Consumer<Booking> action) {
+        EntityStreams.forEachDetached(bookingRepository.streamByUserOwner(user), entityManager, action);
+    }
+
     /**
      * Récupère les réservations par utilisateur et statut.
      * @param user L'utilisateur associé aux réservations
@@ -231,6 +369,8 @@ public class BookingService {
      */
     public void deleteBookingByPublicId(UUID publicId) {
         bookingRepository.deleteBookingByPublicId(publicId);
+        bookingIntervalIndex.remove(publicId);
+        cancelScheduledTransitions(publicId);
     }
 
     /**
@@ -260,14 +400,30 @@ public class BookingService {
         if (booking.getUser() == null) {
             booking.setUser(existingUser);
         }
-        return bookingRepository.save(booking);
+        Booking updatedBooking = bookingRepository.save(booking);
+        bookingIntervalIndex.index(updatedBooking);
+        return updatedBooking;
     }
 
     public Booking updateBookingStatus(UUID publicId, BookingStatusDTO dto) {
         Booking existing = bookingRepository.findByPublicId(publicId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + publicId));
         existing.setStatusBooking(dto.getStatusBooking());
-        return bookingRepository.saveAndFlush(existing);
+        Booking updatedBooking = bookingRepository.saveAndFlush(existing);
+        bookingIntervalIndex.index(updatedBooking);
+
+        // Une réservation validée n'a plus besoin d'auto-validation, une réservation refusée n'occupera pas la borne
+        if (updatedBooking.getStatusBooking() == BookingStatus.ACCEPTEE) {
+            bookingSchedulerService.cancelAutoValidationTask(publicId);
+        } else if (updatedBooking.getStatusBooking() == BookingStatus.REFUSEE) {
+            cancelScheduledTransitions(publicId);
+        }
+        return updatedBooking;
+    }
+
+    private void cancelScheduledTransitions(UUID bookingPublicId) {
+        bookingSchedulerService.cancelAutoValidationTask(bookingPublicId);
+        bookingSchedulerService.cancelBookingTasks(bookingPublicId);
     }
 
     // Création de pdf de la réservation
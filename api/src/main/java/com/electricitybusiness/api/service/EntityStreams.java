@@ -0,0 +1,43 @@
+package com.electricitybusiness.api.service;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Parcours d'un flux d'entités à mémoire constante : les entités sont lues par tranches,
+ * traitées, puis le contexte de persistance est vidé pour qu'elles puissent être libérées.
+ * Lire la tranche avant de la traiter permet à Hibernate de charger par lots
+ * (default_batch_fetch_size) les associations des entités de la tranche plutôt qu'une par une.
+ */
+final class EntityStreams {
+
+    // Nombre d'entités lues et traitées entre deux vidages du contexte de persistance
+    static final int CLEAR_INTERVAL = 500;
+
+    private EntityStreams() {
+    }
+
+    /**
+     * Applique une action à chaque entité du flux puis ferme le flux.
+     * L'action doit extraire ce dont elle a besoin (associations comprises) avant de rendre la main.
+     */
+    static <T> void forEachDetached(Stream<T> entities, EntityManager entityManager, Consumer<T> action) {
+        try (entities) {
+            Iterator<T> iterator = entities.iterator();
+            List<T> chunk = new ArrayList<>(CLEAR_INTERVAL);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CLEAR_INTERVAL || !iterator.hasNext()) {
+                    chunk.forEach(action);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+}
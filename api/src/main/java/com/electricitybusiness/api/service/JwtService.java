@@ -11,6 +11,7 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -18,15 +19,28 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Autowired;
 import com.electricitybusiness.api.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Service
@@ -39,13 +53,29 @@ public class JwtService {
     @Value("${jwt.secret-key-refresh-token}")
     private String refreshSecretKey;
 
+    // Access tokens sans état : rôle, identifiant et version portés par le token, sans chargement de l'utilisateur
+    @Value("${security.stateless-tokens.enabled:false}")
+    private boolean statelessTokens;
+
     private final RefreshTokenRepository refreshTokenRepository;
     private final EntityMapper entityMapper;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final PrincipalCache principalCache;
 
     private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
 
+    // Clés de signature et parseurs (immuables, thread-safe) par secret, c'est-à-dire par type de token
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Key> signingKeys = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<String, JwtParser> parsers = new ConcurrentHashMap<>();
+
+    // Réclamations des access tokens sans état
+    static final String ROLE_CLAIM = "role";
+    static final String UID_CLAIM = "uid";
+    static final String VERSION_CLAIM = "ver";
+
     // Durées d'expiration
     private static final long ACCESS_TOKEN_EXPIRATION_TIME = 1000 * 60 * 10; // 10 minutes
     private static final long REFRESH_TOKEN_EXPIRATION_TIME = 1000 * 60 * 60 * 24 * 7; // 7 jours
@@ -57,10 +87,7 @@ public class JwtService {
      */
     public boolean validateAccessToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey(accessSecretKey))
-                    .build()
-                    .parseClaimsJws(token);
+            getParser(accessSecretKey).parseClaimsJws(token);
             return true;
         } catch (Exception e) {
             return false;
@@ -73,7 +100,44 @@ public class JwtService {
      * @return L'access token généré
      */
     public String generateAccessToken(String username) {
-        return buildToken(username, accessSecretKey, ACCESS_TOKEN_EXPIRATION_TIME);
+        return buildToken(username, Map.of(), accessSecretKey, ACCESS_TOKEN_EXPIRATION_TIME);
+    }
+
+    /**
+     * Génère un access token pour un utilisateur authentifié.
+     * En mode sans état, le token porte aussi le rôle, l'identifiant et la version courante des jetons de l'utilisateur.
+     * @param userDetails L'utilisateur authentifié
+     * @return L'access token généré
+     */
+    public String generateAccessToken(UserDetails userDetails) {
+        String versionKey = PrincipalCache.versionKey(userDetails);
+        if (!statelessTokens || versionKey == null) {
+            return generateAccessToken(userDetails.getUsername());
+        }
+        Map<String, Object> claims = Map.of(
+                ROLE_CLAIM, userDetails.getAuthorities().iterator().next().getAuthority(),
+                UID_CLAIM, versionKey,
+                VERSION_CLAIM, principalCache.tokenVersion(versionKey)
+        );
+        return buildToken(userDetails.getUsername(), claims, accessSecretKey, ACCESS_TOKEN_EXPIRATION_TIME);
+    }
+
+    /**
+     * Autorités portées par un access token sans état, lues sans accès à la base.
+     * @param claims Les réclamations d'un access token valide
+     * @return Les autorités si le mode sans état est actif et la version du token courante,
+     * sinon vide : l'utilisateur est alors chargé
+     */
+    public Optional<List<GrantedAuthority>> extractStatelessAuthorities(Claims claims) {
+        if (!statelessTokens) return Optional.empty();
+
+        String role = claims.get(ROLE_CLAIM, String.class);
+        String versionKey = claims.get(UID_CLAIM, String.class);
+        Long version = claims.get(VERSION_CLAIM, Long.class);
+        if (role == null || versionKey == null || version == null || version < principalCache.tokenVersion(versionKey)) {
+            return Optional.empty();
+        }
+        return Optional.of(List.of(new SimpleGrantedAuthority(role)));
     }
 
     /**
@@ -82,32 +146,80 @@ public class JwtService {
      * @return Le refresh token généré
      */
     public String generateRefreshToken(String username) {
-        return buildToken(username, refreshSecretKey, REFRESH_TOKEN_EXPIRATION_TIME);
+        return buildToken(username, Map.of(), refreshSecretKey, REFRESH_TOKEN_EXPIRATION_TIME);
     }
 
     /**
-     * Génère un refresh token et le sauvegarde en base de données.
+     * Génère un refresh token et sauvegarde son empreinte en base de données.
      * @param user L'utilisateur pour lequel générer le refresh token
-     * @return Le RefreshToken sauvegardé en base de données
+     * @return Le RefreshToken sauvegardé en base de données, portant le jeton signé à transmettre au client
      */
     public RefreshToken generateRefreshTokenBdd(User user) {
         String token = generateRefreshToken(user.getEmailUser());
         RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setIdRefreshToken(token);
+        refreshToken.setTokenHash(hashToken(token));
+        refreshToken.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(REFRESH_TOKEN_EXPIRATION_TIME)));
         refreshToken.setUser(user);
-        return refreshTokenRepository.save(refreshToken);
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        saved.setToken(token);
+        return saved;
+    }
+
+    /**
+     * Remplace un refresh token par un nouveau, dans une même transaction : le jeton présenté n'est utilisable qu'une fois.
+     * @param current Le refresh token présenté
+     * @return Le nouveau RefreshToken, portant le jeton signé à transmettre au client
+     * @throws InvalidTokenException Si le jeton a déjà été utilisé ou révoqué
+     */
+    @Transactional
+    public RefreshToken rotateRefreshToken(RefreshToken current) {
+        if (refreshTokenRepository.deleteByTokenHash(current.getTokenHash()) == 0) {
+            throw new InvalidTokenException("Refresh token déjà utilisé ou révoqué");
+        }
+        return generateRefreshTokenBdd(current.getUser());
+    }
+
+    /**
+     * Supprime un lot de refresh tokens expirés.
+     * @param now La date courante
+     * @param batchSize Le nombre maximal de jetons supprimés
+     * @return Le nombre de jetons supprimés ; un lot plein signifie qu'il peut en rester
+     */
+    @Transactional
+    public int purgeExpiredRefreshTokens(LocalDateTime now, int batchSize) {
+        List<String> expired = refreshTokenRepository.findExpiredTokenHashes(now, PageRequest.ofSize(batchSize));
+        if (expired.isEmpty()) return 0;
+        return refreshTokenRepository.deleteByTokenHashIn(expired);
+    }
+
+    /**
+     * Empreinte SHA-256, en hexadécimal, d'un refresh token : clé de stockage du jeton.
+     * @param token Le jeton signé
+     * @return L'empreinte du jeton
+     */
+    static String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
     }
 
     /**
      * Méthode utilitaire pour construire un token JWT.
+     * Chaque token porte un identifiant unique (jti), clé du cache des utilisateurs authentifiés.
      * @param username Le nom d'utilisateur (email)
+     * @param claims Les réclamations supplémentaires du token
      * @param secretKey La clé secrète utilisée pour signer le token
      * @param expirationTime Le temps d'expiration en millisecondes
      * @return Le token JWT généré
      */
-    private String buildToken(String username, String secretKey, long expirationTime) {
+    private String buildToken(String username, Map<String, Object> claims, String secretKey, long expirationTime) {
         return Jwts.builder()
+                .setClaims(claims)
                 .setSubject(username)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
                 .signWith(getSigningKey(secretKey), SignatureAlgorithm.HS256)
@@ -116,17 +228,29 @@ public class JwtService {
 
     /**
      * Méthode utilitaire pour obtenir une clé utilisable par la bibliothèque JJWT.
-     * Elle convertit la chaîne `secretKey` (en base64) en un objet `Key`.
+     * Elle convertit la chaîne `secretKey` (en base64) en un objet `Key`, une seule fois par secret.
      * @param secretKey La clé secrète en base64
      * @return La clé de signature
      */
     private Key getSigningKey(String secretKey) {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKeys.computeIfAbsent(secretKey, secret -> Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)));
+    }
+
+    /**
+     * Parseur vérifiant la signature des tokens signés avec ce secret, construit une seule fois par secret.
+     * @param secretKey La clé secrète en base64
+     * @return Le parseur des tokens
+     */
+    private JwtParser getParser(String secretKey) {
+        return parsers.computeIfAbsent(secretKey, secret -> Jwts.parserBuilder()
+                .setSigningKey(getSigningKey(secret))
+                .build());
     }
 
     /**
      * Extrait toutes les réclamations (claims) d'un token JWT.
+     * Le token n'est lu qu'une fois : la signature et l'expiration sont vérifiées par cette lecture,
+     * les réclamations renvoyées sont donc celles d'un token valide.
      * @param token Le token JWT
      * @param secretKey La clé secrète utilisée pour signer le token
      * @return Les réclamations extraites du token
@@ -134,9 +258,7 @@ public class JwtService {
      */
     public Claims extractAllClaims(String token, String secretKey) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey(secretKey))
-                    .build()
+            return getParser(secretKey)
                     .parseClaimsJws(token)
                     .getBody();
         } catch (ExpiredJwtException e) {
@@ -180,8 +302,8 @@ public class JwtService {
      */
     public boolean isTokenValid(String token, String secretKey, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token, secretKey);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token, secretKey));
+            final Claims claims = extractAllClaims(token, secretKey);
+            return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
         } catch (InvalidTokenException e) {
             return false;
         }
@@ -218,12 +340,12 @@ public class JwtService {
     }
 
     /**
-     * Récupère un refresh token depuis la base de données par son identifiant.
-     * @param id L'identifiant du refresh token
+     * Récupère un refresh token depuis la base de données par l'empreinte du jeton.
+     * @param token Le refresh token signé
      * @return Un Optional contenant le RefreshToken si trouvé, sinon vide
      */
-    public Optional<RefreshToken> getRefreshTokenByToken(String id) {
-        return refreshTokenRepository.findById(id);
+    public Optional<RefreshToken> getRefreshTokenByToken(String token) {
+        return refreshTokenRepository.findByTokenHash(hashToken(token));
     }
 
     /**
@@ -231,7 +353,7 @@ public class JwtService {
      * @param token Le token à supprimer
      */
     public void deleteRefreshToken(String token) {
-        refreshTokenRepository.deleteById(token);
+        refreshTokenRepository.deleteById(hashToken(token));
     }
 
     /**
@@ -0,0 +1,193 @@
+package com.electricitybusiness.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limiteur des tentatives de connexion par seaux à jetons, par adresse IP et par email.
+ * Une tentative consomme un jeton de chacun des deux seaux ; un seau vide rejette la tentative
+ * avant toute lecture en base ou tout hachage. Les seaux sont mis à jour sans verrou (compare-and-set).
+ * Le nombre de seaux est borné : une fois la borne atteinte, une nouvelle clé prend la place d'un seau plein
+ * ou, à défaut, du moins récemment utilisé des seaux non épuisés, choisi dans un petit échantillon ;
+ * une nouvelle clé n'est jamais rejetée faute de place, pour qu'un afflux d'emails ne bloque pas les autres utilisateurs.
+ * Le balayage périodique retire les seaux redevenus pleins (équivalents à des seaux neufs).
+ */
+@Component
+@Lazy(false)
+public class LoginRateLimiter {
+
+    // Seaux examinés pour faire place à une nouvelle clé, la borne atteinte
+    private static final int EVICTION_SAMPLE = 16;
+
+    @Value("${security.login-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.login-rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    // Délai pour regagner un jeton
+    @Value("${security.login-rate-limit.ip.refill-period:PT3S}")
+    private Duration ipRefillPeriod;
+
+    @Value("${security.login-rate-limit.email.capacity:5}")
+    private int emailCapacity;
+
+    @Value("${security.login-rate-limit.email.refill-period:PT12S}")
+    private Duration emailRefillPeriod;
+
+    @Value("${security.login-rate-limit.max-entries:100000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, AtomicReference<Bucket>> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder ipRejections = new LongAdder();
+    private final LongAdder emailRejections = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Consomme un jeton des seaux de l'adresse IP et de l'email de la tentative de connexion.
+     * @param ip L'adresse IP du client
+     * @param email L'email saisi, null s'il est absent
+     * @return 0 si la tentative est acceptée, sinon le délai en nanosecondes avant qu'un jeton soit disponible
+     */
+    public long acquire(String ip, String email) {
+        return acquire(ip, email, System.nanoTime());
+    }
+
+    long acquire(String ip, String email, long now) {
+        if (!enabled) return 0;
+
+        long ipWait = tryConsume("ip:" + ip, ipCapacity, ipRefillPeriod.toNanos(), now);
+        if (ipWait > 0) {
+            ipRejections.increment();
+            return ipWait;
+        }
+        if (email == null || email.isBlank()) return 0;
+
+        long emailWait = tryConsume("email:" + email.trim().toLowerCase(Locale.ROOT), emailCapacity,
+                emailRefillPeriod.toNanos(), now);
+        if (emailWait > 0) {
+            emailRejections.increment();
+        }
+        return emailWait;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public long getIpRejectionCount() {
+        return ipRejections.sum();
+    }
+
+    public long getEmailRejectionCount() {
+        return emailRejections.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private long tryConsume(String key, int capacity, long refillNanos, long now) {
+        AtomicReference<Bucket> bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxEntries) evictForNewKey(now);
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicReference<>(new Bucket(capacity, now, refillNanos, capacity)));
+        }
+        while (true) {
+            Bucket current = bucket.get();
+            double tokens = current.tokensAt(now);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) * refillNanos);
+            }
+            if (bucket.compareAndSet(current, new Bucket(tokens - 1, Math.max(now, current.updatedAt()), refillNanos, capacity))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Évince un seau pour une nouvelle clé : le premier seau plein de l'échantillon, sinon le moins récemment
+     * utilisé de ses seaux non épuisés. Un seau épuisé n'est jamais évincé, pour ne pas rendre ses jetons
+     * à un client limité ; sans candidat, la nouvelle clé dépasse la borne jusqu'au prochain balayage.
+     */
+    private void evictForNewKey(long now) {
+        Candidate victim = null;
+        int sampled = 0;
+        for (Map.Entry<String, AtomicReference<Bucket>> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue().get();
+            if (bucket.isFullAt(now)) {
+                victim = new Candidate(entry.getKey(), entry.getValue(), bucket);
+                break;
+            }
+            if (bucket.tokensAt(now) >= 1 && (victim == null || bucket.updatedAt() < victim.bucket().updatedAt())) {
+                victim = new Candidate(entry.getKey(), entry.getValue(), bucket);
+            }
+            if (++sampled >= EVICTION_SAMPLE) break;
+        }
+        // Un seau consommé depuis le relevé est conservé
+        if (victim != null && victim.reference().get() == victim.bucket()
+                && buckets.remove(victim.key(), victim.reference())) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Retire les seaux redevenus pleins. Si la borne reste atteinte, retire aussi les plus anciens seaux
+     * non épuisés, jusqu'à 90 % de la borne ; un seau épuisé n'est jamais retiré, pour ne pas rendre
+     * ses jetons à un client limité.
+     */
+    @Scheduled(fixedDelayString = "${security.login-rate-limit.sweep-interval:PT1M}",
+            initialDelayString = "${security.login-rate-limit.sweep-interval:PT1M}")
+    public void sweep() {
+        sweep(System.nanoTime());
+    }
+
+    void sweep(long now) {
+        for (Map.Entry<String, AtomicReference<Bucket>> entry : buckets.entrySet()) {
+            if (entry.getValue().get().isFullAt(now) && buckets.remove(entry.getKey(), entry.getValue())) {
+                evictions.increment();
+            }
+        }
+
+        int excess = buckets.size() - maxEntries * 9 / 10;
+        if (excess <= 0) return;
+        // Dates relevées une fois : les seaux continuent d'évoluer pendant le tri
+        List<Candidate> oldest = buckets.entrySet().stream()
+                .map(entry -> new Candidate(entry.getKey(), entry.getValue(), entry.getValue().get()))
+                .filter(candidate -> candidate.bucket().tokensAt(now) >= 1)
+                .sorted(Comparator.comparingLong(candidate -> candidate.bucket().updatedAt()))
+                .limit(excess)
+                .toList();
+        for (Candidate candidate : oldest) {
+            // Un seau consommé depuis le relevé est conservé
+            if (candidate.reference().get() == candidate.bucket() && buckets.remove(candidate.key(), candidate.reference())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private record Candidate(String key, AtomicReference<Bucket> reference, Bucket bucket) {
+    }
+
+    private record Bucket(double tokens, long updatedAt, long refillNanos, int capacity) {
+        double tokensAt(long now) {
+            return Math.min(capacity, tokens + Math.max(0, now - updatedAt) / (double) refillNanos);
+        }
+
+        boolean isFullAt(long now) {
+            return tokensAt(now) >= capacity;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.electricitybusiness.api.service;
 
+import com.electricitybusiness.api.dto.option.OptionDTO;
 import com.electricitybusiness.api.model.Car;
 import com.electricitybusiness.api.model.Option;
 import com.electricitybusiness.api.model.User;
@@ -30,6 +31,15 @@ public class OptionService {
         return optionRepository.findAll();
     }
 
+    /**
+     * Récupère toutes les options directement sous forme de DTO, sans charger d'entité.
+     * @return Une liste de toutes les options sous forme de DTO
+     */
+    @Transactional(readOnly = true)
+    public List<OptionDTO> getAllOptionDTOs() {
+        return optionRepository.findAllDTOs();
+    }
+
     /**
      * Récupère une option par son ID.
      * @param id L'identifiant de l'option à récupérer
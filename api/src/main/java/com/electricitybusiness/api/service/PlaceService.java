@@ -1,15 +1,19 @@
 package com.electricitybusiness.api.service;
 
+import com.electricitybusiness.api.dto.place.PlaceDTO;
 import com.electricitybusiness.api.model.Place;
 import com.electricitybusiness.api.model.User;
 import com.electricitybusiness.api.repository.PlaceRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Service pour gérer les opérations liées aux Placex.
@@ -20,6 +24,7 @@ import java.util.UUID;
 @Transactional
 public class PlaceService {
     private final PlaceRepository placeRepository;
+    private final EntityManager entityManager;
 
     /**
      * Récupère tous les vehicules.
@@ -29,6 +34,35 @@ public class PlaceService {
         return placeRepository.findAll();
     }
 
+    /**
+     * Récupère tous les lieux directement sous forme de DTO, sans charger d'entité.
+     * @return Une liste de tous les lieux sous forme de DTO
+     */
+    @Transactional(readOnly = true)
+    public List<PlaceDTO> getAllPlaceDTOs() {
+        return placeRepository.findAllDTOs();
+    }
+
+    /**
+     * Récupère une page de lieux triés par identifiant.
+     * @param afterId Le dernier identifiant de la page précédente (0 pour la première page)
+     * @param limit Le nombre maximal de lieux
+     * @return Une page de lieux
+     */
+    @Transactional(readOnly = true)
+    public List<Place> getPlacesPage(Long afterId, int limit) {
+        return placeRepository.findPageAfter(afterId, PageRequest.ofSize(limit));
+    }
+
+    /**
+     * Parcourt tous les lieux sans les charger en une fois.
+     * @param action L'action appliquée à chaque lieu, dans la transaction de lecture
+     */
+    @Transactional(readOnly = true)
+    public void forEachPlace(Consumer<Place> action) {
+        EntityStreams.forEachDetached(placeRepository.streamAll(), entityManager, action);
+    }
+
     /**
      * Récupère un Place par son ID.
      * @param id L'identifiant du Place à récupérer
@@ -0,0 +1,181 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.model.Repairer;
+import com.electricitybusiness.api.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache des utilisateurs authentifiés par le filtre JWT, par sujet et identifiant du jeton d'accès.
+ * Une requête authentifiée ne charge ainsi l'utilisateur qu'au premier usage de son jeton.
+ * Les changements de rôle, de bannissement ou de mot de passe et les suppressions évincent
+ * les entrées de l'utilisateur après le commit ; entre instances, la fraîcheur est bornée par la durée de vie.
+ * Ces mêmes invalidations font avancer la version des jetons sans état de l'utilisateur (voir {@link JwtService}).
+ */
+@Component
+public class PrincipalCache {
+
+    private static final String USER = "user:";
+    private static final String REPAIRER = "repairer:";
+
+    @Value("${security.principal-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.principal-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${security.principal-cache.ttl:PT60S}")
+    private Duration ttl;
+
+    // Ordre d'accès pour l'éviction LRU ; protégé par le verrou de l'instance
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Incrémenté à chaque invalidation : un utilisateur chargé pendant une invalidation n'est pas conservé
+    private long invalidations;
+
+    // Version des jetons sans état par utilisateur ("user:1", "repairer:2") : date de la dernière invalidation,
+    // toujours croissante, afin qu'une invalidation après un redémarrage dépasse les versions déjà émises
+    private final ConcurrentHashMap<String, Long> tokenVersions = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Utilisateur authentifié par un jeton, chargé au premier usage du jeton.
+     * @param subject Le sujet du jeton (email)
+     * @param tokenId L'identifiant du jeton, null pour un jeton émis sans identifiant
+     * @param loader Le chargement de l'utilisateur en cas d'absence
+     * @return L'utilisateur en cache ou chargé
+     */
+    public UserDetails get(String subject, String tokenId, Supplier<UserDetails> loader) {
+        if (!enabled) return loader.get();
+
+        Key key = new Key(subject, tokenId);
+        long now = System.nanoTime();
+
+        long generation;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt() < ttl.toNanos()) {
+                hits.increment();
+                return entry.userDetails();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses.increment();
+            generation = invalidations;
+        }
+
+        UserDetails loaded = loader.get();
+
+        synchronized (this) {
+            if (loaded != null && generation == invalidations) {
+                entries.put(key, new Entry(loaded, now));
+                evictEldest();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Évince, après le commit, les entrées d'un utilisateur (rôle, bannissement, mot de passe, suppression).
+     * @param idUser L'identifiant de l'utilisateur
+     */
+    public void evictUser(Long idUser) {
+        if (idUser == null) return;
+        afterCommit(() -> {
+            bumpTokenVersion(USER + idUser);
+            evictWhere(details -> details instanceof User user && idUser.equals(user.getIdUser()));
+        });
+    }
+
+    /**
+     * Évince, après le commit, les entrées d'un réparateur.
+     * @param idRepairer L'identifiant du réparateur
+     */
+    public void evictRepairer(Long idRepairer) {
+        if (idRepairer == null) return;
+        afterCommit(() -> {
+            bumpTokenVersion(REPAIRER + idRepairer);
+            evictWhere(details -> details instanceof Repairer repairer && idRepairer.equals(repairer.getIdRepairer()));
+        });
+    }
+
+    /**
+     * Clé de version des jetons d'un utilisateur ou d'un réparateur.
+     * @param userDetails L'utilisateur authentifié
+     * @return La clé ("user:1", "repairer:2"), null pour un autre type d'utilisateur
+     */
+    public static String versionKey(UserDetails userDetails) {
+        if (userDetails instanceof User user && user.getIdUser() != null) return USER + user.getIdUser();
+        if (userDetails instanceof Repairer repairer && repairer.getIdRepairer() != null) return REPAIRER + repairer.getIdRepairer();
+        return null;
+    }
+
+    /**
+     * Version courante des jetons sans état d'un utilisateur ; 0 s'il n'a jamais été invalidé sur cette instance.
+     * @param versionKey La clé de version de l'utilisateur
+     * @return La version courante
+     */
+    public long tokenVersion(String versionKey) {
+        return tokenVersions.getOrDefault(versionKey, 0L);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private void bumpTokenVersion(String versionKey) {
+        tokenVersions.merge(versionKey, System.currentTimeMillis(), (previous, now) -> Math.max(previous + 1, now));
+    }
+
+    private synchronized void evictWhere(Predicate<UserDetails> affected) {
+        invalidations++;
+        entries.values().removeIf(entry -> affected.test(entry.userDetails()));
+    }
+
+    private void evictEldest() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Key(String subject, String tokenId) {}
+
+    private record Entry(UserDetails userDetails, long loadedAt) {}
+}
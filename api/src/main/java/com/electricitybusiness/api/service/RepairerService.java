@@ -18,6 +18,7 @@ import java.util.Optional;
 @Transactional
 public class RepairerService {
     private final RepairerRepository repairerRepository;
+    private final PrincipalCache principalCache;
 
     /**
      * Récupère tous les Repairers.
@@ -54,6 +55,7 @@ public class RepairerService {
      */
     public Repairer updateRepairer(Long id, Repairer repairer) {
         repairer.setIdRepairer(id);
+        principalCache.evictRepairer(id);
         return repairerRepository.save(repairer);
     }
 
@@ -63,6 +65,7 @@ public class RepairerService {
      */
     public void deleteRepairerById(Long id) {
         repairerRepository.deleteById(id);
+        principalCache.evictRepairer(id);
     }
 
     /**
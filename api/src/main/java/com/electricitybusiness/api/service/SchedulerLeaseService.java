@@ -0,0 +1,79 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.repository.SchedulerLeaseRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Service d'élection d'une instance leader pour les tâches planifiées, par bail stocké en base.
+ * Une seule instance détient le bail à un instant donné ; si elle s'arrête sans le renouveler,
+ * une autre instance le reprend après expiration.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class SchedulerLeaseService {
+
+    public static final String BOOKING_TRANSITIONS_LEASE = "booking-transitions";
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLeaseService.class);
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Getter
+    @Value("${booking.scheduler.node-id:#{T(java.util.UUID).randomUUID().toString()}}")
+    private String nodeId;
+
+    @Value("${booking.scheduler.lease-ttl:PT1M}")
+    private Duration leaseTtl;
+
+    /**
+     * Acquiert ou prolonge le bail des transitions de réservation pour cette instance.
+     * @param now La date courante
+     * @return true si cette instance est leader jusqu'à now + durée du bail
+     */
+    public boolean acquireLeadership(LocalDateTime now) {
+        return tryAcquire(BOOKING_TRANSITIONS_LEASE, nodeId, now, leaseTtl);
+    }
+
+    /**
+     * Libère le bail des transitions de réservation si cette instance le détient.
+     */
+    public void releaseLeadership() {
+        if (schedulerLeaseRepository.release(BOOKING_TRANSITIONS_LEASE, nodeId) > 0) {
+            logger.info("Bail {} libéré par l'instance {}", BOOKING_TRANSITIONS_LEASE, nodeId);
+        }
+    }
+
+    /**
+     * Acquiert, prolonge ou reprend un bail.
+     * @param leaseName Le nom du bail
+     * @param owner L'identifiant de l'instance
+     * @param now La date courante
+     * @param ttl La durée de validité du bail
+     * @return true si l'instance détient le bail après l'appel, sinon false
+     */
+    public boolean tryAcquire(String leaseName, String owner, LocalDateTime now, Duration ttl) {
+        LocalDateTime expiresAt = now.plus(ttl);
+        if (schedulerLeaseRepository.renewOrTakeOver(leaseName, owner, now, expiresAt) > 0) {
+            return true;
+        }
+        if (schedulerLeaseRepository.existsById(leaseName)) {
+            return false;
+        }
+        // Premier démarrage : une création concurrente par une autre instance échoue sur la clé primaire
+        boolean created = schedulerLeaseRepository.insertLease(leaseName, owner, expiresAt) > 0;
+        if (created) {
+            logger.info("Bail {} créé par l'instance {}", leaseName, owner);
+        }
+        return created;
+    }
+}
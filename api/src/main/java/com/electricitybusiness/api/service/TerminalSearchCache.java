@@ -0,0 +1,281 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.model.Terminal;
+import com.electricitybusiness.api.repository.TerminalRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Cache des bornes autour des points de recherche, par cellule geohash et tranche de rayon.
+ * Une entrée contient toutes les bornes (quel que soit leur statut) d'un cercle centré sur la cellule
+ * et assez grand pour couvrir toute recherche de la tranche depuis n'importe quel point de la cellule :
+ * le filtrage exact (distance, statut, occupation, période) est fait à chaque recherche.
+ * Les périodes n'entrent donc pas dans la clé et les réservations n'invalident rien ;
+ * une modification de borne n'évince que les entrées qui la contiennent ou qui couvrent sa position.
+ * Entre instances, la fraîcheur est bornée par la durée de vie des entrées.
+ */
+@Component
+@RequiredArgsConstructor
+public class TerminalSearchCache {
+
+    private static final String GEOHASH_ALPHABET = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    // Marge absorbant les écarts d'arrondi entre le calcul de la distance et l'index spatial
+    private static final double DISTANCE_SLACK_KM = 0.001;
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final TerminalSpatialIndex terminalSpatialIndex;
+    private final TerminalRepository terminalRepository;
+
+    @Value("${terminal.search-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${terminal.search-cache.geohash-precision:6}")
+    private int precision;
+
+    @Value("${terminal.search-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${terminal.search-cache.ttl:PT30S}")
+    private Duration ttl;
+
+    @Value("${terminal.search-cache.max-radius-km:50}")
+    private double maxRadiusKm;
+
+    // Ordre d'accès pour l'éviction LRU ; protégé par le verrou de l'instance
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Incrémenté à chaque invalidation : une entrée chargée pendant une invalidation n'est pas conservée
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder expiredEvictions = new LongAdder();
+    private final LongAdder invalidatedEvictions = new LongAdder();
+
+    /**
+     * Indique si une recherche de ce rayon peut être servie par le cache.
+     * @param radius Le rayon de recherche en kilomètres
+     * @return true si le cache est actif, l'index spatial chargé et le rayon dans la limite configurée
+     */
+    public boolean covers(double radius) {
+        return enabled && radius > 0 && radius <= maxRadiusKm && terminalSpatialIndex.isReady();
+    }
+
+    /**
+     * Bornes, de tout statut, contenant au moins toutes celles situées dans le rayon autour du point.
+     * @param latitude La latitude du point de recherche
+     * @param longitude La longitude du point de recherche
+     * @param radius Le rayon de recherche en kilomètres
+     * @return Un sur-ensemble des bornes du rayon, à filtrer par l'appelant
+     */
+    public List<Terminal> terminalsAround(BigDecimal latitude, BigDecimal longitude, double radius) {
+        Cell cell = cell(latitude.doubleValue(), longitude.doubleValue(), precision);
+        Key key = new Key(cell.geohash(), radiusBucket(radius));
+        long now = System.nanoTime();
+
+        long generation;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt() < ttl.toNanos()) {
+                hits.increment();
+                return entry.terminals();
+            }
+            if (entry != null) {
+                entries.remove(key);
+                expiredEvictions.increment();
+            }
+            misses.increment();
+            generation = invalidations;
+        }
+
+        double coverRadius = key.radiusBucket() + cell.halfDiagonalKm() + DISTANCE_SLACK_KM;
+        Entry loaded = load(cell, coverRadius, now);
+
+        synchronized (this) {
+            if (generation == invalidations) {
+                entries.put(key, loaded);
+                evictEldest();
+            }
+        }
+        return loaded.terminals();
+    }
+
+    /**
+     * Évince, après le commit, les entrées contenant la borne ou couvrant sa nouvelle position.
+     * @param terminal La borne créée ou modifiée
+     */
+    public void evict(Terminal terminal) {
+        if (terminal == null || terminal.getPublicId() == null) return;
+
+        UUID publicId = terminal.getPublicId();
+        double[] position = terminal.getLatitude() != null && terminal.getLongitude() != null
+                ? new double[]{terminal.getLatitude().doubleValue(), terminal.getLongitude().doubleValue()}
+                : null;
+        afterCommit(() -> evictWhere(entry -> entry.publicIds().contains(publicId)
+                || position != null && entry.covers(position[0], position[1])));
+    }
+
+    /**
+     * Évince, après le commit, les entrées contenant l'une des bornes (suppression ou changement de statut).
+     * @param publicIds Les identifiants publics des bornes modifiées
+     */
+    public void evictAll(Collection<UUID> publicIds) {
+        if (publicIds == null || publicIds.isEmpty()) return;
+
+        Set<UUID> changed = Set.copyOf(publicIds);
+        afterCommit(() -> evictWhere(entry -> !Collections.disjoint(entry.publicIds(), changed)));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getSizeEvictionCount() {
+        return sizeEvictions.sum();
+    }
+
+    public long getExpiredEvictionCount() {
+        return expiredEvictions.sum();
+    }
+
+    public long getInvalidatedEvictionCount() {
+        return invalidatedEvictions.sum();
+    }
+
+    private Entry load(Cell cell, double coverRadius, long now) {
+        List<UUID> publicIds = terminalSpatialIndex.withinRadius(
+                        BigDecimal.valueOf(cell.latitude()), BigDecimal.valueOf(cell.longitude()), coverRadius).stream()
+                .map(TerminalSpatialIndex.Hit::publicId)
+                .toList();
+
+        List<Terminal> terminals = new ArrayList<>();
+        for (int from = 0; from < publicIds.size(); from += LOAD_CHUNK_SIZE) {
+            terminals.addAll(terminalRepository.findByPublicIdIn(
+                    publicIds.subList(from, Math.min(from + LOAD_CHUNK_SIZE, publicIds.size()))));
+        }
+        return new Entry(cell.latitude(), cell.longitude(), coverRadius,
+                List.copyOf(terminals), Set.copyOf(publicIds), now);
+    }
+
+    private synchronized void evictWhere(Predicate<Entry> affected) {
+        invalidations++;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (affected.test(iterator.next())) {
+                iterator.remove();
+                invalidatedEvictions.increment();
+            }
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Tranche de rayon : puissance de deux supérieure ou égale, au moins 1 km.
+     */
+    static double radiusBucket(double radius) {
+        return Math.max(1, Math.pow(2, Math.ceil(Math.log(radius) / Math.log(2))));
+    }
+
+    /**
+     * Cellule geohash contenant un point, avec son centre et sa demi-diagonale.
+     */
+    static Cell cell(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder geohash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int character = 0;
+        while (geohash.length() < precision) {
+            if (evenBit) {
+                double middle = (minLon + maxLon) / 2;
+                if (longitude >= middle) {
+                    character = character * 2 + 1;
+                    minLon = middle;
+                } else {
+                    character = character * 2;
+                    maxLon = middle;
+                }
+            } else {
+                double middle = (minLat + maxLat) / 2;
+                if (latitude >= middle) {
+                    character = character * 2 + 1;
+                    minLat = middle;
+                } else {
+                    character = character * 2;
+                    maxLat = middle;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                geohash.append(GEOHASH_ALPHABET.charAt(character));
+                bit = 0;
+                character = 0;
+            }
+        }
+
+        double centerLat = (minLat + maxLat) / 2;
+        double centerLon = (minLon + maxLon) / 2;
+        // Le coin le plus éloigné du centre est du côté de l'équateur
+        double halfDiagonal = Math.max(distanceKm(centerLat, centerLon, minLat, minLon),
+                distanceKm(centerLat, centerLon, maxLat, minLon));
+        return new Cell(geohash.toString(), centerLat, centerLon, halfDiagonal);
+    }
+
+    private static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return TerminalSpatialIndex.distanceKm(BigDecimal.valueOf(latitude1), BigDecimal.valueOf(longitude1),
+                BigDecimal.valueOf(latitude2), BigDecimal.valueOf(longitude2));
+    }
+
+    record Cell(String geohash, double latitude, double longitude, double halfDiagonalKm) {}
+
+    private record Key(String geohash, double radiusBucket) {}
+
+    private record Entry(double latitude, double longitude, double radiusKm,
+                         List<Terminal> terminals, Set<UUID> publicIds, long loadedAt) {
+
+        boolean covers(double pointLatitude, double pointLongitude) {
+            return distanceKm(latitude, longitude, pointLatitude, pointLongitude) <= radiusKm;
+        }
+    }
+}
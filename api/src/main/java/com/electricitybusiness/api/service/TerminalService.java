@@ -1,19 +1,21 @@
 package com.electricitybusiness.api.service;
 
+import com.electricitybusiness.api.dto.terminal.TerminalDTO;
 import com.electricitybusiness.api.exception.ResourceNotFoundException;
 import com.electricitybusiness.api.model.*;
 import com.electricitybusiness.api.repository.BookingRepository;
+import com.electricitybusiness.api.repository.GeoBoundingBox;
 import com.electricitybusiness.api.repository.TerminalRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Service pour gérer les opérations liées aux Terminals.
@@ -24,8 +26,20 @@ import java.util.UUID;
 @Transactional
 public class TerminalService {
 
+    // Taille maximale de la liste IN lors de la vérification des candidats de l'index spatial
+    private static final int CANDIDATE_CHUNK_SIZE = 1000;
+
+    // Rayon du premier anneau de la recherche des bornes les plus proches, doublé à chaque anneau
+    private static final double NEAREST_INITIAL_RADIUS_KM = 2;
+
+    private static final double HALF_EARTH_CIRCUMFERENCE_KM = Math.PI * GeoBoundingBox.EARTH_RADIUS_KM;
+
     private final TerminalRepository terminalRepository;
     private final BookingRepository bookingRepository;
+    private final TerminalSpatialIndex terminalSpatialIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final TerminalSearchCache terminalSearchCache;
+    private final EntityManager entityManager;
 
     /**
      * Récupère tous les Terminals.
@@ -36,6 +50,35 @@ public class TerminalService {
         return terminalRepository.findAll();
     }
 
+    /**
+     * Récupère tous les Terminals directement sous forme de DTO, sans charger d'entité.
+     * @return Une liste de tous les Terminals sous forme de DTO
+     */
+    @Transactional(readOnly = true)
+    public List<TerminalDTO> getAllTerminalDTOs() {
+        return terminalRepository.findAllDTOs();
+    }
+
+    /**
+     * Récupère une page de Terminals triées par identifiant.
+     * @param afterId Le dernier identifiant de la page précédente (0 pour la première page)
+     * @param limit Le nombre maximal de Terminals
+     * @return Une page de Terminals
+     */
+    @Transactional(readOnly = true)
+    public List<Terminal> getTerminalsPage(Long afterId, int limit) {
+        return terminalRepository.findPageAfter(afterId, PageRequest.ofSize(limit));
+    }
+
+    /**
+     * Parcourt toutes les Terminals sans les charger en une fois.
+     * @param action L'action appliquée à chaque Terminal, dans la transaction de lecture
+     */
+    @Transactional(readOnly = true)
+    public void forEachTerminal(Consumer<Terminal> action) {
+        EntityStreams.forEachDetached(terminalRepository.streamAll(), entityManager, action);
+    }
+
     /**
      * Récupère un vehicule par son ID.
      * @param id L'identifiant du vehicule à récupérer
@@ -51,7 +94,10 @@ public class TerminalService {
      * @return La Terminal enregistrée
      */
     public Terminal saveTerminal(Terminal terminal) {
-        return terminalRepository.save(terminal);
+        Terminal savedTerminal = terminalRepository.save(terminal);
+        terminalSpatialIndex.index(savedTerminal);
+        terminalSearchCache.evict(savedTerminal);
+        return savedTerminal;
     }
 
     /**
@@ -62,7 +108,10 @@ public class TerminalService {
      */
     public Terminal updateTerminal(Long id, Terminal Terminal) {
         Terminal.setIdTerminal(id);
-        return terminalRepository.save(Terminal);
+        Terminal updatedTerminal = terminalRepository.save(Terminal);
+        terminalSpatialIndex.index(updatedTerminal);
+        terminalSearchCache.evict(updatedTerminal);
+        return updatedTerminal;
     }
 
     /**
@@ -70,6 +119,10 @@ public class TerminalService {
      * @param id L'identifiant de la Terminal à supprimer
      */
     public void deleteTerminalById(Long id) {
+        terminalRepository.findById(id).ifPresent(terminal -> {
+            terminalSpatialIndex.remove(terminal.getPublicId());
+            terminalSearchCache.evictAll(List.of(terminal.getPublicId()));
+        });
         terminalRepository.deleteById(id);
     }
 
@@ -124,7 +177,20 @@ public class TerminalService {
         return terminalRepository.findByPlaceAndStatusTerminal(place, etatTerminal);
     }
 
-    // Méthode 10
+    /**
+     * Recherche les Terminals libres dans un rayon donné, disponibles sur une période.
+     * Les recherches couvertes par le cache sont filtrées en mémoire sur les bornes de leur cellule.
+     * Sinon, lorsque l'index spatial est chargé, seuls les candidats du rayon sont vérifiés en base.
+     * Dans les deux cas, la disponibilité sur la période est vérifiée par l'index des créneaux s'il est chargé ;
+     * sinon la recherche est faite entièrement en base.
+     * @param longitude La longitude du centre
+     * @param latitude La latitude du centre
+     * @param radius Le rayon de recherche en kilomètres
+     * @param occupied L'état d'occupation recherché
+     * @param startingDate La date de début de la période (optionnelle)
+     * @param endingDate La date de fin de la période (optionnelle)
+     * @return Les Terminals correspondant aux critères
+     */
     public List<Terminal> searchTerminals(
             BigDecimal longitude,
             BigDecimal latitude,
@@ -132,8 +198,125 @@ public class TerminalService {
             boolean occupied,
             LocalDateTime startingDate,
             LocalDateTime endingDate) {
-        return terminalRepository.searchTerminals(
-                longitude, latitude, radius, occupied, startingDate, endingDate);
+        boolean checkPeriod = startingDate != null && endingDate != null;
+        if (terminalSearchCache.covers(radius) && (!checkPeriod || bookingIntervalIndex.isWarmedUp())) {
+            return terminalSearchCache.terminalsAround(latitude, longitude, radius).stream()
+                    .filter(terminal -> terminal.getStatusTerminal() == TerminalStatus.LIBRE
+                            && Objects.equals(terminal.getOccupied(), occupied))
+                    .filter(terminal -> TerminalSpatialIndex.distanceKm(
+                            latitude, longitude, terminal.getLatitude(), terminal.getLongitude()) <= radius)
+                    .filter(terminal -> !checkPeriod
+                            || bookingIntervalIndex.isFree(terminal.getPublicId(), startingDate, endingDate))
+                    .toList();
+        }
+        if (!terminalSpatialIndex.isReady()) {
+            return terminalRepository.searchTerminals(
+                    longitude, latitude, radius, occupied, startingDate, endingDate);
+        }
+
+        List<UUID> candidates = terminalSpatialIndex.withinRadius(latitude, longitude, radius).stream()
+                .map(TerminalSpatialIndex.Hit::publicId)
+                .toList();
+        return findAvailableCandidates(candidates, occupied, startingDate, endingDate);
+    }
+
+    /**
+     * Vérifie les candidats de l'index spatial par paquets.
+     * Comme pour les recherches servies par le cache, la période est vérifiée par l'index des créneaux
+     * dès qu'il est chargé, sans lire les réservations : une réservation faite depuis une autre instance
+     * et pas encore resynchronisée sera refusée à l'enregistrement, vérifié en base.
+     * La requête ne vérifie la période que tant que l'index n'est pas chargé.
+     */
+    private List<Terminal> findAvailableCandidates(List<UUID> candidates, Boolean occupied,
+                                                   LocalDateTime startingDate, LocalDateTime endingDate) {
+        LocalDateTime periodStart = startingDate;
+        LocalDateTime periodEnd = endingDate;
+        if (startingDate != null && endingDate != null && bookingIntervalIndex.isWarmedUp()) {
+            candidates = candidates.stream()
+                    .filter(publicId -> bookingIntervalIndex.isFree(publicId, startingDate, endingDate))
+                    .toList();
+            periodStart = null;
+            periodEnd = null;
+        }
+
+        List<Terminal> terminals = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += CANDIDATE_CHUNK_SIZE) {
+            terminals.addAll(terminalRepository.findAvailableByPublicIdIn(
+                    candidates.subList(from, Math.min(from + CANDIDATE_CHUNK_SIZE, candidates.size())),
+                    occupied, periodStart, periodEnd));
+        }
+        return terminals;
+    }
+
+    /**
+     * Borne disponible et sa distance au point de recherche.
+     * @param terminal La borne
+     * @param distanceKm La distance orthodromique en kilomètres
+     */
+    public record NearbyTerminal(Terminal terminal, double distanceKm) {}
+
+    /**
+     * Recherche les k Terminals libres les plus proches, disponibles sur une période.
+     * La recherche progresse par anneaux de rayon croissant et s'arrête dès que k bornes disponibles
+     * sont confirmées : toute borne hors du rayon courant est plus éloignée que celles déjà trouvées.
+     * Seules les bornes du nouvel anneau sont vérifiées en base à chaque étape.
+     * @param longitude La longitude du point de recherche
+     * @param latitude La latitude du point de recherche
+     * @param k Le nombre de bornes souhaitées
+     * @param occupied L'état d'occupation recherché (optionnel)
+     * @param startingDate La date de début de la période (optionnelle)
+     * @param endingDate La date de fin de la période (optionnelle)
+     * @return Au plus k bornes, triées par distance croissante
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyTerminal> findNearestAvailable(
+            BigDecimal longitude,
+            BigDecimal latitude,
+            int k,
+            Boolean occupied,
+            LocalDateTime startingDate,
+            LocalDateTime endingDate) {
+        List<NearbyTerminal> found = new ArrayList<>();
+        Set<UUID> checked = new HashSet<>();
+        double radius = NEAREST_INITIAL_RADIUS_KM;
+        while (true) {
+            double ringRadius = Math.min(radius, HALF_EARTH_CIRCUMFERENCE_KM);
+            found.addAll(findAvailableWithin(longitude, latitude, ringRadius, occupied, startingDate, endingDate, checked));
+            if (found.size() >= k || ringRadius >= HALF_EARTH_CIRCUMFERENCE_KM) break;
+            radius *= 2;
+        }
+
+        found.sort(Comparator.comparingDouble(NearbyTerminal::distanceKm));
+        return found.size() > k ? new ArrayList<>(found.subList(0, k)) : found;
+    }
+
+    /**
+     * Bornes disponibles dans un rayon, en excluant celles déjà vérifiées lors des anneaux précédents.
+     */
+    private List<NearbyTerminal> findAvailableWithin(BigDecimal longitude, BigDecimal latitude, double radius,
+                                                     Boolean occupied, LocalDateTime startingDate, LocalDateTime endingDate,
+                                                     Set<UUID> checked) {
+        List<NearbyTerminal> available = new ArrayList<>();
+        if (!terminalSpatialIndex.isReady()) {
+            for (Terminal terminal : terminalRepository.searchTerminals(
+                    longitude, latitude, radius, occupied, startingDate, endingDate)) {
+                if (checked.add(terminal.getPublicId())) {
+                    available.add(new NearbyTerminal(terminal, TerminalSpatialIndex.distanceKm(
+                            latitude, longitude, terminal.getLatitude(), terminal.getLongitude())));
+                }
+            }
+            return available;
+        }
+
+        Map<UUID, Double> distances = new HashMap<>();
+        for (TerminalSpatialIndex.Hit hit : terminalSpatialIndex.withinRadius(latitude, longitude, radius)) {
+            if (checked.add(hit.publicId())) distances.put(hit.publicId(), hit.distanceKm());
+        }
+        for (Terminal terminal : findAvailableCandidates(
+                new ArrayList<>(distances.keySet()), occupied, startingDate, endingDate)) {
+            available.add(new NearbyTerminal(terminal, distances.get(terminal.getPublicId())));
+        }
+        return available;
     }
 
     @Transactional(readOnly = true)
@@ -145,6 +328,8 @@ public class TerminalService {
      */
     public void deleteTerminalByPublicId(UUID publicId) {
         terminalRepository.deleteTerminalByPublicId(publicId);
+        terminalSpatialIndex.remove(publicId);
+        terminalSearchCache.evictAll(List.of(publicId));
     }
 
     /**
@@ -174,7 +359,10 @@ public class TerminalService {
         if (terminal.getUser() == null) {
             terminal.setUser(existingUser);
         }
-        return terminalRepository.save(terminal);
+        Terminal updatedTerminal = terminalRepository.save(terminal);
+        terminalSpatialIndex.index(updatedTerminal);
+        terminalSearchCache.evict(updatedTerminal);
+        return updatedTerminal;
     }
 
     /**
@@ -190,17 +378,16 @@ public class TerminalService {
     }
 
     /**
-     * Met à jour le statut et l'occupation d'une Terminal par son identifiant public.
+     * Met à jour le statut et l'occupation d'une Terminal par son identifiant public,
+     * en une seule requête UPDATE sans charger l'entité ni ses associations.
      * @param publicId L'identifiant public de la Terminal à mettre à jour
      * @param status Le nouveau statut de la Terminal
      * @param occupied Le nouvel état d'occupation de la Terminal
      */
     public void setOccupiedByPublicId(UUID publicId, TerminalStatus status, Boolean occupied) {
-        terminalRepository.findByPublicId(publicId).ifPresent(terminal -> {
-            terminal.setStatusTerminal(status);
-            terminal.setOccupied(occupied);
-            terminalRepository.save(terminal);
-        });
+        if (terminalRepository.updateStatusByPublicIdIn(List.of(publicId), status, occupied) > 0) {
+            terminalSearchCache.evictAll(List.of(publicId));
+        }
     }
 
     /**
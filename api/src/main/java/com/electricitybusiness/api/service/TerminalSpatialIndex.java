@@ -0,0 +1,436 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.dto.terminal.TerminalPointDTO;
+import com.electricitybusiness.api.model.Terminal;
+import com.electricitybusiness.api.repository.GeoBoundingBox;
+import com.electricitybusiness.api.repository.TerminalRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Index spatial en mémoire des bornes (kd-tree sur tableaux primitifs).
+ * Chaque borne est un point de la sphère unité en coordonnées cartésiennes : la distance euclidienne (corde)
+ * croît avec la distance orthodromique, ce qui évite les cas particuliers des pôles et de l'antiméridien.
+ * L'index ne contient que la géométrie : statut, occupation et réservations changent en continu,
+ * y compris depuis une autre instance, et restent vérifiés en base sur les seuls candidats.
+ * Les créations, modifications et suppressions locales sont appliquées après commit dans une table
+ * de surcharge, fusionnée dans l'arbre lorsqu'elle grossit ; un rechargement complet périodique
+ * rattrape les modifications faites par les autres instances.
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+public class TerminalSpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TerminalSpatialIndex.class);
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    // Taille minimale de la surcharge avant fusion dans l'arbre
+    private static final int MIN_OVERLAY_SIZE = 1024;
+
+    private final TerminalRepository terminalRepository;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${terminal.spatial-index.enabled:true}")
+    private boolean enabled;
+
+    private volatile KdTree tree;
+
+    private final Map<UUID, Point> overlay = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicBoolean merging = new AtomicBoolean();
+
+    // Sérialise fusion et rechargement ; un verrou plutôt qu'un moniteur, le rechargement lisant la base
+    // ne doit pas épingler un thread virtuel sur son thread porteur
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    /**
+     * Résultat de recherche : une borne et sa distance au centre.
+     * @param publicId L'identifiant public de la borne
+     * @param distanceKm La distance orthodromique en kilomètres
+     */
+    public record Hit(UUID publicId, double distanceKm) {}
+
+    /**
+     * Charge l'index en arrière-plan au démarrage ; les recherches passent par la base tant qu'il n'est pas prêt.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) return;
+        taskScheduler.schedule(this::reload, Instant.now());
+    }
+
+    /**
+     * Recharge entièrement l'index depuis la base pour rattraper les modifications des autres instances.
+     */
+    @Scheduled(fixedDelayString = "${terminal.spatial-index.refresh-interval:PT10M}",
+            initialDelayString = "${terminal.spatial-index.refresh-interval:PT10M}")
+    public void refresh() {
+        if (enabled && tree != null) reload();
+    }
+
+    /**
+     * Indique si l'index est chargé et peut répondre aux recherches.
+     * @return true si l'index est prêt
+     */
+    public boolean isReady() {
+        return tree != null;
+    }
+
+    /**
+     * Recherche les bornes situées dans un rayon donné.
+     * @param latitude La latitude du centre
+     * @param longitude La longitude du centre
+     * @param radiusKm Le rayon en kilomètres
+     * @return Les bornes du rayon avec leur distance, sans ordre particulier
+     */
+    public List<Hit> withinRadius(BigDecimal latitude, BigDecimal longitude, double radiusKm) {
+        KdTree current = tree;
+        if (current == null) throw new IllegalStateException("Index spatial des bornes non chargé");
+
+        double[] center = toUnitVector(latitude.doubleValue(), longitude.doubleValue());
+        double maxChord = chord(radiusKm);
+        double maxChord2 = maxChord * maxChord;
+
+        List<Hit> hits = new ArrayList<>();
+        current.search(center, maxChord, maxChord2, overlay, hits);
+        for (Point point : overlay.values()) {
+            if (point.removed()) continue;
+            double chord2 = distance2(center, point.x(), point.y(), point.z());
+            if (chord2 <= maxChord2) hits.add(new Hit(point.publicId(), toKm(chord2)));
+        }
+        return hits;
+    }
+
+    /**
+     * Met à jour la position d'une borne enregistrée, après le commit de la transaction en cours.
+     * @param terminal La borne enregistrée
+     */
+    public void index(Terminal terminal) {
+        if (terminal == null || terminal.getPublicId() == null
+                || terminal.getLatitude() == null || terminal.getLongitude() == null) return;
+
+        UUID publicId = terminal.getPublicId();
+        double[] v = toUnitVector(terminal.getLatitude().doubleValue(), terminal.getLongitude().doubleValue());
+        afterCommit(() -> put(new Point(publicId, v[0], v[1], v[2], false, sequence.incrementAndGet())));
+    }
+
+    /**
+     * Retire une borne de l'index, après le commit de la transaction en cours.
+     * @param publicId L'identifiant public de la borne supprimée
+     */
+    public void remove(UUID publicId) {
+        if (publicId == null) return;
+        afterCommit(() -> put(new Point(publicId, 0, 0, 0, true, sequence.incrementAndGet())));
+    }
+
+    private void put(Point point) {
+        // Conservée même pendant le premier chargement : le rechargement ne purge que les entrées antérieures à sa lecture
+        overlay.put(point.publicId(), point);
+        KdTree current = tree;
+        if (current != null && overlay.size() > Math.max(MIN_OVERLAY_SIZE, current.size / 16)
+                && merging.compareAndSet(false, true)) {
+            // La reconstruction ne doit pas retarder la requête qui a modifié la borne
+            try {
+                taskScheduler.schedule(() -> {
+                    try {
+                        merge();
+                    } finally {
+                        merging.set(false);
+                    }
+                }, Instant.now());
+            } catch (TaskRejectedException e) {
+                // Arrêt en cours : la surcharge reste consultée, la fusion sera retentée à la prochaine écriture
+                merging.set(false);
+            }
+        }
+    }
+
+    /**
+     * Reconstruit l'arbre avec les entrées de la surcharge ; les entrées arrivées pendant la fusion sont conservées.
+     */
+    private void merge() {
+        rebuildLock.lock();
+        try {
+            mergeOverlay();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void mergeOverlay() {
+        KdTree current = tree;
+        if (current == null || overlay.size() <= Math.max(MIN_OVERLAY_SIZE, current.size / 16)) return;
+
+        List<Point> merged = new ArrayList<>(overlay.values());
+        Builder builder = new Builder(current.size + merged.size());
+        for (int i = 0; i < current.size; i++) {
+            UUID publicId = new UUID(current.msb[i], current.lsb[i]);
+            if (!overlay.containsKey(publicId)) {
+                builder.add(current.msb[i], current.lsb[i], current.xs[i], current.ys[i], current.zs[i]);
+            }
+        }
+        for (Point point : merged) {
+            if (!point.removed()) {
+                builder.add(point.publicId().getMostSignificantBits(), point.publicId().getLeastSignificantBits(),
+                        point.x(), point.y(), point.z());
+            }
+        }
+        tree = builder.build();
+        merged.forEach(point -> overlay.remove(point.publicId(), point));
+    }
+
+    void reload() {
+        rebuildLock.lock();
+        try {
+            reloadTree();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void reloadTree() {
+        long start = System.nanoTime();
+        long startSequence = sequence.get();
+        try {
+            Builder builder = new Builder(LOAD_PAGE_SIZE);
+            long lastId = 0;
+            List<TerminalPointDTO> page;
+            do {
+                page = terminalRepository.findPointsAfter(lastId, PageRequest.ofSize(LOAD_PAGE_SIZE));
+                for (TerminalPointDTO point : page) {
+                    double[] v = toUnitVector(point.getLatitude().doubleValue(), point.getLongitude().doubleValue());
+                    builder.add(point.getPublicId().getMostSignificantBits(), point.getPublicId().getLeastSignificantBits(),
+                            v[0], v[1], v[2]);
+                }
+                if (!page.isEmpty()) lastId = page.get(page.size() - 1).getIdTerminal();
+            } while (page.size() == LOAD_PAGE_SIZE);
+
+            tree = builder.build();
+            // Les modifications validées avant la lecture sont déjà dans l'arbre
+            overlay.values().removeIf(point -> point.sequence() <= startSequence);
+            logger.info("Index spatial des bornes chargé : {} bornes en {} ms",
+                    tree.size, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.warn("Chargement de l'index spatial des bornes impossible : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Distance orthodromique entre deux points, calculée comme dans l'index.
+     * @return La distance en kilomètres
+     */
+    public static double distanceKm(BigDecimal latitude1, BigDecimal longitude1, BigDecimal latitude2, BigDecimal longitude2) {
+        double[] from = toUnitVector(latitude1.doubleValue(), longitude1.doubleValue());
+        double[] to = toUnitVector(latitude2.doubleValue(), longitude2.doubleValue());
+        return toKm(distance2(from, to[0], to[1], to[2]));
+    }
+
+    static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[]{cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private static double chord(double radiusKm) {
+        double angle = Math.min(radiusKm / GeoBoundingBox.EARTH_RADIUS_KM, Math.PI);
+        return 2 * Math.sin(angle / 2);
+    }
+
+    private static double toKm(double chord2) {
+        return 2 * GeoBoundingBox.EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(chord2) / 2));
+    }
+
+    private static double distance2(double[] center, double x, double y, double z) {
+        double dx = center[0] - x;
+        double dy = center[1] - y;
+        double dz = center[2] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    record Point(UUID publicId, double x, double y, double z, boolean removed, long sequence) {}
+
+    /**
+     * Accumule les points dans des tableaux extensibles avant construction de l'arbre.
+     */
+    static final class Builder {
+        private long[] msb;
+        private long[] lsb;
+        private double[] xs;
+        private double[] ys;
+        private double[] zs;
+        private int size;
+
+        Builder(int capacity) {
+            capacity = Math.max(capacity, 16);
+            msb = new long[capacity];
+            lsb = new long[capacity];
+            xs = new double[capacity];
+            ys = new double[capacity];
+            zs = new double[capacity];
+        }
+
+        void add(long mostSignificantBits, long leastSignificantBits, double x, double y, double z) {
+            if (size == xs.length) {
+                int capacity = size * 2;
+                msb = Arrays.copyOf(msb, capacity);
+                lsb = Arrays.copyOf(lsb, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                zs = Arrays.copyOf(zs, capacity);
+            }
+            msb[size] = mostSignificantBits;
+            lsb[size] = leastSignificantBits;
+            xs[size] = x;
+            ys[size] = y;
+            zs[size] = z;
+            size++;
+        }
+
+        KdTree build() {
+            return new KdTree(msb, lsb, xs, ys, zs, size);
+        }
+    }
+
+    /**
+     * Kd-tree implicite : pour chaque intervalle [lo, hi), le point médian sur l'axe (profondeur modulo 3)
+     * sépare les points inférieurs (à gauche) des points supérieurs (à droite). L'arbre est immuable une fois construit.
+     */
+    static final class KdTree {
+        final long[] msb;
+        final long[] lsb;
+        final double[] xs;
+        final double[] ys;
+        final double[] zs;
+        final int size;
+
+        KdTree(long[] msb, long[] lsb, double[] xs, double[] ys, double[] zs, int size) {
+            this.msb = msb;
+            this.lsb = lsb;
+            this.xs = xs;
+            this.ys = ys;
+            this.zs = zs;
+            this.size = size;
+            build(0, size, 0);
+        }
+
+        void search(double[] center, double maxChord, double maxChord2, Map<UUID, Point> overlay, List<Hit> hits) {
+            search(0, size, 0, center, maxChord, maxChord2, overlay, hits);
+        }
+
+        private void search(int lo, int hi, int depth, double[] center, double maxChord, double maxChord2,
+                            Map<UUID, Point> overlay, List<Hit> hits) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                double chord2 = distance2(center, xs[mid], ys[mid], zs[mid]);
+                if (chord2 <= maxChord2) {
+                    UUID publicId = new UUID(msb[mid], lsb[mid]);
+                    if (overlay.isEmpty() || !overlay.containsKey(publicId)) {
+                        hits.add(new Hit(publicId, toKm(chord2)));
+                    }
+                }
+
+                int axis = depth % 3;
+                double diff = center[axis] - axis(axis)[mid];
+                boolean visitLeft = diff <= maxChord;
+                boolean visitRight = diff >= -maxChord;
+                depth++;
+                if (visitLeft && visitRight) {
+                    search(lo, mid, depth, center, maxChord, maxChord2, overlay, hits);
+                    lo = mid + 1;
+                } else if (visitLeft) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+        }
+
+        private double[] axis(int axis) {
+            return axis == 0 ? xs : axis == 1 ? ys : zs;
+        }
+
+        private void build(int lo, int hi, int depth) {
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                select(lo, hi - 1, mid, axis(depth % 3));
+                build(lo, mid, depth + 1);
+                lo = mid + 1;
+                depth++;
+            }
+        }
+
+        /**
+         * Sélection rapide (Hoare) : place en k l'élément de rang k sur l'axe donné,
+         * les éléments inférieurs ou égaux avant, supérieurs ou égaux après.
+         */
+        private void select(int lo, int hi, int k, double[] key) {
+            while (hi > lo) {
+                double pivot = key[(lo + hi) >>> 1];
+                int i = lo;
+                int j = hi;
+                while (i <= j) {
+                    while (key[i] < pivot) i++;
+                    while (key[j] > pivot) j--;
+                    if (i <= j) {
+                        swap(i, j);
+                        i++;
+                        j--;
+                    }
+                }
+                if (k <= j) {
+                    hi = j;
+                } else if (k >= i) {
+                    lo = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void swap(int i, int j) {
+            long m = msb[i]; msb[i] = msb[j]; msb[j] = m;
+            long l = lsb[i]; lsb[i] = lsb[j]; lsb[j] = l;
+            double x = xs[i]; xs[i] = xs[j]; xs[j] = x;
+            double y = ys[i]; ys[i] = ys[j]; ys[j] = y;
+            double z = zs[i]; zs[i] = zs[j]; zs[j] = z;
+        }
+    }
+}
@@ -7,12 +7,15 @@ import com.electricitybusiness.api.exception.ResourceNotFoundException;
 import com.electricitybusiness.api.mapper.EntityMapper;
 import com.electricitybusiness.api.model.User;
 import com.electricitybusiness.api.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +30,10 @@ public class UserService {
 
     private final EntityMapper entityMapper;
 
+    private final EntityManager entityManager;
+
+    private final PrincipalCache principalCache;
+
     /**
      * Récupère tous les Users.
      * @return Une liste de tous les Users
@@ -40,6 +47,26 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère une page d'utilisateurs triés par identifiant.
+     * @param afterId Le dernier identifiant de la page précédente (0 pour la première page)
+     * @param limit Le nombre maximal d'utilisateurs
+     * @return Une page d'utilisateurs
+     */
+    @Transactional(readOnly = true)
+    public List<User> getUsersPage(Long afterId, int limit) {
+        return userRepository.findPageAfter(afterId, PageRequest.ofSize(limit));
+    }
+
+    /**
+     * Parcourt tous les utilisateurs sans les charger en une fois.
+     * @param action L'action appliquée à chaque utilisateur, dans la transaction de lecture
+     */
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<User> action) {
+        EntityStreams.forEachDetached(userRepository.streamAll(), entityManager, action);
+    }
+
     /**
      * Récupère un User par son ID.
      * @param id L'identifiant de l'User à récupérer
@@ -74,6 +101,8 @@ public class UserService {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         user.setIdUser(id);
+        // Rôle, bannissement ou mot de passe : le filtre JWT recharge l'utilisateur
+        principalCache.evictUser(id);
         return userRepository.save(user);
     }
 
@@ -87,6 +116,7 @@ public class UserService {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        principalCache.evictUser(id);
     }
 
     /**
@@ -176,6 +206,7 @@ public class UserService {
             existing.setEmailUser(newEmail);
         }
 
+        principalCache.evictUser(id);
         return userRepository.save(existing);
     }
 }
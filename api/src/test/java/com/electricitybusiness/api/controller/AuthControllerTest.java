@@ -2,6 +2,7 @@ package com.electricitybusiness.api.controller;
 
 import com.electricitybusiness.api.config.CustomUserDetailService;
 import com.electricitybusiness.api.config.JwtAuthFilter;
+import com.electricitybusiness.api.exception.InvalidTokenException;
 import com.electricitybusiness.api.mapper.EntityMapper;
 import com.electricitybusiness.api.model.*;
 import com.electricitybusiness.api.repository.*;
@@ -25,6 +26,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -96,6 +99,9 @@ public class AuthControllerTest {
     @MockitoBean
     private CustomUserDetailService customUserDetailService;
 
+    @MockitoBean
+    private LoginRateLimiter loginRateLimiter;
+
     @MockitoBean
     private TerminalService terminalService;
     @MockitoBean
@@ -132,20 +138,22 @@ public class AuthControllerTest {
         String newMockedAccessToken = "mocked_access_token";
 
         testRefreshTokenEntity = RefreshToken.builder()
-                .idRefreshToken(testRefreshTokenJwt)
+                .tokenHash("a".repeat(64))
+                .token(testRefreshTokenJwt)
                 .user(testUser)
                 .build();
 
-        when(jwtService.generateAccessToken(eq(testUser.getEmailUser()))).thenReturn(testAccessToken);
+        when(jwtService.generateAccessToken(eq(testUser))).thenReturn(testAccessToken);
         when(jwtService.getRefreshTokenByToken(testRefreshTokenJwt)).thenReturn(Optional.of(testRefreshTokenEntity));
         when(jwtService.getRefreshSecretKey()).thenReturn("mock_refresh_secret_key");
         when(jwtService.isTokenValid(eq(testRefreshTokenJwt), eq("mock_refresh_secret_key"), eq(testUser))).thenReturn(true);
-        when(jwtService.generateAccessToken(testUser.getUsername())).thenReturn(newMockedAccessToken);
+        when(jwtService.generateAccessToken(testUser)).thenReturn(newMockedAccessToken);
 
         authController = new AuthController(
                 jwtService,
                 authenticationManager,
-                customUserDetailService
+                customUserDetailService,
+                loginRateLimiter
         );
     }
 
@@ -167,7 +175,7 @@ public class AuthControllerTest {
                 .thenReturn(authenticatedToken);
         when(customUserDetailService.loadUserByUsername(eq(testUser.getEmailUser())))
                 .thenReturn(testUser);
-        when(jwtService.generateAccessToken(eq(testUser.getEmailUser())))
+        when(jwtService.generateAccessToken(eq(testUser)))
                 .thenReturn(expectedAccessToken);
         when(jwtService.generateRefreshTokenBdd(eq(testUser)))
                 .thenReturn(testRefreshTokenEntity);
@@ -184,10 +192,47 @@ public class AuthControllerTest {
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(customUserDetailService).loadUserByUsername(eq(testUser.getEmailUser()));
-        verify(jwtService).generateAccessToken(eq(testUser.getEmailUser()));
+        verify(jwtService).generateAccessToken(eq(testUser));
         verify(jwtService).generateRefreshTokenBdd(eq(testUser));
     }
 
+    /**
+     * Teste qu'une tentative au-delà de la limite est rejetée (429) avant toute authentification.
+     */
+    @Test
+    void authenticate_RateLimited_Returns429WithoutAuthenticating() throws Exception {
+        AuthController.AuthRequest authRequest = new AuthController.AuthRequest("test@example.com", "password");
+        when(loginRateLimiter.acquire(anyString(), eq("test@example.com"))).thenReturn(11_500_000_000L);
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "12"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Trop de tentatives de connexion, réessayez plus tard."));
+
+        verifyNoInteractions(authenticationManager, customUserDetailService, jwtService);
+    }
+
+    /**
+     * Teste que la saturation du pool de hachage renvoie une 503 immédiate, et non une erreur d'identifiants.
+     */
+    @Test
+    void authenticate_HashingPoolSaturated_Returns503() throws Exception {
+        AuthController.AuthRequest authRequest = new AuthController.AuthRequest("test@example.com", "password");
+        doThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Trop de demandes d'authentification en cours"))
+                .when(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Trop de demandes d'authentification en cours"));
+
+        verifyNoInteractions(jwtService);
+    }
+
     /**
      * Teste le cas d'échec d'authentification avec des identifiants invalides.
      */
@@ -218,7 +263,9 @@ public class AuthControllerTest {
         when(jwtService.getRefreshTokenByToken(testRefreshTokenJwt)).thenReturn(Optional.of(testRefreshTokenEntity));
         when(jwtService.isTokenValid(eq(testRefreshTokenJwt), anyString(), eq(testUser))).thenReturn(true);
         String newMockedAccessToken = "new_mocked_access_token_after_refresh";
-        when(jwtService.generateAccessToken(testUser.getEmailUser())).thenReturn(newMockedAccessToken);
+        when(jwtService.generateAccessToken(testUser)).thenReturn(newMockedAccessToken);
+        RefreshToken rotated = RefreshToken.builder().tokenHash("b".repeat(64)).token("rotated.refresh.token").user(testUser).build();
+        when(jwtService.rotateRefreshToken(testRefreshTokenEntity)).thenReturn(rotated);
 
         Cookie refreshTokenCookie = new Cookie("refreshToken", testRefreshTokenJwt);
 
@@ -227,14 +274,15 @@ public class AuthControllerTest {
                         .cookie(refreshTokenCookie))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.accessToken").value(newMockedAccessToken))
-                .andExpect(header().string(HttpHeaders.SET_COOKIE, org.hamcrest.Matchers.containsString("refreshToken=" + testRefreshTokenJwt)))
+                .andExpect(header().string(HttpHeaders.SET_COOKIE, org.hamcrest.Matchers.containsString("refreshToken=rotated.refresh.token")))
                 .andExpect(header().string(HttpHeaders.SET_COOKIE, org.hamcrest.Matchers.containsString("HttpOnly")))
                 .andExpect(header().string(HttpHeaders.SET_COOKIE, org.hamcrest.Matchers.containsString("Secure")))
                 .andExpect(header().string(HttpHeaders.SET_COOKIE, org.hamcrest.Matchers.containsString("SameSite=None")));
 
         verify(jwtService).getRefreshTokenByToken(testRefreshTokenJwt);
         verify(jwtService).isTokenValid(eq(testRefreshTokenJwt), anyString(), eq(testUser));
-        verify(jwtService).generateAccessToken(testUser.getEmailUser());
+        verify(jwtService).generateAccessToken(testUser);
+        verify(jwtService).rotateRefreshToken(testRefreshTokenEntity);
     }
 
     /**
@@ -325,6 +373,24 @@ public class AuthControllerTest {
         verifyNoMoreInteractions(jwtService);
     }
 
+    /**
+     * Teste qu'un refresh token déjà utilisé (rotation refusée) ne permet pas d'obtenir un access token.
+     */
+    @Test
+    void refreshAccessToken_Failure_TokenAlreadyRotated() throws Exception {
+        when(jwtService.getRefreshTokenByToken(testRefreshTokenJwt)).thenReturn(Optional.of(testRefreshTokenEntity));
+        when(jwtService.isTokenValid(eq(testRefreshTokenJwt), anyString(), eq(testUser))).thenReturn(true);
+        when(jwtService.rotateRefreshToken(testRefreshTokenEntity))
+                .thenThrow(new InvalidTokenException("Refresh token déjà utilisé ou révoqué"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .cookie(new Cookie("refreshToken", testRefreshTokenJwt)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().doesNotExist(HttpHeaders.SET_COOKIE));
+
+        verify(jwtService).rotateRefreshToken(testRefreshTokenEntity);
+    }
+
     /**
      * Teste le cas où une erreur se produit lors de la validation du token.
      */
@@ -74,7 +74,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         }
 )
 @AutoConfigureMockMvc(addFilters = false)
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, NdjsonExporter.class})
 class BookingControllerTest {
 
     @Autowired
@@ -283,12 +283,12 @@ class BookingControllerTest {
     @Test
     @WithMockUser(username = "admin@example.com", authorities = {"ADMIN"})
     void getAllBookings_ShouldReturnListOfBookings() throws Exception {
-        given(bookingService.getAllBookings()).willReturn(Collections.singletonList(testBooking));
-        given(mapper.toBookingDTO(testBooking)).willReturn(testBookingDTO);
+        given(bookingService.getAllBookingDTOs()).willReturn(Collections.singletonList(testBookingDTO));
 
         mockMvc.perform(get("/api/bookings/all"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].publicId").value(testBookingDTO.getPublicId().toString()));
+        verify(mapper, never()).toBookingDTO(any(Booking.class));
     }
 
     /**
@@ -474,10 +474,7 @@ class BookingControllerTest {
         // Mock des services
         given(userService.getIdByEmailUser("testuser@example.com")).willReturn(testUser.getIdUser());
         given(userService.getUserById(testUser.getIdUser())).willReturn(testUser);
-        given(bookingService.getBookingsByUserOwner(testUser)).willReturn(List.of(testBooking));
-
-        // Stubbing du mapper
-        doReturn(testBookingDTO).when(mapper).toBookingDTO(any(Booking.class));
+        given(bookingService.getBookingDTOsByUserOwner(testUser)).willReturn(List.of(testBookingDTO));
 
         String expectedStartTimeString = testBookingDTO.getStartingDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
         expectedStartTimeString = expectedStartTimeString.replaceAll("(\\.\\d*[1-9])0+$", "$1");
@@ -497,8 +494,8 @@ class BookingControllerTest {
         // Vérifications des interactions
         verify(userService, times(1)).getIdByEmailUser("testuser@example.com");
         verify(userService, times(1)).getUserById(testUser.getIdUser());
-        verify(bookingService, times(1)).getBookingsByUserOwner(testUser);
-        verify(mapper, times(1)).toBookingDTO(any(Booking.class));
+        verify(bookingService, times(1)).getBookingDTOsByUserOwner(testUser);
+        verify(mapper, never()).toBookingDTO(any(Booking.class));
     }
 
     /**
@@ -511,7 +508,7 @@ class BookingControllerTest {
         // Mock des services
         given(userService.getIdByEmailUser("testuser@example.com")).willReturn(testUser.getIdUser());
         given(userService.getUserById(testUser.getIdUser())).willReturn(testUser);
-        given(bookingService.getBookingsByUserOwner(testUser)).willReturn(List.of());
+        given(bookingService.getBookingDTOsByUserOwner(testUser)).willReturn(List.of());
 
         // Test avec MockMvc
         mockMvc.perform(get("/api/bookings/user/owner")
@@ -0,0 +1,39 @@
+package com.electricitybusiness.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NdjsonExporterTest {
+
+    /**
+     * Un export qui dépasse sa durée maximale est interrompu avant la ligne suivante,
+     * et son permis est rendu pour l'export suivant.
+     */
+    @Test
+    void export_BeyondMaxDuration_StopsStreamAndReleasesPermit() throws Exception {
+        NdjsonExporter exporter = new NdjsonExporter(new ObjectMapper(), 1, Duration.ZERO);
+        ResponseEntity<StreamingResponseBody> slow = exporter.export(
+                action -> List.of("a", "b").forEach(action), Function.identity());
+
+        assertThat(exporter.export(action -> {}, Function.identity()).getStatusCode())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertThatThrownBy(() -> slow.getBody().writeTo(output)).isInstanceOf(IOException.class);
+        assertThat(output.size()).isZero();
+
+        assertThat(exporter.export(action -> {}, Function.identity()).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
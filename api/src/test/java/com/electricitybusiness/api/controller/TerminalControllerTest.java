@@ -7,6 +7,8 @@ import com.electricitybusiness.api.mapper.EntityMapper;
 import com.electricitybusiness.api.model.Terminal;
 import com.electricitybusiness.api.service.TerminalService;
 import com.electricitybusiness.api.service.UserService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,18 +23,26 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -51,7 +61,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         }
 )
 @AutoConfigureMockMvc(addFilters = false)
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, NdjsonExporter.class})
 class TerminalControllerTest {
 
     @Autowired
@@ -152,6 +162,45 @@ class TerminalControllerTest {
         verifyNoMoreInteractions(terminalService, mapper);
     }
 
+    /**
+     * Teste la recherche des bornes les plus proches : la distance accompagne chaque borne.
+     */
+    @Test
+    @WithMockUser
+    void findNearestTerminals_WithLocation_ReturnsTerminalsWithDistance() throws Exception {
+        BigDecimal longitude = BigDecimal.valueOf(2.35);
+        BigDecimal latitude = BigDecimal.valueOf(48.85);
+
+        when(terminalService.findNearestAvailable(eq(longitude), eq(latitude), eq(5), isNull(), isNull(), isNull()))
+                .thenReturn(List.of(new TerminalService.NearbyTerminal(testTerminal1, 0.42)));
+
+        mockMvc.perform(get("/api/terminals/nearest")
+                        .param("longitude", longitude.toString())
+                        .param("latitude", latitude.toString())
+                        .param("k", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].terminal.publicId").value(testTerminalDTO1.getPublicId().toString()))
+                .andExpect(jsonPath("$[0].distanceKm").value(0.42));
+    }
+
+    /**
+     * Teste la recherche des bornes les plus proches avec un nombre de bornes hors limites.
+     */
+    @Test
+    @WithMockUser
+    void findNearestTerminals_WithTooManyTerminalsRequested_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/terminals/nearest")
+                        .param("longitude", "2.35")
+                        .param("latitude", "48.85")
+                        .param("k", "1000")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(terminalService, mapper);
+    }
+
     /**
      * Teste le scénario où les paramètres obligatoires (longitude, latitude, radius) sont absents.
      * Le contrôleur doit renvoyer un 400 Bad Request.
@@ -269,4 +318,159 @@ class TerminalControllerTest {
         verifyNoMoreInteractions(terminalService, mapper);
     }
 
+    /**
+     * Teste la liste complète : les DTO projetés par le service sont renvoyés tels quels, sans passer par le mapper.
+     */
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void getAllTerminals_WithoutLimit_ReturnsProjectedDTOs() throws Exception {
+        when(terminalService.getAllTerminalDTOs()).thenReturn(List.of(testTerminalDTO1, testTerminalDTO2));
+
+        mockMvc.perform(get("/api/terminals"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].nameTerminal").value("Terminal A DTO"));
+
+        verify(terminalService).getAllTerminalDTOs();
+        verifyNoMoreInteractions(terminalService, mapper);
+    }
+
+    /**
+     * Teste la pagination par curseur : une page complète renvoie le curseur de la page suivante,
+     * une taille de page invalide est refusée.
+     */
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void getAllTerminals_WithLimit_ReturnsPageAndNextCursor() throws Exception {
+        when(terminalService.getTerminalsPage(0L, 2)).thenReturn(List.of(testTerminal1, testTerminal2));
+        when(terminalService.getTerminalsPage(2L, 2)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/terminals").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "2"))
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/api/terminals").param("limit", "2").param("after", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/terminals").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(terminalService, never()).getAllTerminalDTOs();
+    }
+
+    /**
+     * Teste l'export NDJSON : une ligne JSON par borne, écrite au fil du parcours.
+     */
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void streamAllTerminals_WithNdjsonAccept_WritesOneLinePerTerminal() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Terminal> action = invocation.getArgument(0);
+            action.accept(testTerminal1);
+            action.accept(testTerminal2);
+            return null;
+        }).when(terminalService).forEachTerminal(any());
+
+        MvcResult result = mockMvc.perform(get("/api/terminals").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines().toList()).hasSize(2)
+                .allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+        assertThat(body).contains("Terminal A DTO", "Terminal B DTO");
+        verify(terminalService, never()).getAllTerminalDTOs();
+    }
+
+    /**
+     * Teste la borne des exports NDJSON : pendant qu'un export tient son permis (et sa connexion),
+     * un second export reçoit une réponse 503 et une requête ordinaire reste servie ;
+     * le permis est rendu à la fin du premier export.
+     */
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void streamAllTerminals_WhileAnotherExportRuns_Returns503AndServesOtherRequests() throws Exception {
+        CountDownLatch firstExportStarted = new CountDownLatch(1);
+        CountDownLatch finishFirstExport = new CountDownLatch(1);
+        AtomicInteger exports = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (exports.incrementAndGet() == 1) {
+                firstExportStarted.countDown();
+                assertThat(finishFirstExport.await(10, TimeUnit.SECONDS)).isTrue();
+            }
+            Consumer<Terminal> action = invocation.getArgument(0);
+            action.accept(testTerminal1);
+            return null;
+        }).when(terminalService).forEachTerminal(any());
+        when(terminalService.getTerminalsPage(0L, 2)).thenReturn(List.of(testTerminal1));
+
+        MvcResult first = mockMvc.perform(get("/api/terminals").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(firstExportStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        mockMvc.perform(get("/api/terminals").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+        mockMvc.perform(get("/api/terminals").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        finishFirstExport.countDown();
+        mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isOk());
+
+        MvcResult next = mockMvc.perform(get("/api/terminals").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(next))
+                .andExpect(status().isOk());
+        assertThat(exports.get()).isEqualTo(2);
+    }
+
+    /**
+     * Teste la fin d'un export par dépassement du délai de la requête asynchrone :
+     * le permis est rendu à la fin de la requête, sans attendre le flux bloqué, et un nouvel export est admis.
+     */
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void streamAllTerminals_AfterAsyncTimeout_ReleasesPermit() throws Exception {
+        CountDownLatch firstExportStarted = new CountDownLatch(1);
+        CountDownLatch unblockFirstExport = new CountDownLatch(1);
+        AtomicInteger exports = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (exports.incrementAndGet() == 1) {
+                firstExportStarted.countDown();
+                assertThat(unblockFirstExport.await(10, TimeUnit.SECONDS)).isTrue();
+            }
+            return null;
+        }).when(terminalService).forEachTerminal(any());
+
+        MvcResult first = mockMvc.perform(get("/api/terminals").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(firstExportStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Délai dépassé : le conteneur signale le timeout puis termine la requête
+        MockAsyncContext asyncContext = (MockAsyncContext) first.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        asyncContext.complete();
+
+        try {
+            MvcResult next = mockMvc.perform(get("/api/terminals").accept(MediaType.APPLICATION_NDJSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(next))
+                    .andExpect(status().isOk());
+        } finally {
+            unblockFirstExport.countDown();
+        }
+        assertThat(exports.get()).isEqualTo(2);
+    }
 }
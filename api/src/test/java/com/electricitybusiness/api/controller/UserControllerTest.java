@@ -53,7 +53,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
                 SecurityAutoConfiguration.class
         }
 )
-@Import(ActiveSecurityTestConfig.class)
+@Import({ActiveSecurityTestConfig.class, NdjsonExporter.class})
 /*
 @ActiveProfiles("springSecurityFilterChain")
 */
@@ -0,0 +1,211 @@
+package com.electricitybusiness.api.repository;
+
+import com.electricitybusiness.api.dto.booking.BookingDTO;
+import com.electricitybusiness.api.mapper.EntityMapper;
+import com.electricitybusiness.api.model.*;
+import com.electricitybusiness.api.service.BookingIntervalIndex;
+import com.electricitybusiness.api.service.BookingSchedulerService;
+import com.electricitybusiness.api.service.BookingService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie que le nombre de requêtes SQL des listes de réservations (chargement puis conversion en DTO)
+ * ne dépend pas du nombre de lignes, y compris pour le parcours en flux des exports et les listes projetées en DTO.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@EntityScan(basePackages = {"com.electricitybusiness.api.model"})
+@Import({EntityMapper.class, BCryptPasswordEncoder.class, BookingService.class})
+public class BookingFetchPlanTest {
+
+    // La liste avec ses associations jointes, puis un lot pour les lieux des adresses
+    private static final long MAX_STATEMENTS = 2;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityMapper mapper;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @MockitoBean
+    private BookingSchedulerService bookingSchedulerService;
+
+    @MockitoBean
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @MockitoBean
+    private Clock clock;
+
+    private Statistics statistics;
+
+    private User owner;
+
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        owner = user();
+    }
+
+    private User user() {
+        sequence++;
+        User user = User.builder()
+                .surnameUser("Nom" + sequence)
+                .firstName("Prenom" + sequence)
+                .pseudo("pseudo" + sequence)
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .phone("0600000000")
+                .emailUser("user" + sequence + "@example.com")
+                .passwordUser("password")
+                .role(UserRole.USER)
+                .banished(false)
+                .build();
+        return entityManager.persist(user);
+    }
+
+    /**
+     * Ajoute des lieux au propriétaire : chacun avec son adresse, sa borne, un client et deux réservations.
+     */
+    private void addPlaces(int count) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < count; i++) {
+            Address address = new Address();
+            address.setNameAddress("Adresse " + sequence);
+            address.setAddress(sequence + " rue de la Paix");
+            address.setPostCode("75000");
+            address.setCity("Paris");
+            address.setCountry("France");
+            address.setUser(owner);
+            entityManager.persist(address);
+
+            Place place = new Place();
+            place.setInstructionPlace("Lieu " + sequence);
+            place.setUser(owner);
+            place.setAddress(address);
+            entityManager.persist(place);
+
+            Terminal terminal = new Terminal();
+            terminal.setNameTerminal("Borne " + sequence);
+            terminal.setLatitude(BigDecimal.valueOf(48.85));
+            terminal.setLongitude(BigDecimal.valueOf(2.35));
+            terminal.setPrice(BigDecimal.valueOf(5));
+            terminal.setPower(BigDecimal.valueOf(22));
+            terminal.setStanding(true);
+            terminal.setStatusTerminal(TerminalStatus.LIBRE);
+            terminal.setOccupied(false);
+            terminal.setUser(owner);
+            terminal.setPlace(place);
+            entityManager.persist(terminal);
+
+            User client = user();
+            for (int j = 0; j < 2; j++) {
+                Booking booking = new Booking();
+                booking.setUser(client);
+                booking.setTerminal(terminal);
+                booking.setNumberBooking("FETCH" + sequence + "-" + j);
+                booking.setStatusBooking(BookingStatus.EN_ATTENTE);
+                booking.setTotalAmount(BigDecimal.TEN);
+                booking.setStartingDate(start.plusHours(j));
+                booking.setEndingDate(start.plusHours(j + 1));
+                entityManager.persist(booking);
+            }
+        }
+        entityManager.flush();
+    }
+
+    /**
+     * Nombre de requêtes pour charger la liste puis la convertir en DTO, contexte de persistance vide.
+     */
+    private long statementsFor(Supplier<List<BookingDTO>> list) {
+        entityManager.clear();
+        statistics.clear();
+        assertThat(list.get()).isNotEmpty();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Map<String, Long> statementsPerList() {
+        return Map.of(
+                "all", statementsFor(() -> bookingRepository.findAll().stream().map(mapper::toBookingDTO).toList()),
+                "owner", statementsFor(() -> bookingRepository.findBookingsByUserOwner(owner).stream()
+                        .map(mapper::toBookingDTO).toList()),
+                "ownerPage", statementsFor(() -> bookingRepository.findPageByUserOwnerAfter(
+                        owner, null, null, PageRequest.ofSize(1000)).stream().map(mapper::toBookingDTO).toList()),
+                "page", statementsFor(() -> bookingRepository.findPageAfter(null, null, PageRequest.ofSize(1000))
+                        .stream().map(mapper::toBookingDTO).toList()),
+                "stream", statementsFor(() -> {
+                    List<BookingDTO> dtos = new ArrayList<>();
+                    bookingService.forEachBooking(booking -> dtos.add(mapper.toBookingDTO(booking)));
+                    return dtos;
+                }),
+                "allDTOs", statementsFor(() -> bookingService.getAllBookingDTOs()),
+                "ownerDTOs", statementsFor(() -> bookingService.getBookingDTOsByUserOwner(owner)),
+                "status", statementsFor(() -> bookingRepository.findByStatusBooking(BookingStatus.EN_ATTENTE).stream()
+                        .map(mapper::toBookingDTO).toList())
+        );
+    }
+
+    /**
+     * Teste que chaque liste de réservations exécute le même nombre borné de requêtes pour 4 ou 40 réservations.
+     */
+    @Test
+    void bookingLists_StatementCountDoesNotGrowWithRows() {
+        addPlaces(2);
+        Map<String, Long> few = statementsPerList();
+
+        addPlaces(18);
+        Map<String, Long> many = statementsPerList();
+
+        assertThat(many).isEqualTo(few);
+        assertThat(few.values()).allMatch(count -> count <= MAX_STATEMENTS);
+        // Projections : la liste, puis les lieux des adresses
+        assertThat(many.get("allDTOs")).isEqualTo(2);
+        assertThat(many.get("ownerDTOs")).isEqualTo(2);
+    }
+
+    /**
+     * Teste que les listes projetées en DTO sont identiques à la conversion des entités par le mapper.
+     */
+    @Test
+    void bookingDTOLists_MatchMapperOutput() {
+        addPlaces(3);
+        entityManager.clear();
+        List<BookingDTO> mapped = bookingRepository.findAll().stream().map(mapper::toBookingDTO).toList();
+        List<BookingDTO> mappedOwner = bookingRepository.findBookingsByUserOwner(owner).stream()
+                .map(mapper::toBookingDTO).toList();
+        entityManager.clear();
+
+        assertThat(bookingService.getAllBookingDTOs()).hasSize(6).containsExactlyInAnyOrderElementsOf(mapped);
+        assertThat(bookingService.getBookingDTOsByUserOwner(owner)).containsExactlyInAnyOrderElementsOf(mappedOwner);
+    }
+}
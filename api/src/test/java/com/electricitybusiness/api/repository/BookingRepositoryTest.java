@@ -1,5 +1,6 @@
 package com.electricitybusiness.api.repository;
 
+import com.electricitybusiness.api.dto.booking.BookingSlotDTO;
 import com.electricitybusiness.api.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,14 +9,19 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
@@ -323,4 +329,138 @@ public class BookingRepositoryTest {
 
         assertThat(bookings).isEmpty();
     }
+
+    /**
+     * Teste la détection d'un chevauchement sans chargement d'entité.
+     */
+    @Test
+    void existsOverlappingBookings_OverlappingActiveBooking_ReturnsTrue() {
+        boolean overlapping = bookingRepository.existsOverlappingBookings(
+                testTerminal1, booking1.getStartingDate().plusMinutes(30), booking1.getEndingDate().plusHours(1));
+
+        assertThat(overlapping).isTrue();
+    }
+
+    /**
+     * Teste qu'une réservation refusée ou un créneau disjoint ne sont pas considérés comme des chevauchements.
+     */
+    @Test
+    void existsOverlappingBookings_RefusedOrDisjointBooking_ReturnsFalse() {
+        boolean overRefused = bookingRepository.existsOverlappingBookings(
+                testTerminal1, booking3.getStartingDate(), booking3.getEndingDate());
+        boolean disjoint = bookingRepository.existsOverlappingBookings(
+                testTerminal1, booking1.getStartingDate().minusHours(2), booking1.getStartingDate().minusSeconds(1));
+
+        assertThat(overRefused).isFalse();
+        assertThat(disjoint).isFalse();
+    }
+
+    /**
+     * Teste le chargement des créneaux actifs sous forme de projection légère.
+     */
+    @Test
+    void findActiveSlotsEndingAfter_ReturnsOnlyActiveSlots() {
+        List<BookingSlotDTO> slots = bookingRepository.findActiveSlotsEndingAfter(LocalDateTime.now());
+
+        assertThat(slots).hasSize(4);
+        assertThat(slots).extracting(BookingSlotDTO::getPublicId)
+                .doesNotContain(booking3.getPublicId())
+                .contains(booking1.getPublicId(), booking2.getPublicId(), booking4.getPublicId());
+        assertThat(slots).filteredOn(slot -> slot.getPublicId().equals(booking1.getPublicId()))
+                .singleElement()
+                .satisfies(slot -> assertThat(slot.getTerminalPublicId()).isEqualTo(testTerminal1.getPublicId()));
+    }
+
+    /**
+     * Teste la relecture des créneaux modifiés depuis une date : les réservations inactives sont incluses,
+     * celles modifiées avant la date ne le sont pas.
+     */
+    @Test
+    void findSlotsUpdatedSince_ReturnsChangedSlotsWhateverTheirStatus() {
+        Instant since = Instant.parse("2030-01-01T10:00:00Z");
+        bookingRepository.updateStatusByPublicIdIn(
+                List.of(booking2.getPublicId()), BookingStatus.EN_ATTENTE, BookingStatus.ACCEPTEE, since);
+        bookingRepository.updateStatusByPublicIdIn(
+                List.of(booking3.getPublicId()), BookingStatus.REFUSEE, BookingStatus.REFUSEE, since.plusSeconds(60));
+        entityManager.clear();
+
+        List<BookingSlotDTO> slots = bookingRepository.findSlotsUpdatedSince(since);
+
+        assertThat(slots).extracting(BookingSlotDTO::getPublicId, BookingSlotDTO::getStatusBooking)
+                .containsExactlyInAnyOrder(
+                        tuple(booking2.getPublicId(), BookingStatus.ACCEPTEE),
+                        tuple(booking3.getPublicId(), BookingStatus.REFUSEE));
+        assertThat(bookingRepository.findSlotsUpdatedSince(since.plusSeconds(61))).isEmpty();
+    }
+
+    /**
+     * Teste le parcours des créneaux actifs par pages keyset : chaque page reprend après le dernier identifiant.
+     */
+    @Test
+    void findActiveSlotsEndingAfter_KeysetPages_CoverAllActiveSlotsOnce() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<BookingSlotDTO> firstPage = bookingRepository.findActiveSlotsEndingAfter(now, null, PageRequest.ofSize(3));
+        List<BookingSlotDTO> secondPage = bookingRepository.findActiveSlotsEndingAfter(
+                now, firstPage.get(firstPage.size() - 1).getPublicId(), PageRequest.ofSize(3));
+
+        assertThat(firstPage).hasSize(3);
+        assertThat(secondPage).hasSize(1);
+        List<UUID> visited = new ArrayList<>();
+        firstPage.forEach(slot -> visited.add(slot.getPublicId()));
+        secondPage.forEach(slot -> visited.add(slot.getPublicId()));
+        assertThat(visited).containsExactlyInAnyOrderElementsOf(
+                bookingRepository.findActiveSlotsEndingAfter(now).stream().map(BookingSlotDTO::getPublicId).toList());
+    }
+
+    /**
+     * Teste la pagination par curseur (date de début, identifiant) : deux réservations de même date de début
+     * sont départagées par leur identifiant et les pages successives suivent l'ordre du flux complet.
+     */
+    @Test
+    void findPageAfter_KeysetPages_FollowStreamOrderWithTies() {
+        Booking sameStart = new Booking(null, UUID.randomUUID(), user2, null, testTerminal2, null, "CODETIE",
+                BookingStatus.EN_ATTENTE, BigDecimal.valueOf(12.00), null,
+                booking1.getStartingDate(), booking1.getEndingDate());
+        entityManager.persist(sameStart);
+        entityManager.flush();
+        // Relit les dates telles que stockées (précision de la colonne) pour servir de curseur
+        entityManager.clear();
+
+        List<Long> paged = new ArrayList<>();
+        List<Booking> page = bookingRepository.findPageAfter(null, null, PageRequest.ofSize(2));
+        while (!page.isEmpty()) {
+            page.forEach(booking -> paged.add(booking.getIdBooking()));
+            Booking last = page.get(page.size() - 1);
+            page = bookingRepository.findPageAfter(last.getStartingDate(), last.getIdBooking(), PageRequest.ofSize(2));
+        }
+
+        List<Long> streamed;
+        try (Stream<Booking> bookings = bookingRepository.streamAll()) {
+            streamed = bookings.map(Booking::getIdBooking).toList();
+        }
+        assertThat(paged).hasSize(6).doesNotHaveDuplicates().containsExactlyElementsOf(streamed);
+    }
+
+    /**
+     * Teste la validation en masse : seules les réservations encore EN_ATTENTE passent à ACCEPTEE,
+     * avec leur date de modification.
+     */
+    @Test
+    void updateStatusByPublicIdIn_OnlyUpdatesBookingsWithExpectedStatus() {
+        Instant updatedAt = Instant.parse("2030-01-01T10:00:00Z");
+        int updated = bookingRepository.updateStatusByPublicIdIn(
+                List.of(booking2.getPublicId(), booking3.getPublicId()), BookingStatus.EN_ATTENTE, BookingStatus.ACCEPTEE,
+                updatedAt);
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(bookingRepository.findByPublicId(booking2.getPublicId()))
+                .hasValueSatisfying(booking -> {
+                    assertThat(booking.getStatusBooking()).isEqualTo(BookingStatus.ACCEPTEE);
+                    assertThat(booking.getUpdatedAt()).isEqualTo(updatedAt);
+                });
+        assertThat(bookingRepository.findByPublicId(booking3.getPublicId()))
+                .hasValueSatisfying(booking -> assertThat(booking.getStatusBooking()).isEqualTo(BookingStatus.REFUSEE));
+    }
 }
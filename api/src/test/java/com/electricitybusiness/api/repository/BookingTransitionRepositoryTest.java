@@ -0,0 +1,104 @@
+package com.electricitybusiness.api.repository;
+
+import com.electricitybusiness.api.model.BookingTransition;
+import com.electricitybusiness.api.model.TransitionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests de la file de transitions. Chaque réservation de lot s'exécute dans sa propre transaction,
+ * comme dans le worker. H2 ignore SKIP LOCKED : le partage de la file entre workers repose sur MySQL.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EntityScan(basePackages = {"com.electricitybusiness.api.model"})
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:booking-transitions;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingTransitionRepositoryTest {
+
+    @Autowired
+    private BookingTransitionRepository bookingTransitionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    @AfterEach
+    void tearDown() {
+        bookingTransitionRepository.deleteAll();
+    }
+
+    private BookingTransition persist(TransitionType type, LocalDateTime dueAt) {
+        return bookingTransitionRepository.save(new BookingTransition(null, UUID.randomUUID(), UUID.randomUUID(), type, dueAt));
+    }
+
+    @Test
+    void claimDueTransitions_ReturnsOnlyDueRowsInDueOrderUpToBatchSize() {
+        BookingTransition second = persist(TransitionType.LIBERATION_BORNE, now.minusMinutes(5));
+        BookingTransition first = persist(TransitionType.OCCUPATION_BORNE, now.minusMinutes(10));
+        persist(TransitionType.AUTO_VALIDATION, now.minusMinutes(1));
+        persist(TransitionType.OCCUPATION_BORNE, now.plusMinutes(10));
+
+        List<BookingTransition> claimed = new TransactionTemplate(transactionManager).execute(status ->
+                bookingTransitionRepository.claimDueTransitions(now, 3, PageRequest.of(0, 2)));
+
+        assertThat(claimed).extracting(BookingTransition::getIdBookingTransition)
+                .containsExactly(first.getIdBookingTransition(), second.getIdBookingTransition());
+    }
+
+    @Test
+    void claimDueTransitions_SkipsTransitionsParkedAfterMaxAttempts() {
+        BookingTransition parked = persist(TransitionType.OCCUPATION_BORNE, now.minusMinutes(10));
+        BookingTransition retried = persist(TransitionType.LIBERATION_BORNE, now.minusMinutes(5));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < 3; i++) {
+            transaction.execute(status -> bookingTransitionRepository.incrementAttempts(parked.getIdBookingTransition()));
+        }
+        transaction.execute(status -> bookingTransitionRepository.incrementAttempts(retried.getIdBookingTransition()));
+
+        List<BookingTransition> claimed = transaction.execute(status ->
+                bookingTransitionRepository.claimDueTransitions(now, 3, PageRequest.of(0, 10)));
+
+        assertThat(claimed).extracting(BookingTransition::getIdBookingTransition, BookingTransition::getAttempts)
+                .containsExactly(tuple(retried.getIdBookingTransition(), 1));
+        assertThat(bookingTransitionRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void deleteByBookingPublicIdAndTransitionTypeIn_DeletesOnlyRequestedTypes() {
+        UUID bookingPublicId = UUID.randomUUID();
+        bookingTransitionRepository.saveAll(List.of(
+                new BookingTransition(null, bookingPublicId, null, TransitionType.AUTO_VALIDATION, now.plusHours(1)),
+                new BookingTransition(null, bookingPublicId, UUID.randomUUID(), TransitionType.OCCUPATION_BORNE, now.plusHours(2)),
+                new BookingTransition(null, bookingPublicId, UUID.randomUUID(), TransitionType.LIBERATION_BORNE, now.plusHours(3))
+        ));
+
+        Integer deleted = new TransactionTemplate(transactionManager).execute(status ->
+                bookingTransitionRepository.deleteByBookingPublicIdAndTransitionTypeIn(bookingPublicId,
+                        EnumSet.of(TransitionType.OCCUPATION_BORNE, TransitionType.LIBERATION_BORNE)));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(bookingTransitionRepository.findAll())
+                .extracting(BookingTransition::getTransitionType)
+                .containsExactly(TransitionType.AUTO_VALIDATION);
+    }
+}
@@ -0,0 +1,197 @@
+package com.electricitybusiness.api.repository;
+
+import com.electricitybusiness.api.config.CustomUserDetailService;
+import com.electricitybusiness.api.mapper.EntityMapper;
+import com.electricitybusiness.api.model.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fige le nombre de requêtes SQL émises par les chargements des principaux points d'entrée :
+ * les associations sont paresseuses par défaut et chaque cas d'usage déclare ce qu'il charge.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@EntityScan(basePackages = {"com.electricitybusiness.api.model"})
+@Import({EntityMapper.class, BCryptPasswordEncoder.class, CustomUserDetailService.class})
+public class EndpointFetchPlanTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityMapper mapper;
+
+    @Autowired
+    private CustomUserDetailService customUserDetailService;
+
+    @Autowired
+    private TerminalRepository terminalRepository;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    @Autowired
+    private OptionRepository optionRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Statistics statistics;
+
+    private User owner;
+
+    private Place place;
+
+    private Terminal terminal;
+
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        owner = entityManager.persist(User.builder()
+                .surnameUser("Nom")
+                .firstName("Prenom")
+                .pseudo("pseudo")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .phone("0600000000")
+                .emailUser("owner@example.com")
+                .passwordUser("password")
+                .role(UserRole.USER)
+                .banished(false)
+                .build());
+
+        Car car = new Car();
+        car.setLicensePlate("AB123CD");
+        car.setBrand("Renault");
+        car.setModel("Zoe");
+        car.setYear(Year.of(2020));
+        car.setBatteryCapacity(52);
+        car.setUser(owner);
+        entityManager.persist(car);
+
+        Address address = new Address();
+        address.setNameAddress("Domicile");
+        address.setAddress("1 rue de la Paix");
+        address.setPostCode("75000");
+        address.setCity("Paris");
+        address.setCountry("France");
+        address.setUser(owner);
+        entityManager.persist(address);
+
+        place = new Place();
+        place.setInstructionPlace("Lieu");
+        place.setUser(owner);
+        place.setAddress(address);
+        entityManager.persist(place);
+
+        Option option = new Option();
+        option.setNameOption("Lavage");
+        option.setPriceOption(BigDecimal.TEN);
+        option.setDescriptionOption("Lavage extérieur");
+        option.setPlace(place);
+        entityManager.persist(option);
+
+        terminal = new Terminal();
+        terminal.setNameTerminal("Borne");
+        terminal.setLatitude(BigDecimal.valueOf(48.85));
+        terminal.setLongitude(BigDecimal.valueOf(2.35));
+        terminal.setPrice(BigDecimal.valueOf(5));
+        terminal.setPower(BigDecimal.valueOf(22));
+        terminal.setStanding(true);
+        terminal.setStatusTerminal(TerminalStatus.LIBRE);
+        terminal.setOccupied(false);
+        terminal.setUser(owner);
+        terminal.setPlace(place);
+        entityManager.persist(terminal);
+
+        booking = new Booking();
+        booking.setUser(owner);
+        booking.setTerminal(terminal);
+        booking.setCar(car);
+        booking.setOption(option);
+        booking.setNumberBooking("PLAN-1");
+        booking.setStatusBooking(BookingStatus.EN_ATTENTE);
+        booking.setTotalAmount(BigDecimal.TEN);
+        booking.setStartingDate(LocalDateTime.now().plusDays(1));
+        booking.setEndingDate(LocalDateTime.now().plusDays(1).plusHours(1));
+        entityManager.persist(booking);
+
+        entityManager.flush();
+    }
+
+    /**
+     * Exécute le chargement contexte de persistance vide et renvoie les statistiques de la session.
+     */
+    private Statistics statisticsFor(Supplier<?> load) {
+        entityManager.clear();
+        statistics.clear();
+        assertThat(load.get()).isNotNull();
+        return statistics;
+    }
+
+    /**
+     * Teste que le filtre d'authentification ne charge que la ligne de l'utilisateur, sans son véhicule.
+     */
+    @Test
+    void loadUserByUsername_IssuesSingleUserQuery() {
+        Statistics stats = statisticsFor(() -> {
+            UserDetails details = customUserDetailService.loadUserByUsername("owner@example.com");
+            return details.getAuthorities();
+        });
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getEntityLoadCount()).isEqualTo(1);
+        assertThat(stats.getCollectionFetchCount()).isZero();
+    }
+
+    /**
+     * Teste le nombre de requêtes du chargement puis de la conversion en DTO pour chaque ressource.
+     */
+    @Test
+    void endpointLoads_IssueExpectedStatementCounts() {
+        assertThat(statisticsFor(() -> terminalRepository.findByPublicId(terminal.getPublicId())
+                .map(mapper::toTerminalDTO).orElseThrow()).getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(statisticsFor(() -> placeRepository.findByPublicId(place.getPublicId())
+                .map(mapper::toPlaceDTO).orElseThrow()).getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(statisticsFor(() -> placeRepository.findPageAfter(0L, PageRequest.ofSize(100)).stream()
+                .map(mapper::toPlaceDTO).toList()).getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(statisticsFor(() -> placeRepository.findPlacesByUser(owner).stream()
+                .map(mapper::toPlaceDTO).toList()).getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(statisticsFor(() -> optionRepository.findOptionsByPlace_PublicId(place.getPublicId()).stream()
+                .map(mapper::toOptionDTO).toList()).getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(statisticsFor(() -> optionRepository.findByTerminalPublicId(terminal.getPublicId()).stream()
+                .map(mapper::toOptionDTO).toList()).getPrepareStatementCount()).isEqualTo(1);
+
+        // La réservation avec ses associations jointes, puis les lieux de l'adresse
+        assertThat(statisticsFor(() -> bookingRepository.findByPublicId(booking.getPublicId())
+                .map(mapper::toBookingDTO).orElseThrow()).getPrepareStatementCount()).isEqualTo(2);
+    }
+}
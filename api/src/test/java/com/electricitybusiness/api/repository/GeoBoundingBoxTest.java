@@ -0,0 +1,50 @@
+package com.electricitybusiness.api.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+public class GeoBoundingBoxTest {
+
+    /**
+     * Un rayon de 111,195 km correspond à un degré de latitude ;
+     * à 60° de latitude, l'écart de longitude est environ deux fois plus grand.
+     */
+    @Test
+    void around_AtSixtyDegrees_WidensLongitudeRange() {
+        GeoBoundingBox box = GeoBoundingBox.around(new BigDecimal("60"), new BigDecimal("10"), 111.195);
+
+        assertThat(box.minLatitude().doubleValue()).isCloseTo(59.0, offset(1e-4));
+        assertThat(box.maxLatitude().doubleValue()).isCloseTo(61.0, offset(1e-4));
+        assertThat(box.maxLongitude().doubleValue() - 10).isBetween(2.0, 2.01);
+        assertThat(10 - box.minLongitude().doubleValue()).isBetween(2.0, 2.01);
+    }
+
+    /**
+     * Un cercle qui traverse l'antiméridien ou contient un pôle ne filtre que sur la latitude.
+     */
+    @Test
+    void around_CrossingAntimeridianOrPole_DropsLongitudeFilter() {
+        GeoBoundingBox antimeridian = GeoBoundingBox.around(new BigDecimal("0"), new BigDecimal("179.99"), 10.0);
+        GeoBoundingBox pole = GeoBoundingBox.around(new BigDecimal("89.99"), new BigDecimal("0"), 10.0);
+
+        assertThat(antimeridian.minLatitude()).isNotNull();
+        assertThat(antimeridian.minLongitude()).isNull();
+        assertThat(pole.maxLatitude()).isEqualByComparingTo("90");
+        assertThat(pole.minLongitude()).isNull();
+    }
+
+    /**
+     * Sans centre ou sans rayon, aucun préfiltre n'est appliqué.
+     */
+    @Test
+    void around_WithoutCenter_ReturnsEmptyBox() {
+        GeoBoundingBox box = GeoBoundingBox.around(null, new BigDecimal("2.35"), 5.0);
+
+        assertThat(box.minLatitude()).isNull();
+        assertThat(box.minLongitude()).isNull();
+    }
+}
@@ -0,0 +1,117 @@
+package com.electricitybusiness.api.repository;
+
+import com.electricitybusiness.api.model.RefreshToken;
+import com.electricitybusiness.api.model.User;
+import com.electricitybusiness.api.model.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests du stockage des refresh tokens par empreinte et de la purge par lots des jetons expirés.
+ * Chaque lot est supprimé dans sa propre transaction, comme dans le worker de purge.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@EntityScan(basePackages = {"com.electricitybusiness.api.model"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RefreshTokenRepositoryTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .surnameUser("Nom")
+                .firstName("Prenom")
+                .pseudo("refresh")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .phone("0600000000")
+                .emailUser("refresh@example.com")
+                .passwordUser("password")
+                .role(UserRole.USER)
+                .banished(false)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private RefreshToken persist(int index, LocalDateTime expiresAt) {
+        return refreshTokenRepository.save(new RefreshToken("%064x".formatted(index), expiresAt, user, null));
+    }
+
+    @Test
+    void findByTokenHash_LoadsUserWithToken() {
+        persist(1, now.plusDays(7));
+
+        RefreshToken found = refreshTokenRepository.findByTokenHash("%064x".formatted(1)).orElseThrow();
+
+        assertThat(found.getUser().getEmailUser()).isEqualTo("refresh@example.com");
+    }
+
+    @Test
+    void purgeInBatches_DeletesOnlyExpiredTokensWithinBatchSize() {
+        for (int i = 0; i < 5; i++) {
+            persist(i, now.minusDays(1).plusMinutes(i));
+        }
+        RefreshToken valid = persist(10, now.plusDays(7));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Integer> batches = new ArrayList<>();
+        int deleted;
+        do {
+            deleted = transaction.execute(status -> {
+                List<String> expired = refreshTokenRepository.findExpiredTokenHashes(now, PageRequest.ofSize(2));
+                return expired.isEmpty() ? 0 : refreshTokenRepository.deleteByTokenHashIn(expired);
+            });
+            batches.add(deleted);
+        } while (deleted == 2);
+
+        assertThat(batches).containsExactly(2, 2, 1);
+        assertThat(refreshTokenRepository.findAll()).extracting(RefreshToken::getTokenHash)
+                .containsExactly(valid.getTokenHash());
+    }
+
+    @Test
+    void deleteByTokenHash_SecondDeleteReportsNothing() {
+        RefreshToken token = persist(1, now.plusDays(7));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Integer first = transaction.execute(status -> refreshTokenRepository.deleteByTokenHash(token.getTokenHash()));
+        Integer second = transaction.execute(status -> refreshTokenRepository.deleteByTokenHash(token.getTokenHash()));
+
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+    }
+}
@@ -0,0 +1,220 @@
+package com.electricitybusiness.api.repository;
+
+import com.electricitybusiness.api.config.SecondLevelCacheMetrics;
+import com.electricitybusiness.api.model.*;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.CacheManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le cache de second niveau et le cache de requêtes sur les données de référence.
+ * Les données sont validées (commit) : seules les écritures validées alimentent les régions.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@EntityScan(basePackages = {"com.electricitybusiness.api.model"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private TerminalRepository terminalRepository;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    private Statistics statistics;
+
+    private Place place;
+
+    private Terminal terminal;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        terminal = transaction.execute(status -> {
+            User owner = userRepository.save(User.builder()
+                    .surnameUser("Nom")
+                    .firstName("Prenom")
+                    .pseudo("pseudo")
+                    .dateOfBirth(LocalDate.of(1990, 1, 1))
+                    .phone("0600000000")
+                    .emailUser("cache@example.com")
+                    .passwordUser("password")
+                    .role(UserRole.USER)
+                    .banished(false)
+                    .build());
+
+            Address address = new Address();
+            address.setNameAddress("Domicile");
+            address.setAddress("1 rue de la Paix");
+            address.setPostCode("75000");
+            address.setCity("Paris");
+            address.setCountry("France");
+            address.setUser(owner);
+            addressRepository.save(address);
+
+            place = new Place();
+            place.setInstructionPlace("Lieu");
+            place.setUser(owner);
+            place.setAddress(address);
+            placeRepository.save(place);
+
+            Terminal created = new Terminal();
+            created.setNameTerminal("Borne");
+            created.setLatitude(BigDecimal.valueOf(48.85));
+            created.setLongitude(BigDecimal.valueOf(2.35));
+            created.setPrice(BigDecimal.valueOf(5));
+            created.setPower(BigDecimal.valueOf(22));
+            created.setStanding(true);
+            created.setStatusTerminal(TerminalStatus.LIBRE);
+            created.setOccupied(false);
+            created.setUser(owner);
+            created.setPlace(place);
+            return terminalRepository.save(created);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transaction.executeWithoutResult(status -> {
+            schedulerLeaseRepository.deleteAll();
+            terminalRepository.deleteAll();
+            placeRepository.deleteAll();
+            addressRepository.deleteAll();
+            userRepository.deleteAll();
+        });
+    }
+
+    /**
+     * Nombre de requêtes SQL émises par le chargement, dans sa propre transaction.
+     */
+    private long statementsFor(Supplier<?> load) {
+        statistics.clear();
+        transaction.execute(status -> load.get());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Cache<?, ?> region(String name) {
+        CacheManager cacheManager = ((JCacheRegionFactory) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegionFactory()).getCacheManager();
+        return cacheManager.getCache(name).unwrap(Cache.class);
+    }
+
+    /**
+     * Teste qu'une recherche par identifiant public répétée est servie par le cache de requêtes, qu'un chargement par identifiant
+     * est servi par la région des lieux, et que les compteurs de la région sont exposés.
+     */
+    @Test
+    void findByPublicId_RepeatedLookupServedFromCaches() {
+        assertThat(statementsFor(() -> placeRepository.findByPublicId(place.getPublicId()))).isEqualTo(1);
+
+        assertThat(statementsFor(() -> placeRepository.findByPublicId(place.getPublicId()))).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        assertThat(statementsFor(() -> placeRepository.findById(place.getIdPlace()))).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new SecondLevelCacheMetrics(entityManagerFactory).bindTo(registry);
+        assertThat(registry.get("hibernate.cache.region.requests")
+                .tag("region", "places").tag("result", "hit").functionCounter().count()).isPositive();
+        assertThat(registry.get("hibernate.cache.region.hit.ratio").tag("region", "places").gauge().value())
+                .isPositive();
+    }
+
+    /**
+     * Teste qu'une modification du lieu invalide le résultat en cache et met à jour la région.
+     */
+    @Test
+    void update_InvalidatesCachedQueryResult() {
+        placeRepository.findByPublicId(place.getPublicId());
+        transaction.executeWithoutResult(status -> {
+            Place managed = placeRepository.findById(place.getIdPlace()).orElseThrow();
+            managed.setInstructionPlace("Lieu modifié");
+        });
+
+        assertThat(statementsFor(() -> placeRepository.findByPublicId(place.getPublicId()))).isEqualTo(1);
+        assertThat(statementsFor(() -> placeRepository.findById(place.getIdPlace()))).isZero();
+        assertThat(placeRepository.findByPublicId(place.getPublicId()).orElseThrow().getInstructionPlace())
+                .isEqualTo("Lieu modifié");
+    }
+
+    /**
+     * Teste que les bornes, dont l'état change à chaque réservation, sont toujours relues en base :
+     * une modification faite par une autre instance est visible dès le chargement suivant.
+     */
+    @Test
+    void terminal_NotCached() {
+        assertThat(statementsFor(() -> terminalRepository.findByPublicId(terminal.getPublicId()))).isEqualTo(1);
+        assertThat(statementsFor(() -> terminalRepository.findByPublicId(terminal.getPublicId()))).isEqualTo(1);
+        assertThat(statementsFor(() -> terminalRepository.findById(terminal.getIdTerminal()))).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isZero();
+    }
+
+    /**
+     * Teste que la requête native des baux, qui déclare sa table, n'évince pas les régions des entités.
+     */
+    @Test
+    void nativeLeaseInsert_KeepsEntityRegions() {
+        placeRepository.findById(place.getIdPlace());
+        transaction.executeWithoutResult(status ->
+                schedulerLeaseRepository.insertLease("cache-test", "node", LocalDateTime.now().plusMinutes(1)));
+
+        assertThat(statementsFor(() -> placeRepository.findById(place.getIdPlace()))).isZero();
+    }
+
+    /**
+     * Teste que chaque région reçoit la taille maximale de sa configuration,
+     * et que la région des dates de modification des tables n'est jamais évincée.
+     */
+    @Test
+    void regions_UseConfiguredBounds() {
+        for (String name : new String[]{"places", "addresses", "options", "default-query-results-region"}) {
+            assertThat(region(name).policy().eviction().orElseThrow().getMaximum()).isEqualTo(10000);
+        }
+        assertThat(region("medias").policy().eviction().orElseThrow().getMaximum()).isEqualTo(5000);
+        assertThat(region("default-update-timestamps-region").policy().eviction()).isEmpty();
+    }
+}
@@ -1,5 +1,6 @@
 package com.electricitybusiness.api.repository;
 
+import com.electricitybusiness.api.dto.terminal.TerminalPointDTO;
 import com.electricitybusiness.api.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -637,4 +639,121 @@ public class TerminalRepositoryTest {
         assertThat(results).isNotNull();
         assertThat(results).isEmpty();
     }
+
+    /**
+     * Test de la méthode updateStatusByPublicIdIn du TerminalRepository.
+     * Vérifie que seuls les terminaux demandés sont mis à jour, en une seule requête.
+     */
+    @Test
+    void testUpdateStatusByPublicIdIn() {
+        int updated = terminalRepository.updateStatusByPublicIdIn(
+                List.of(terminal2.getPublicId(), terminal3.getPublicId()), TerminalStatus.OCCUPEE, true);
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(terminalRepository.findByOccupied(true)).extracting(Terminal::getNameTerminal)
+                .containsExactlyInAnyOrder("Term1 - Occupied", "Term2 - Free", "Term3 - Free");
+        assertThat(terminalRepository.findByPublicId(terminalFar.getPublicId()))
+                .hasValueSatisfying(terminal -> assertThat(terminal.getStatusTerminal()).isEqualTo(TerminalStatus.LIBRE));
+    }
+
+    /**
+     * Teste que les terminaux déjà dans l'état demandé ne sont pas comptés comme modifiés.
+     */
+    @Test
+    void testUpdateStatusByPublicIdIn_SkipsTerminalsAlreadyInTargetState() {
+        terminalRepository.updateStatusByPublicIdIn(List.of(terminal2.getPublicId()), TerminalStatus.OCCUPEE, true);
+
+        int updated = terminalRepository.updateStatusByPublicIdIn(
+                List.of(terminal2.getPublicId(), terminal3.getPublicId()), TerminalStatus.OCCUPEE, true);
+
+        assertThat(updated).isEqualTo(1);
+    }
+
+    /**
+     * Test de la méthode searchTerminals du TerminalRepository avec une borne dans le rectangle englobant
+     * mais hors du cercle de recherche : le préfiltre ne remplace pas le calcul exact de la distance.
+     */
+    @Test
+    void testSearchTerminals_TerminalInBoundingBoxCorner_IsExcluded() {
+        Terminal corner = new Terminal(null, UUID.randomUUID(), "TermCorner",
+                new BigDecimal("48.89000000"), new BigDecimal("2.41000000"),
+                new BigDecimal("3.00"), new BigDecimal("30.00"), "Instruction coin",
+                false, TerminalStatus.LIBRE,
+                false, LocalDateTime.of(2018,3,4,7,40,50),
+                LocalDateTime.of(2018,3,4,7,40,50),
+                user1, null, place1, null, null);
+        terminalRepository.save(corner);
+        BigDecimal longitude = new BigDecimal("2.35");
+        BigDecimal latitude = new BigDecimal("48.85");
+        double radius = 5.0;
+
+        GeoBoundingBox box = GeoBoundingBox.around(latitude, longitude, radius);
+        List<Terminal> inBox = terminalRepository.searchTerminalsWithinBox(null, null, null,
+                box.minLatitude(), box.maxLatitude(), box.minLongitude(), box.maxLongitude(), false, null, null);
+        List<Terminal> results = terminalRepository.searchTerminals(longitude, latitude, radius, false, null, null);
+
+        assertThat(inBox).extracting(Terminal::getNameTerminal).contains("TermCorner");
+        assertThat(results).extracting(Terminal::getNameTerminal)
+                .containsExactlyInAnyOrder("Term2 - Free", "Term3 - Free", "TermAnotherPlace");
+    }
+
+    /**
+     * Teste la vérification des candidats de l'index spatial : seuls les terminaux libres,
+     * non occupés et sans réservation sur la période sont conservés.
+     */
+    @Test
+    void testFindAvailableByPublicIdIn_FiltersStatusOccupationAndBookings() {
+        Booking booking = new Booking(null, UUID.randomUUID(), user1, null, terminal3, null,
+                "CODE-AVAIL", BookingStatus.ACCEPTEE, new BigDecimal("10.00"), LocalDateTime.now(),
+                LocalDateTime.of(2030, 1, 1, 10, 0), LocalDateTime.of(2030, 1, 1, 12, 0));
+        bookingRepository.save(booking);
+
+        List<Terminal> results = terminalRepository.findAvailableByPublicIdIn(
+                List.of(terminal1.getPublicId(), terminal2.getPublicId(), terminal3.getPublicId()),
+                false, LocalDateTime.of(2030, 1, 1, 11, 0), LocalDateTime.of(2030, 1, 1, 13, 0));
+
+        assertThat(results).extracting(Terminal::getNameTerminal).containsExactly("Term2 - Free");
+    }
+
+    /**
+     * Teste que seules les réservations actives (EN_ATTENTE ou ACCEPTEE) rendent un terminal indisponible,
+     * comme dans l'index des créneaux : une réservation refusée ne bloque pas la période,
+     * une réservation en attente la bloque.
+     */
+    @Test
+    void testSearchAndFindAvailable_IgnoreInactiveBookings() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        bookingRepository.save(new Booking(null, UUID.randomUUID(), user1, null, terminal2, null,
+                "CODE-REFUSED", BookingStatus.REFUSEE, new BigDecimal("10.00"), LocalDateTime.now(),
+                start, start.plusHours(2)));
+        bookingRepository.save(new Booking(null, UUID.randomUUID(), user1, null, terminal3, null,
+                "CODE-PENDING", BookingStatus.EN_ATTENTE, new BigDecimal("10.00"), LocalDateTime.now(),
+                start, start.plusHours(2)));
+
+        List<Terminal> searched = terminalRepository.searchTerminals(new BigDecimal("2.35"), new BigDecimal("48.85"),
+                5.0, false, start.plusHours(1), start.plusHours(3));
+        List<Terminal> available = terminalRepository.findAvailableByPublicIdIn(
+                List.of(terminal2.getPublicId(), terminal3.getPublicId()),
+                false, start.plusHours(1), start.plusHours(3));
+
+        assertThat(searched).extracting(Terminal::getNameTerminal)
+                .contains("Term2 - Free")
+                .doesNotContain("Term3 - Free");
+        assertThat(available).extracting(Terminal::getNameTerminal).containsExactly("Term2 - Free");
+    }
+
+    /**
+     * Teste le parcours par pages des positions des terminaux.
+     */
+    @Test
+    void testFindPointsAfter_PagesThroughAllTerminals() {
+        List<TerminalPointDTO> firstPage = terminalRepository.findPointsAfter(0L, PageRequest.ofSize(3));
+        List<TerminalPointDTO> secondPage = terminalRepository.findPointsAfter(
+                firstPage.get(firstPage.size() - 1).getIdTerminal(), PageRequest.ofSize(3));
+
+        assertThat(firstPage).hasSize(3);
+        assertThat(firstPage.size() + secondPage.size()).isEqualTo(terminalRepository.count());
+        assertThat(firstPage.get(0).getLatitude()).isNotNull();
+    }
 }
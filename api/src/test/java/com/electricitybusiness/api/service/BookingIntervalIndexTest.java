@@ -0,0 +1,300 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.dto.booking.BookingSlotDTO;
+import com.electricitybusiness.api.model.Booking;
+import com.electricitybusiness.api.model.BookingStatus;
+import com.electricitybusiness.api.model.Terminal;
+import com.electricitybusiness.api.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Spy
+    private Clock clock = Clock.system(BookingService.BOOKING_ZONE);
+
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private Terminal terminal;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        terminal = new Terminal();
+        terminal.setPublicId(UUID.randomUUID());
+        base = LocalDateTime.now(clock).plusDays(1).withNano(0);
+    }
+
+    private Booking booking(BookingStatus status, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setPublicId(UUID.randomUUID());
+        booking.setTerminal(terminal);
+        booking.setStatusBooking(status);
+        booking.setStartingDate(start);
+        booking.setEndingDate(end);
+        return booking;
+    }
+
+    /**
+     * Test de la détection d'un chevauchement avec une réservation indexée.
+     */
+    @Test
+    void overlaps_WithIndexedBooking_DetectsOverlapAndIgnoresAdjacentSlots() {
+        bookingIntervalIndex.index(booking(BookingStatus.ACCEPTEE, base, base.plusHours(2)));
+        bookingIntervalIndex.index(booking(BookingStatus.EN_ATTENTE, base.plusHours(4), base.plusHours(5)));
+
+        UUID terminalId = terminal.getPublicId();
+        assertThat(bookingIntervalIndex.overlaps(terminalId, base.plusHours(1), base.plusHours(3))).isTrue();
+        assertThat(bookingIntervalIndex.overlaps(terminalId, base.minusHours(1), base.plusMinutes(1))).isTrue();
+        assertThat(bookingIntervalIndex.overlaps(terminalId, base.plusHours(3), base.plusHours(6))).isTrue();
+        assertThat(bookingIntervalIndex.overlaps(terminalId, base.plusHours(2), base.plusHours(4))).isFalse();
+        assertThat(bookingIntervalIndex.overlaps(terminalId, base.minusHours(2), base)).isFalse();
+        assertThat(bookingIntervalIndex.overlaps(UUID.randomUUID(), base, base.plusHours(2))).isFalse();
+    }
+
+    /**
+     * Test de la détection d'un chevauchement avec un créneau long qui n'est pas le plus proche de la période.
+     */
+    @Test
+    void overlaps_WithOverlappingSlotsFromUpdates_ChecksEarlierLongSlot() {
+        bookingIntervalIndex.index(booking(BookingStatus.ACCEPTEE, base, base.plusHours(10)));
+        bookingIntervalIndex.index(booking(BookingStatus.EN_ATTENTE, base.plusHours(1), base.plusHours(2)));
+
+        UUID terminalId = terminal.getPublicId();
+        assertThat(bookingIntervalIndex.overlaps(terminalId, base.plusHours(5), base.plusHours(6))).isTrue();
+        assertThat(bookingIntervalIndex.isFree(terminalId, base.plusHours(5), base.plusHours(6))).isFalse();
+        assertThat(bookingIntervalIndex.overlaps(terminalId, base.plusHours(10), base.plusHours(11))).isFalse();
+    }
+
+    /**
+     * Test de la mise à jour de l'index lors d'un changement de statut ou d'une suppression.
+     */
+    @Test
+    void index_WithRefusedStatusOrRemoval_FreesSlot() {
+        Booking booking = booking(BookingStatus.EN_ATTENTE, base, base.plusHours(2));
+        bookingIntervalIndex.index(booking);
+        assertThat(bookingIntervalIndex.overlaps(terminal.getPublicId(), base, base.plusHours(1))).isTrue();
+
+        booking.setStatusBooking(BookingStatus.REFUSEE);
+        bookingIntervalIndex.index(booking);
+        assertThat(bookingIntervalIndex.overlaps(terminal.getPublicId(), base, base.plusHours(1))).isFalse();
+        assertThat(bookingIntervalIndex.size()).isZero();
+
+        Booking other = booking(BookingStatus.ACCEPTEE, base, base.plusHours(2));
+        bookingIntervalIndex.index(other);
+        bookingIntervalIndex.remove(other.getPublicId());
+        assertThat(bookingIntervalIndex.overlaps(terminal.getPublicId(), base, base.plusHours(1))).isFalse();
+    }
+
+    /**
+     * Test du déplacement d'un créneau lors de la modification d'une réservation.
+     */
+    @Test
+    void index_WithUpdatedDates_MovesSlot() {
+        Booking booking = booking(BookingStatus.ACCEPTEE, base, base.plusHours(2));
+        bookingIntervalIndex.index(booking);
+
+        booking.setStartingDate(base.plusHours(6));
+        booking.setEndingDate(base.plusHours(7));
+        bookingIntervalIndex.index(booking);
+
+        assertThat(bookingIntervalIndex.overlaps(terminal.getPublicId(), base, base.plusHours(2))).isFalse();
+        assertThat(bookingIntervalIndex.overlaps(terminal.getPublicId(), base.plusHours(6), base.plusHours(8))).isTrue();
+        assertThat(bookingIntervalIndex.size()).isEqualTo(1);
+    }
+
+    /**
+     * Test du chargement initial de l'index depuis la base de données.
+     */
+    @Test
+    void warmUp_LoadsActiveSlotsFromRepository() {
+        BookingSlotDTO slot = new BookingSlotDTO(UUID.randomUUID(), terminal.getPublicId(),
+                base, base.plusHours(1), BookingStatus.ACCEPTEE);
+        when(bookingRepository.findActiveSlotsEndingAfter(any(LocalDateTime.class))).thenReturn(List.of(slot));
+
+        bookingIntervalIndex.warmUp();
+
+        assertThat(bookingIntervalIndex.size()).isEqualTo(1);
+        assertThat(bookingIntervalIndex.overlaps(terminal.getPublicId(), base.plusMinutes(30), base.plusHours(2))).isTrue();
+    }
+
+    /**
+     * Test de la mise à jour incrémentale : seules les réservations modifiées depuis la dernière lecture
+     * (avec une minute de recouvrement) sont relues ; une réservation refusée par une autre instance est retirée,
+     * une réservation créée par une autre instance est ajoutée.
+     */
+    @Test
+    void refresh_AppliesBookingsChangedByOtherInstances() {
+        UUID refusedId = UUID.randomUUID();
+        BookingSlotDTO accepted = new BookingSlotDTO(refusedId, terminal.getPublicId(),
+                base, base.plusHours(1), BookingStatus.ACCEPTEE);
+        BookingSlotDTO refused = new BookingSlotDTO(refusedId, terminal.getPublicId(),
+                base, base.plusHours(1), BookingStatus.REFUSEE);
+        BookingSlotDTO created = new BookingSlotDTO(UUID.randomUUID(), terminal.getPublicId(),
+                base.plusHours(3), base.plusHours(4), BookingStatus.EN_ATTENTE);
+        when(bookingRepository.findActiveSlotsEndingAfter(any(LocalDateTime.class))).thenReturn(List.of(accepted));
+        Instant warmedUpAt = Instant.now(clock);
+        bookingIntervalIndex.warmUp();
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        when(bookingRepository.findSlotsUpdatedSince(since.capture())).thenReturn(List.of(refused, created));
+
+        bookingIntervalIndex.refresh();
+
+        UUID terminalId = terminal.getPublicId();
+        assertThat(since.getValue()).isBefore(warmedUpAt.minusSeconds(59));
+        assertThat(bookingIntervalIndex.size()).isEqualTo(1);
+        assertThat(bookingIntervalIndex.isFree(terminalId, base, base.plusHours(1))).isTrue();
+        assertThat(bookingIntervalIndex.isFree(terminalId, base.plusHours(3), base.plusHours(4))).isFalse();
+        verify(bookingRepository, times(1)).findActiveSlotsEndingAfter(any(LocalDateTime.class));
+    }
+
+    /**
+     * Test de la resynchronisation complète : les réservations connues de la seule base sont ajoutées,
+     * celles absentes de la base (supprimées par une autre instance) sont retirées.
+     */
+    @Test
+    void resync_RemovesBookingsDeletedByOtherInstances() {
+        BookingSlotDTO deleted = new BookingSlotDTO(UUID.randomUUID(), terminal.getPublicId(),
+                base, base.plusHours(1), BookingStatus.ACCEPTEE);
+        BookingSlotDTO created = new BookingSlotDTO(UUID.randomUUID(), terminal.getPublicId(),
+                base.plusHours(3), base.plusHours(4), BookingStatus.EN_ATTENTE);
+        when(bookingRepository.findActiveSlotsEndingAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(deleted))
+                .thenReturn(List.of(created));
+        bookingIntervalIndex.warmUp();
+
+        bookingIntervalIndex.resync();
+
+        UUID terminalId = terminal.getPublicId();
+        assertThat(bookingIntervalIndex.size()).isEqualTo(1);
+        assertThat(bookingIntervalIndex.isFree(terminalId, base, base.plusHours(1))).isTrue();
+        assertThat(bookingIntervalIndex.isFree(terminalId, base.plusHours(3), base.plusHours(4))).isFalse();
+    }
+
+    /**
+     * Test de la purge : une borne dont toutes les réservations sont terminées ne garde
+     * ni créneau ni carte de bits.
+     */
+    @Test
+    void index_WithOnlyEndedBookings_DropsTerminalSetAndBitmap() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Booking ended = booking(BookingStatus.ACCEPTEE, now.minusHours(2), now.minusHours(1));
+        Booking running = booking(BookingStatus.ACCEPTEE, now.minusHours(3), now.plusHours(1));
+        bookingIntervalIndex.index(running);
+        bookingIntervalIndex.index(ended);
+        assertThat(bookingIntervalIndex.size()).isEqualTo(1);
+
+        bookingIntervalIndex.remove(running.getPublicId());
+        assertThat(bookingIntervalIndex.size()).isZero();
+        assertThat(bookingIntervalIndex.getBitmapCount()).isZero();
+        assertThat(bookingIntervalIndex.getBitmapBytes()).isZero();
+    }
+
+    /**
+     * Test du fuseau : sur un hôte en UTC, une réservation terminée à l'heure de Paris est purgée
+     * alors qu'elle ne le serait pas encore à l'heure de l'hôte.
+     */
+    @Test
+    void index_OnUtcHost_PrunesInBookingZone() {
+        // 11 h à Paris
+        Clock parisClock = Clock.fixed(Instant.parse("2026-03-10T10:00:00Z"), BookingService.BOOKING_ZONE);
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, parisClock);
+
+        index.index(booking(BookingStatus.ACCEPTEE, LocalDateTime.of(2026, 3, 10, 10, 15), LocalDateTime.of(2026, 3, 10, 10, 45)));
+
+        assertThat(index.size()).isZero();
+    }
+
+    /**
+     * Test de la disponibilité par carte de bits : deux réservations non alignées partagent un quart d'heure,
+     * la suppression de l'une ne libère pas le quart d'heure encore occupé par l'autre.
+     */
+    @Test
+    void isFree_WithUnalignedBookingsSharingQuarterHour_IsExact() {
+        LocalDateTime quarter = base.withMinute(0).withSecond(0);
+        Booking first = booking(BookingStatus.ACCEPTEE, quarter.minusHours(1), quarter.plusMinutes(5));
+        Booking second = booking(BookingStatus.EN_ATTENTE, quarter.plusMinutes(10), quarter.plusHours(1));
+        bookingIntervalIndex.index(first);
+        bookingIntervalIndex.index(second);
+
+        UUID terminalId = terminal.getPublicId();
+        assertThat(bookingIntervalIndex.isFree(terminalId, quarter.plusMinutes(5), quarter.plusMinutes(10))).isTrue();
+        assertThat(bookingIntervalIndex.isFree(terminalId, quarter.plusMinutes(4), quarter.plusMinutes(10))).isFalse();
+        assertThat(bookingIntervalIndex.isFree(terminalId, quarter.plusHours(1), quarter.plusHours(3))).isTrue();
+
+        bookingIntervalIndex.remove(first.getPublicId());
+        assertThat(bookingIntervalIndex.isFree(terminalId, quarter.minusHours(1), quarter.plusMinutes(10))).isTrue();
+        assertThat(bookingIntervalIndex.isFree(terminalId, quarter.plusMinutes(5), quarter.plusMinutes(11))).isFalse();
+        assertThat(bookingIntervalIndex.isFree(UUID.randomUUID(), quarter, quarter.plusHours(1))).isTrue();
+    }
+
+    /**
+     * Test de la disponibilité sur des périodes aléatoires, dans et au-delà de l'horizon de 60 jours,
+     * comparée au chevauchement calculé par l'ensemble trié.
+     */
+    @Test
+    void isFree_WithRandomBookings_MatchesOverlaps() {
+        Random random = new Random(7);
+        LocalDateTime start = base;
+        for (int i = 0; i < 400; i++) {
+            start = start.plusMinutes(random.nextInt(600));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(300));
+            bookingIntervalIndex.index(booking(BookingStatus.ACCEPTEE, start, end));
+            start = end;
+        }
+
+        UUID terminalId = terminal.getPublicId();
+        for (int i = 0; i < 5000; i++) {
+            LocalDateTime from = base.plusMinutes(random.nextInt(70 * 24 * 60));
+            LocalDateTime to = from.plusMinutes(1 + random.nextInt(24 * 60));
+            assertThat(bookingIntervalIndex.isFree(terminalId, from, to))
+                    .isEqualTo(!bookingIntervalIndex.overlaps(terminalId, from, to));
+        }
+    }
+
+    /**
+     * Test de la mémoire des cartes de bits : une carte par borne ayant une réservation active, libérée ensuite.
+     */
+    @Test
+    void bitmapBytes_CountsOnlyTerminalsWithActiveBookings() {
+        Booking first = booking(BookingStatus.ACCEPTEE, base, base.plusHours(1));
+        Booking second = booking(BookingStatus.EN_ATTENTE, base.plusHours(2), base.plusHours(3));
+        bookingIntervalIndex.index(first);
+        bookingIntervalIndex.index(second);
+
+        assertThat(bookingIntervalIndex.getBitmapCount()).isEqualTo(1);
+        assertThat(bookingIntervalIndex.getBitmapBytes()).isEqualTo(BookingIntervalIndex.BITMAP_BYTES).isEqualTo(720);
+
+        bookingIntervalIndex.remove(first.getPublicId());
+        assertThat(bookingIntervalIndex.getBitmapCount()).isEqualTo(1);
+
+        second.setStatusBooking(BookingStatus.REFUSEE);
+        bookingIntervalIndex.index(second);
+        assertThat(bookingIntervalIndex.getBitmapCount()).isZero();
+        assertThat(bookingIntervalIndex.getBitmapBytes()).isZero();
+    }
+}
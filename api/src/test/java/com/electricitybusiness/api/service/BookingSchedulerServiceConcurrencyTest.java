@@ -0,0 +1,194 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.model.Booking;
+import com.electricitybusiness.api.model.BookingStatus;
+import com.electricitybusiness.api.model.BookingTransition;
+import com.electricitybusiness.api.model.Terminal;
+import com.electricitybusiness.api.model.TransitionType;
+import com.electricitybusiness.api.repository.BookingTransitionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests de concurrence de la file de transitions sur une vraie base H2.
+ * Chaque appel au service s'exécute dans sa propre transaction, comme depuis les contrôleurs.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EntityScan(basePackages = {"com.electricitybusiness.api.model"})
+@Import({BookingSchedulerService.class, BookingSchedulerServiceConcurrencyTest.ClockConfig.class})
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:booking-scheduler-concurrency;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingSchedulerServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int BOOKINGS_PER_THREAD = 10;
+
+    @TestConfiguration
+    static class ClockConfig {
+        @Bean
+        Clock clock() {
+            return Clock.system(BookingService.BOOKING_ZONE);
+        }
+    }
+
+    @Autowired
+    private BookingSchedulerService bookingSchedulerService;
+
+    @Autowired
+    private BookingTransitionRepository bookingTransitionRepository;
+
+    @MockitoBean
+    private TerminalSearchCache terminalSearchCache;
+
+    private final LocalDateTime start = LocalDateTime.now(BookingService.BOOKING_ZONE).plusDays(2).withNano(0);
+
+    @AfterEach
+    void tearDown() {
+        bookingTransitionRepository.deleteAll();
+    }
+
+    private Booking newBooking(LocalDateTime startingDate) {
+        Terminal terminal = new Terminal();
+        terminal.setPublicId(UUID.randomUUID());
+
+        Booking booking = new Booking();
+        booking.setPublicId(UUID.randomUUID());
+        booking.setTerminal(terminal);
+        booking.setStatusBooking(BookingStatus.EN_ATTENTE);
+        booking.setStartingDate(startingDate);
+        booking.setEndingDate(startingDate.plusHours(2));
+        return booking;
+    }
+
+    private Instant startInstant(Booking booking) {
+        return booking.getStartingDate().atZone(BookingService.BOOKING_ZONE).toInstant();
+    }
+
+    /**
+     * Planifications, replanifications et annulations concurrentes sur des réservations distinctes :
+     * chaque réservation conservée a exactement ses trois transitions, les annulées n'en laissent aucune.
+     */
+    @Test
+    void scheduleAndCancel_ConcurrentOnDistinctBookings_LeavesNoOrphanRows() throws Exception {
+        List<Booking> kept = new CopyOnWriteArrayList<>();
+        List<Booking> cancelled = new CopyOnWriteArrayList<>();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+
+        runConcurrently(THREADS, i -> {
+            for (int j = 0; j < BOOKINGS_PER_THREAD; j++) {
+                try {
+                    Booking booking = newBooking(start.plusMinutes(i * BOOKINGS_PER_THREAD + j));
+                    bookingSchedulerService.scheduleBookingTasks(booking);
+                    bookingSchedulerService.scheduleAutoValidationTask(booking.getPublicId(), startInstant(booking));
+
+                    // Modification : les transitions existantes sont remplacées
+                    booking.setEndingDate(booking.getEndingDate().plusHours(1));
+                    bookingSchedulerService.scheduleBookingTasks(booking);
+
+                    if (j % 2 == 0) {
+                        bookingSchedulerService.cancelBookingTasks(booking.getPublicId());
+                        bookingSchedulerService.cancelAutoValidationTask(booking.getPublicId());
+                        cancelled.add(booking);
+                    } else {
+                        kept.add(booking);
+                    }
+                } catch (Throwable t) {
+                    unexpected.add(t);
+                }
+            }
+        });
+
+        assertThat(unexpected).isEmpty();
+        assertThat(bookingSchedulerService.getRegisteredTaskCount()).isEqualTo(3L * kept.size());
+        assertThat(bookingTransitionRepository.findByBookingPublicIdIn(
+                cancelled.stream().map(Booking::getPublicId).toList())).isEmpty();
+
+        List<BookingTransition> remaining = bookingTransitionRepository.findByBookingPublicIdIn(
+                kept.stream().map(Booking::getPublicId).toList());
+        for (Booking booking : kept) {
+            assertThat(remaining)
+                    .filteredOn(transition -> transition.getBookingPublicId().equals(booking.getPublicId()))
+                    .extracting(BookingTransition::getTransitionType, BookingTransition::getDueAt)
+                    .containsExactlyInAnyOrder(
+                            tuple(TransitionType.OCCUPATION_BORNE, booking.getStartingDate()),
+                            tuple(TransitionType.LIBERATION_BORNE, booking.getEndingDate()),
+                            tuple(TransitionType.AUTO_VALIDATION, booking.getStartingDate().minusMinutes(30)));
+        }
+    }
+
+    /**
+     * Replanifications concurrentes d'une même réservation : la contrainte d'unicité garantit
+     * qu'il ne reste qu'une occupation et une libération, jamais de doublon.
+     */
+    @Test
+    void scheduleBookingTasks_ConcurrentOnSameBooking_KeepsSinglePair() throws Exception {
+        Booking booking = newBooking(start);
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+
+        runConcurrently(THREADS, i -> {
+            try {
+                bookingSchedulerService.scheduleBookingTasks(booking);
+            } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+                // Une autre transaction a inséré la même transition en premier
+            } catch (Throwable t) {
+                unexpected.add(t);
+            }
+        });
+
+        assertThat(unexpected).isEmpty();
+        assertThat(bookingTransitionRepository.findByBookingPublicIdIn(List.of(booking.getPublicId())))
+                .extracting(BookingTransition::getTransitionType)
+                .containsExactlyInAnyOrder(TransitionType.OCCUPATION_BORNE, TransitionType.LIBERATION_BORNE);
+    }
+
+    private void runConcurrently(int threads, IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    task.accept(index);
+                    return null;
+                }));
+            }
+            ready.await();
+            go.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
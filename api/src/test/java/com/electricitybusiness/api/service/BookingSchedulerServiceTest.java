@@ -1,29 +1,31 @@
 package com.electricitybusiness.api.service;
 
-import com.electricitybusiness.api.model.Booking;
-import com.electricitybusiness.api.model.BookingStatus;
-import com.electricitybusiness.api.model.Terminal;
-import com.electricitybusiness.api.model.TerminalStatus;
+import com.electricitybusiness.api.dto.booking.BookingSlotDTO;
+import com.electricitybusiness.api.model.*;
 import com.electricitybusiness.api.repository.BookingRepository;
+import com.electricitybusiness.api.repository.BookingTransitionRepository;
+import com.electricitybusiness.api.repository.TerminalRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.data.domain.Pageable;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Date;
-import java.util.Map;
-import java.util.Optional;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.ZoneOffset;
+import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,19 +33,40 @@ import static org.mockito.Mockito.*;
 public class BookingSchedulerServiceTest {
 
     @Mock
-    private ThreadPoolTaskScheduler taskScheduler;
+    private BookingTransitionRepository bookingTransitionRepository;
 
     @Mock
-    private TerminalService terminalService;
+    private TerminalRepository terminalRepository;
 
     @Mock
     private BookingRepository bookingRepository;
 
-    private Map<UUID, Runnable> autoValidationTasks = new ConcurrentHashMap<>();
+    @Mock
+    private TerminalSearchCache terminalSearchCache;
+
+    @Spy
+    private Clock clock = Clock.system(BookingService.BOOKING_ZONE);
 
     @InjectMocks
     private BookingSchedulerService bookingSchedulerService;
 
+    private long nextTransitionId = 1;
+
+    private Booking newBooking(LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setPublicId(UUID.randomUUID());
+        Terminal terminal = new Terminal();
+        terminal.setPublicId(UUID.randomUUID());
+        booking.setTerminal(terminal);
+        booking.setStartingDate(start);
+        booking.setEndingDate(start.plusHours(2));
+        return booking;
+    }
+
+    private BookingTransition transition(TransitionType type, UUID terminalPublicId, LocalDateTime dueAt) {
+        return new BookingTransition(nextTransitionId++, UUID.randomUUID(), terminalPublicId, type, dueAt);
+    }
+
     /**
      * Test de la méthode scheduleBookingTasks pour vérifier qu'aucune tâche n'est programmée
      * si la réservation est nulle.
@@ -57,8 +80,8 @@ public class BookingSchedulerServiceTest {
         bookingSchedulerService.scheduleBookingTasks(booking);
 
         // Assert
-        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Date.class));
-        verify(terminalService, never()).setOccupiedByPublicId(any(UUID.class), any(TerminalStatus.class), anyBoolean());
+        verify(bookingTransitionRepository, never()).saveAll(anyList());
+        verifyNoInteractions(terminalRepository);
     }
 
     /**
@@ -76,8 +99,8 @@ public class BookingSchedulerServiceTest {
         bookingSchedulerService.scheduleBookingTasks(booking);
 
         // Assert
-        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Date.class));
-        verify(terminalService, never()).setOccupiedByPublicId(any(UUID.class), any(TerminalStatus.class), anyBoolean());
+        verify(bookingTransitionRepository, never()).saveAll(anyList());
+        verifyNoInteractions(terminalRepository);
     }
 
     /**
@@ -87,23 +110,41 @@ public class BookingSchedulerServiceTest {
     @Test
     void scheduleBookingTasks_WithPastStartDate_DoesNotScheduleTasks() {
         // Arrange
-        Booking booking = new Booking();
-        booking.setPublicId(UUID.randomUUID());
-        Terminal terminal = new Terminal();
-        terminal.setPublicId(UUID.randomUUID());
-        booking.setTerminal(terminal);
+        Booking booking = newBooking(LocalDateTime.now(clock).minusHours(1));
 
-        // Convertir Instant en LocalDateTime
-        LocalDateTime now = LocalDateTime.now();
-        booking.setStartingDate(now.minusHours(1));
-        booking.setEndingDate(now.plusHours(1));
+        // Act
+        bookingSchedulerService.scheduleBookingTasks(booking);
+
+        // Assert
+        verify(bookingTransitionRepository, never()).saveAll(anyList());
+        verifyNoInteractions(terminalRepository);
+    }
+
+    /**
+     * Test de la méthode scheduleBookingTasks pour vérifier que l'occupation et la libération
+     * du terminal sont persistées aux dates de la réservation, après annulation des anciennes.
+     */
+    @Test
+    void scheduleBookingTasks_WithFutureBooking_PersistsTwoTransitions() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.now(clock).plusHours(1);
+        Booking booking = newBooking(start);
 
         // Act
         bookingSchedulerService.scheduleBookingTasks(booking);
 
         // Assert
-        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Date.class));
-        verify(terminalService, never()).setOccupiedByPublicId(any(UUID.class), any(TerminalStatus.class), anyBoolean());
+        verify(bookingTransitionRepository).deleteByBookingPublicIdAndTransitionTypeIn(eq(booking.getPublicId()),
+                eq(EnumSet.of(TransitionType.OCCUPATION_BORNE, TransitionType.LIBERATION_BORNE)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookingTransition>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookingTransitionRepository).saveAll(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(BookingTransition::getTransitionType, BookingTransition::getDueAt)
+                .containsExactly(
+                        tuple(TransitionType.OCCUPATION_BORNE, start),
+                        tuple(TransitionType.LIBERATION_BORNE, start.plusHours(2)));
     }
 
     /**
@@ -120,37 +161,208 @@ public class BookingSchedulerServiceTest {
         bookingSchedulerService.scheduleAutoValidationTask(bookingPublicId, bookingStartInstant);
 
         // Assert
-        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Date.class));
+        verify(bookingTransitionRepository, never()).save(any(BookingTransition.class));
     }
 
     /**
-     * Test de la méthode scheduleAutoValidationTask pour vérifier qu'une réservation en attente
-     * est automatiquement validée après le délai imparti.
+     * Test de la méthode scheduleAutoValidationTask pour vérifier que l'auto-validation
+     * est persistée 30 minutes avant le début de la réservation.
      */
     @Test
-    void scheduleAutoValidationTask_WithBookingNotInWaitingStatus_DoesNotChangeStatus() {
+    void scheduleAutoValidationTask_WithFutureDate_PersistsTransition() {
         // Arrange
         UUID bookingPublicId = UUID.randomUUID();
-        Instant bookingStartInstant = Instant.now().plus(Duration.ofMinutes(31));
-        Instant scheduleTime = bookingStartInstant.minus(Duration.ofMinutes(30));
+        Instant bookingStartInstant = Instant.now().plus(Duration.ofHours(2));
 
-        Booking booking = new Booking();
-        booking.setPublicId(bookingPublicId);
-        booking.setStatusBooking(BookingStatus.ACCEPTEE);
+        // Act
+        bookingSchedulerService.scheduleAutoValidationTask(bookingPublicId, bookingStartInstant);
 
-        when(bookingRepository.findByPublicId(bookingPublicId)).thenReturn(Optional.of(booking));
+        // Assert
+        ArgumentCaptor<BookingTransition> captor = ArgumentCaptor.forClass(BookingTransition.class);
+        verify(bookingTransitionRepository).save(captor.capture());
+        assertThat(captor.getValue().getTransitionType()).isEqualTo(TransitionType.AUTO_VALIDATION);
+        assertThat(captor.getValue().getBookingPublicId()).isEqualTo(bookingPublicId);
+        assertThat(captor.getValue().getDueAt()).isEqualTo(
+                LocalDateTime.ofInstant(bookingStartInstant.minus(Duration.ofMinutes(30)), BookingService.BOOKING_ZONE));
+    }
+
+    /**
+     * Test que les dates des réservations sont lues dans le fuseau des réservations, et non dans celui de l'hôte :
+     * sur un hôte en UTC, une réservation commencée à Paris n'est pas planifiée, et l'auto-validation
+     * est datée à l'heure de Paris.
+     */
+    @Test
+    void scheduleTasks_OnUtcHost_UsesBookingZone() {
+        // Arrange : 10 h UTC, soit 11 h à Paris
+        Clock utcHost = Clock.fixed(Instant.parse("2026-03-10T10:00:00Z"), ZoneOffset.UTC);
+        BookingSchedulerService service = new BookingSchedulerService(bookingTransitionRepository, terminalRepository,
+                bookingRepository, terminalSearchCache, utcHost);
+        Booking startedInParis = newBooking(LocalDateTime.of(2026, 3, 10, 10, 30));
 
         // Act
-        bookingSchedulerService.scheduleAutoValidationTask(bookingPublicId, bookingStartInstant);
+        service.scheduleBookingTasks(startedInParis);
+        service.scheduleAutoValidationTask(UUID.randomUUID(), Instant.parse("2026-03-10T12:00:00Z"));
+
+        // Assert
+        verify(bookingTransitionRepository, never()).saveAll(anyList());
+        ArgumentCaptor<BookingTransition> captor = ArgumentCaptor.forClass(BookingTransition.class);
+        verify(bookingTransitionRepository).save(captor.capture());
+        assertThat(captor.getValue().getDueAt()).isEqualTo(LocalDateTime.of(2026, 3, 10, 12, 30));
+    }
+
+    /**
+     * Test de la méthode cancelBookingTasks pour vérifier que les transitions supprimées sont comptées.
+     */
+    @Test
+    void cancelBookingTasks_WithScheduledBooking_DeletesTransitions() {
+        // Arrange
+        UUID bookingPublicId = UUID.randomUUID();
+        when(bookingTransitionRepository.deleteByBookingPublicIdAndTransitionTypeIn(eq(bookingPublicId), anyCollection()))
+                .thenReturn(2);
+
+        // Act
+        bookingSchedulerService.cancelBookingTasks(bookingPublicId);
+
+        // Assert
+        assertThat(bookingSchedulerService.getCancelledTaskCount()).isEqualTo(2);
+    }
 
-        // Simuler l'exécution de la tâche
-        Runnable runnable = autoValidationTasks.get(bookingPublicId);
-        if (runnable != null) {
-            runnable.run();
+    /**
+     * Test de la méthode rehydrateSlots pour vérifier que seules les transitions futures absentes sont insérées :
+     * une réservation déjà planifiée est conservée, une réservation en cours n'est pas reprogrammée.
+     */
+    @Test
+    void rehydrateSlots_WithPartiallyScheduledSlots_InsertsOnlyMissingTransitions() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        BookingSlotDTO pending = new BookingSlotDTO(UUID.randomUUID(), UUID.randomUUID(),
+                now.plusHours(2), now.plusHours(3), BookingStatus.EN_ATTENTE);
+        BookingSlotDTO scheduled = new BookingSlotDTO(UUID.randomUUID(), UUID.randomUUID(),
+                now.plusHours(1), now.plusHours(2), BookingStatus.ACCEPTEE);
+        BookingSlotDTO ongoing = new BookingSlotDTO(UUID.randomUUID(), UUID.randomUUID(),
+                now.minusHours(1), now.plusHours(1), BookingStatus.ACCEPTEE);
+
+        when(bookingTransitionRepository.findByBookingPublicIdIn(anyCollection())).thenReturn(List.of(
+                new BookingTransition(1L, scheduled.getPublicId(), scheduled.getTerminalPublicId(),
+                        TransitionType.OCCUPATION_BORNE, scheduled.getStartingDate()),
+                new BookingTransition(2L, scheduled.getPublicId(), scheduled.getTerminalPublicId(),
+                        TransitionType.LIBERATION_BORNE, scheduled.getEndingDate())));
+
+        // Act
+        int created = bookingSchedulerService.rehydrateSlots(List.of(pending, scheduled, ongoing), now);
+
+        // Assert
+        assertThat(created).isEqualTo(3);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookingTransition>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookingTransitionRepository).saveAll(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(BookingTransition::getBookingPublicId, BookingTransition::getTransitionType, BookingTransition::getDueAt)
+                .containsExactly(
+                        tuple(pending.getPublicId(), TransitionType.OCCUPATION_BORNE, pending.getStartingDate()),
+                        tuple(pending.getPublicId(), TransitionType.LIBERATION_BORNE, pending.getEndingDate()),
+                        tuple(pending.getPublicId(), TransitionType.AUTO_VALIDATION, pending.getStartingDate().minusMinutes(30)));
+    }
+
+    /**
+     * Test de la méthode applyDueTransitions pour vérifier qu'aucune mise à jour n'est faite sans transition échue.
+     */
+    @Test
+    void applyDueTransitions_WithNothingDue_ReturnsZero() {
+        // Arrange
+        when(bookingTransitionRepository.claimDueTransitions(any(LocalDateTime.class), anyInt(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // Act
+        int applied = bookingSchedulerService.applyDueTransitions(LocalDateTime.now(), 100, 3);
+
+        // Assert
+        assertThat(applied).isZero();
+        verifyNoInteractions(terminalRepository, bookingRepository);
+        verify(bookingTransitionRepository, never()).deleteAllByIdInBatch(anyIterable());
+    }
+
+    /**
+     * Test de la méthode applyDueTransitions pour vérifier que les transitions d'un lot sont appliquées en masse :
+     * une requête par statut de borne, une pour les auto-validations, puis la suppression du lot.
+     * Une libération et une occupation de la même borne à la même échéance laissent la borne occupée.
+     */
+    @Test
+    void applyDueTransitions_WithDueBatch_AppliesInBulkAndDeletes() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        UUID sharedTerminal = UUID.randomUUID();
+        UUID freedTerminal = UUID.randomUUID();
+        BookingTransition occupy = transition(TransitionType.OCCUPATION_BORNE, sharedTerminal, now.minusMinutes(1));
+        BookingTransition free = transition(TransitionType.LIBERATION_BORNE, sharedTerminal, now.minusMinutes(1));
+        BookingTransition freeOther = transition(TransitionType.LIBERATION_BORNE, freedTerminal, now.minusMinutes(2));
+        BookingTransition validation = transition(TransitionType.AUTO_VALIDATION, null, now.minusMinutes(3));
+
+        when(bookingTransitionRepository.claimDueTransitions(eq(now), eq(3), any(Pageable.class)))
+                .thenReturn(List.of(occupy, free, freeOther, validation));
+
+        // Act
+        int applied = bookingSchedulerService.applyDueTransitions(now, 100, 3);
+
+        // Assert
+        assertThat(applied).isEqualTo(4);
+        verify(bookingRepository).updateStatusByPublicIdIn(
+                eq(Set.of(validation.getBookingPublicId())), eq(BookingStatus.EN_ATTENTE), eq(BookingStatus.ACCEPTEE),
+                any(Instant.class));
+        verify(terminalRepository).updateStatusByPublicIdIn(List.of(sharedTerminal), TerminalStatus.OCCUPEE, true);
+        verify(terminalRepository).updateStatusByPublicIdIn(List.of(freedTerminal), TerminalStatus.LIBRE, false);
+        verify(bookingTransitionRepository).deleteAllByIdInBatch(anyIterable());
+        assertThat(bookingSchedulerService.getFiredTaskCount()).isEqualTo(4);
+    }
+
+    /**
+     * Test de la méthode applyDueTransitions pour vérifier que les bornes d'un gros lot sont mises à jour
+     * par tranches de TERMINAL_UPDATE_CHUNK_SIZE identifiants, et que les lignes modifiées sont comptées.
+     */
+    @Test
+    void applyDueTransitions_WithManyTerminals_UpdatesTerminalsInChunks() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        int terminalCount = BookingSchedulerService.TERMINAL_UPDATE_CHUNK_SIZE + 10;
+        List<BookingTransition> due = new ArrayList<>();
+        for (int i = 0; i < terminalCount; i++) {
+            due.add(transition(TransitionType.OCCUPATION_BORNE, UUID.randomUUID(), now.minusMinutes(1)));
         }
+        when(bookingTransitionRepository.claimDueTransitions(eq(now), anyInt(), any(Pageable.class))).thenReturn(due);
+        when(terminalRepository.updateStatusByPublicIdIn(anyCollection(), eq(TerminalStatus.OCCUPEE), eq(true)))
+                .thenAnswer(invocation -> invocation.<Collection<UUID>>getArgument(0).size());
+
+        // Act
+        bookingSchedulerService.applyDueTransitions(now, terminalCount, 3);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<UUID>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(terminalRepository, times(2)).updateStatusByPublicIdIn(captor.capture(), eq(TerminalStatus.OCCUPEE), eq(true));
+        assertThat(captor.getAllValues()).extracting(Collection::size)
+                .containsExactly(BookingSchedulerService.TERMINAL_UPDATE_CHUNK_SIZE, 10);
+        assertThat(bookingSchedulerService.getTerminalUpdateBatchCount()).isEqualTo(2);
+        assertThat(bookingSchedulerService.getTerminalRowsChangedCount()).isEqualTo(terminalCount);
+    }
+
+    /**
+     * Test de la méthode recordFailedAttempt pour vérifier qu'un échec est compté sur la première transition échue,
+     * et qu'elle est écartée de la file au dernier échec autorisé.
+     */
+    @Test
+    void recordFailedAttempt_OnLastAllowedAttempt_ParksTransition() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        BookingTransition failing = transition(TransitionType.OCCUPATION_BORNE, UUID.randomUUID(), now.minusMinutes(1));
+        failing.setAttempts(2);
+        when(bookingTransitionRepository.claimDueTransitions(eq(now), eq(3), any(Pageable.class))).thenReturn(List.of(failing));
+
+        // Act
+        bookingSchedulerService.recordFailedAttempt(now, 3, new IllegalStateException("borne inconnue"));
 
         // Assert
-        assertThat(booking.getStatusBooking()).isEqualTo(BookingStatus.ACCEPTEE);
-        verify(bookingRepository, never()).save(booking);
+        verify(bookingTransitionRepository).incrementAttempts(failing.getIdBookingTransition());
+        verify(bookingTransitionRepository, never()).deleteAllByIdInBatch(anyIterable());
+        assertThat(bookingSchedulerService.getParkedTaskCount()).isEqualTo(1);
     }
 }
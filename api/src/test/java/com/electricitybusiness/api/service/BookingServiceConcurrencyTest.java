@@ -0,0 +1,181 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.exception.ConflictException;
+import com.electricitybusiness.api.model.Booking;
+import com.electricitybusiness.api.model.BookingStatus;
+import com.electricitybusiness.api.model.Terminal;
+import com.electricitybusiness.api.model.TerminalStatus;
+import com.electricitybusiness.api.repository.BookingRepository;
+import com.electricitybusiness.api.repository.TerminalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de concurrence de l'admission des réservations sur une vraie base H2.
+ * Chaque thread exécute saveBooking dans sa propre transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EntityScan(basePackages = {"com.electricitybusiness.api.model"})
+@Import({BookingService.class, BookingIntervalIndex.class, BookingServiceConcurrencyTest.ClockConfig.class})
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:booking-concurrency;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @TestConfiguration
+    static class ClockConfig {
+        @Bean
+        @Primary
+        Clock testClock() {
+            return Clock.system(ZoneId.of("Europe/Paris"));
+        }
+    }
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TerminalRepository terminalRepository;
+
+    @MockitoBean
+    private BookingSchedulerService bookingSchedulerService;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        terminalRepository.deleteAll();
+    }
+
+    private Terminal persistTerminal(String name) {
+        return terminalRepository.save(new Terminal(
+                null, UUID.randomUUID(), name,
+                BigDecimal.valueOf(48.8566), BigDecimal.valueOf(2.3522),
+                BigDecimal.valueOf(3.7), BigDecimal.valueOf(22.0),
+                "Type2", true, TerminalStatus.LIBRE, false,
+                LocalDateTime.now(), null, null, null, null, null, null
+        ));
+    }
+
+    private Booking newBooking(Terminal terminal, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setTerminal(terminal);
+        booking.setStatusBooking(BookingStatus.EN_ATTENTE);
+        booking.setTotalAmount(BigDecimal.TEN);
+        booking.setStartingDate(start);
+        booking.setEndingDate(start.plusHours(2));
+        return booking;
+    }
+
+    /**
+     * N requêtes concurrentes sur le même créneau d'un même terminal : une seule doit être acceptée.
+     */
+    @Test
+    void saveBooking_ConcurrentOverlappingRequests_ExactlyOneWins() throws Exception {
+        Terminal terminal = persistTerminal("Terminal Contended");
+        LocalDateTime start = LocalDateTime.now(ZoneId.of("Europe/Paris")).plusDays(2).withNano(0);
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+
+        runConcurrently(THREADS, i -> {
+            try {
+                // Créneaux décalés mais tous chevauchants
+                bookingService.saveBooking(newBooking(terminal, start.plusMinutes(i)));
+                accepted.incrementAndGet();
+            } catch (ConflictException e) {
+                conflicts.incrementAndGet();
+            } catch (Throwable t) {
+                unexpected.add(t);
+            }
+        });
+
+        assertThat(unexpected).isEmpty();
+        assertThat(accepted.get()).isEqualTo(1);
+        assertThat(conflicts.get()).isEqualTo(THREADS - 1);
+        assertThat(bookingRepository.count()).isEqualTo(1);
+    }
+
+    /**
+     * N requêtes concurrentes sur des terminaux différents : aucune ne doit être bloquée ni refusée.
+     */
+    @Test
+    void saveBooking_ConcurrentRequestsOnDistinctTerminals_AllAccepted() throws Exception {
+        List<Terminal> terminals = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            terminals.add(persistTerminal("Terminal " + i));
+        }
+        LocalDateTime start = LocalDateTime.now(ZoneId.of("Europe/Paris")).plusDays(2).withNano(0);
+        int bookingsPerThread = 10;
+
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        runConcurrently(THREADS, i -> {
+            for (int j = 0; j < bookingsPerThread; j++) {
+                try {
+                    bookingService.saveBooking(newBooking(terminals.get(i), start.plusHours(3L * j)));
+                } catch (Throwable t) {
+                    unexpected.add(t);
+                }
+            }
+        });
+
+        int total = THREADS * bookingsPerThread;
+        assertThat(unexpected).isEmpty();
+        assertThat(bookingRepository.count()).isEqualTo(total);
+    }
+
+    private void runConcurrently(int threads, IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    task.accept(index);
+                    return null;
+                }));
+            }
+            ready.await();
+            go.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
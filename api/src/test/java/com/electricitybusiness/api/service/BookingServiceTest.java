@@ -1,13 +1,20 @@
 package com.electricitybusiness.api.service;
 
+import com.electricitybusiness.api.dto.address.AddressDTO;
+import com.electricitybusiness.api.dto.booking.BookingDTO;
 import com.electricitybusiness.api.dto.booking.BookingStatusDTO;
+import com.electricitybusiness.api.dto.place.PlaceDTO;
+import com.electricitybusiness.api.exception.ConflictException;
 import com.electricitybusiness.api.model.*;
 import com.electricitybusiness.api.repository.BookingRepository;
+import com.electricitybusiness.api.repository.PlaceRepository;
+import com.electricitybusiness.api.repository.TerminalRepository;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.IElement;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Text;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,15 +43,27 @@ public class BookingServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private TerminalRepository terminalRepository;
+
     @Mock
     private BookingSchedulerService bookingSchedulerService;
 
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
     @InjectMocks
     private BookingService bookingService;
 
     @Mock
     private Clock clock;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlaceRepository placeRepository;
+
     private User testUser;
     private Terminal testTerminal;
     private Booking testBooking;
@@ -107,6 +126,34 @@ public class BookingServiceTest {
         );
     }
 
+    /**
+     * Teste la liste projetée : les lieux de chaque adresse sont chargés en une seule requête
+     * et rattachés à toutes les réservations de cette adresse.
+     */
+    @Test
+    void getAllBookingDTOs_FillsAddressPlacesWithOneQuery() {
+        UUID addressId = UUID.randomUUID();
+        UUID otherAddressId = UUID.randomUUID();
+        BookingDTO first = new BookingDTO();
+        first.setAddressDTO(new AddressDTO(addressId, "Maison", null, null, null, null, null, null, null, null, null));
+        BookingDTO second = new BookingDTO();
+        second.setAddressDTO(new AddressDTO(addressId, "Maison", null, null, null, null, null, null, null, null, null));
+        BookingDTO third = new BookingDTO();
+        third.setAddressDTO(new AddressDTO(otherAddressId, "Bureau", null, null, null, null, null, null, null, null, null));
+        PlaceDTO place = new PlaceDTO(UUID.randomUUID(), "Portail gris", "Maison", addressId);
+        when(bookingRepository.findAllDTOs()).thenReturn(List.of(first, second, third));
+        when(placeRepository.findDTOsByAddressPublicIdIn(List.of(addressId, otherAddressId))).thenReturn(List.of(place));
+
+        List<BookingDTO> result = bookingService.getAllBookingDTOs();
+
+        assertEquals(List.of(first, second, third), result);
+        assertEquals(List.of(place), first.getAddressDTO().getPlaces());
+        assertEquals(List.of(place), second.getAddressDTO().getPlaces());
+        assertEquals(List.of(), third.getAddressDTO().getPlaces());
+        verify(placeRepository, times(1)).findDTOsByAddressPublicIdIn(any());
+        verify(bookingRepository, never()).findAll();
+    }
+
     /**
      * Tests pour la classe BookingService
      */
@@ -204,8 +251,8 @@ public class BookingServiceTest {
         doNothing().when(bookingSchedulerService).scheduleAutoValidationTask(any(UUID.class), any(Instant.class));
         doNothing().when(bookingSchedulerService).scheduleBookingTasks(any(Booking.class));
 
+        when(terminalRepository.findByIdForUpdate(testTerminal.getIdTerminal())).thenReturn(Optional.of(testTerminal));
         when(bookingRepository.save(any(Booking.class))).thenReturn(initialBooking);
-        when(bookingRepository.findOverlappingBookings(any(), any(), any())).thenReturn(Collections.emptyList());
 
         // Exécution
         Booking savedBooking = bookingService.saveBooking(initialBooking);
@@ -602,6 +649,7 @@ public class BookingServiceTest {
         validBooking.setStartingDate(futureStartDate);
         validBooking.setEndingDate(futureEndDate);
 
+        when(terminalRepository.findByIdForUpdate(testTerminal.getIdTerminal())).thenReturn(Optional.of(testTerminal));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(AdditionalAnswers.returnsFirstArg());
         doNothing().when(bookingSchedulerService).scheduleAutoValidationTask(any(UUID.class), any(Instant.class));
 
@@ -624,6 +672,79 @@ public class BookingServiceTest {
         );
     }
 
+    /**
+     * Tests pour la méthode saveBooking lorsque l'index en mémoire détecte un chevauchement
+     */
+    @Test
+    void testSaveBooking_OverlapInIndex_ThrowsConflictWithoutQuery() {
+        ZoneId serviceProcessingZone = ZoneId.of("Europe/Paris");
+        Instant fixedInstantForTest = LocalDateTime.now().atZone(serviceProcessingZone).toInstant();
+        when(clock.instant()).thenReturn(fixedInstantForTest);
+
+        LocalDateTime servicePerceivedNow = LocalDateTime.ofInstant(fixedInstantForTest, serviceProcessingZone);
+        validBooking.setStartingDate(servicePerceivedNow.plusHours(2));
+        validBooking.setEndingDate(servicePerceivedNow.plusHours(4));
+
+        when(bookingIntervalIndex.overlaps(testTerminal.getPublicId(), validBooking.getStartingDate(), validBooking.getEndingDate()))
+                .thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> bookingService.saveBooking(validBooking));
+
+        verify(terminalRepository, never()).findByIdForUpdate(any());
+        verify(bookingRepository, never()).existsOverlappingBookings(any(), any(), any());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    /**
+     * Tests pour la méthode saveBooking : une absence de chevauchement dans l'index est confirmée en base sous verrou
+     */
+    @Test
+    void testSaveBooking_NoOverlapInIndex_ConfirmedInDatabase() {
+        ZoneId serviceProcessingZone = ZoneId.of("Europe/Paris");
+        Instant fixedInstantForTest = LocalDateTime.now().atZone(serviceProcessingZone).toInstant();
+        when(clock.instant()).thenReturn(fixedInstantForTest);
+
+        LocalDateTime servicePerceivedNow = LocalDateTime.ofInstant(fixedInstantForTest, serviceProcessingZone);
+        validBooking.setStartingDate(servicePerceivedNow.plusHours(2));
+        validBooking.setEndingDate(servicePerceivedNow.plusHours(4));
+
+        when(terminalRepository.findByIdForUpdate(testTerminal.getIdTerminal())).thenReturn(Optional.of(testTerminal));
+        when(bookingRepository.existsOverlappingBookings(testTerminal, validBooking.getStartingDate(), validBooking.getEndingDate()))
+                .thenReturn(false);
+        when(bookingRepository.save(validBooking)).thenReturn(validBooking);
+
+        Booking result = bookingService.saveBooking(validBooking);
+
+        assertEquals(validBooking, result);
+        verify(bookingIntervalIndex).overlaps(testTerminal.getPublicId(), validBooking.getStartingDate(), validBooking.getEndingDate());
+        verify(terminalRepository).findByIdForUpdate(testTerminal.getIdTerminal());
+        verify(bookingRepository).existsOverlappingBookings(testTerminal, validBooking.getStartingDate(), validBooking.getEndingDate());
+        verify(bookingIntervalIndex).index(validBooking);
+    }
+
+    /**
+     * Tests pour la méthode saveBooking lorsque la base de données détecte un chevauchement
+     */
+    @Test
+    void testSaveBooking_OverlapInDatabase_ThrowsConflict() {
+        ZoneId serviceProcessingZone = ZoneId.of("Europe/Paris");
+        Instant fixedInstantForTest = LocalDateTime.now().atZone(serviceProcessingZone).toInstant();
+        when(clock.instant()).thenReturn(fixedInstantForTest);
+
+        LocalDateTime servicePerceivedNow = LocalDateTime.ofInstant(fixedInstantForTest, serviceProcessingZone);
+        validBooking.setStartingDate(servicePerceivedNow.plusHours(2));
+        validBooking.setEndingDate(servicePerceivedNow.plusHours(4));
+
+        when(terminalRepository.findByIdForUpdate(testTerminal.getIdTerminal())).thenReturn(Optional.of(testTerminal));
+        when(bookingRepository.existsOverlappingBookings(testTerminal, validBooking.getStartingDate(), validBooking.getEndingDate()))
+                .thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> bookingService.saveBooking(validBooking));
+
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(bookingIntervalIndex, never()).index(any(Booking.class));
+    }
+
     /**
      * Tests pour la méthode generateBookingPdf avec une réservation valide
      */
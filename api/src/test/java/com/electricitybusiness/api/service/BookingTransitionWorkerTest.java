@@ -0,0 +1,74 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.config.BookingTransitionWorker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingTransitionWorkerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-03-10T10:00:00Z"), BookingService.BOOKING_ZONE);
+
+    // 11 h à Paris
+    private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+    @Mock
+    private BookingSchedulerService bookingSchedulerService;
+
+    @Mock
+    private SchedulerLeaseService schedulerLeaseService;
+
+    private BookingTransitionWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new BookingTransitionWorker(bookingSchedulerService, schedulerLeaseService, CLOCK);
+        ReflectionTestUtils.setField(worker, "batchSize", 10);
+        ReflectionTestUtils.setField(worker, "maxAttempts", 3);
+        when(schedulerLeaseService.acquireLeadership(NOW)).thenReturn(true);
+    }
+
+    /**
+     * Un lot en échec est repris une à une : les transitions qui précèdent celle en échec sont appliquées,
+     * puis un échec est compté sur cette dernière.
+     */
+    @Test
+    void pollDueTransitions_BatchFails_AppliesOneByOneAndCountsFailure() {
+        IllegalStateException failure = new IllegalStateException("borne inconnue");
+        when(bookingSchedulerService.applyDueTransitions(NOW, 10, 3)).thenThrow(failure);
+        when(bookingSchedulerService.applyDueTransitions(NOW, 1, 3)).thenReturn(1).thenReturn(1).thenThrow(failure);
+
+        worker.pollDueTransitions();
+
+        InOrder inOrder = inOrder(bookingSchedulerService);
+        inOrder.verify(bookingSchedulerService).applyDueTransitions(NOW, 10, 3);
+        inOrder.verify(bookingSchedulerService, times(3)).applyDueTransitions(NOW, 1, 3);
+        inOrder.verify(bookingSchedulerService).recordFailedAttempt(NOW, 3, failure);
+    }
+
+    /**
+     * Un lot appliqué sans erreur ne déclenche pas de reprise une à une.
+     */
+    @Test
+    void pollDueTransitions_BatchSucceeds_DoesNotRetryOneByOne() {
+        when(bookingSchedulerService.applyDueTransitions(NOW, 10, 3)).thenReturn(4);
+
+        worker.pollDueTransitions();
+
+        verify(bookingSchedulerService, never()).applyDueTransitions(eq(NOW), eq(1), eq(3));
+        verify(bookingSchedulerService, never()).recordFailedAttempt(any(), anyInt(), any());
+    }
+}
@@ -0,0 +1,217 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.config.BestEffortRehashAuthenticationProvider;
+import com.electricitybusiness.api.config.BoundedPasswordEncoder;
+import com.electricitybusiness.api.config.CustomUserDetailService;
+import com.electricitybusiness.api.model.User;
+import com.electricitybusiness.api.model.UserRole;
+import com.electricitybusiness.api.repository.RepairerRepository;
+import com.electricitybusiness.api.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BoundedPasswordEncoderTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RepairerRepository repairerRepository;
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    private User user(String passwordHash) {
+        return new User(
+                1L, "Dupont", "Martin", "martin1",
+                "user@example.com", passwordHash,
+                UserRole.USER, LocalDate.of(2003, 1, 1),
+                "0123456789", null,
+                false, null, null, null, null, null
+        );
+    }
+
+    /**
+     * Le hachage et la vérification s'exécutent sur le pool dédié et sont comptabilisés.
+     */
+    @Test
+    void encodeAndMatches_RunOnPoolAndAreCounted() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4);
+
+        String hash = encoder.encode("password");
+
+        assertThat(encoder.matches("password", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(encoder.getHashCount()).isEqualTo(3);
+        assertThat(encoder.getHashTimeNanos()).isPositive();
+        assertThat(encoder.getRejectedCount()).isZero();
+    }
+
+    /**
+     * Pool occupé et file pleine : la demande suivante est rejetée immédiatement par une 503.
+     */
+    @Test
+    void encode_PoolAndQueueFull_RejectsWith503() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        encoder = new BoundedPasswordEncoder(blocking, 1, 1);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        waitUntil(() -> encoder.getActiveCount() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        waitUntil(() -> encoder.getQueueSize() == 1);
+
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(encoder.getRejectedCount()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).startsWith("$2a$04$");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).startsWith("$2a$04$");
+    }
+
+    /**
+     * Une empreinte d'un coût inférieur au coût configuré est recalculée et enregistrée à la connexion.
+     */
+    @Test
+    void login_LowerStoredCost_RehashesWithConfiguredCost() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 4);
+        User user = user(new BCryptPasswordEncoder(4).encode("password"));
+        when(userRepository.findByEmailUser("user@example.com")).thenReturn(Optional.of(user));
+
+        authenticate();
+
+        verify(userRepository).updatePasswordByEmailUser(eq("user@example.com"), argThat(hash -> hash.startsWith("$2a$05$")));
+        assertThat(encoder.matches("password", user.getPasswordUser())).isTrue();
+    }
+
+    /**
+     * Une empreinte déjà au coût configuré n'est pas recalculée.
+     */
+    @Test
+    void login_CurrentCost_DoesNotRehash() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4);
+        when(userRepository.findByEmailUser("user@example.com"))
+                .thenReturn(Optional.of(user(new BCryptPasswordEncoder(4).encode("password"))));
+
+        authenticate();
+
+        verify(userRepository, never()).updatePasswordByEmailUser(eq("user@example.com"), argThat(hash -> true));
+    }
+
+    /**
+     * Pool de hachage saturé entre la vérification et le recalcul : la connexion aboutit avec l'empreinte actuelle,
+     * sans enregistrer de nouvelle empreinte.
+     */
+    @Test
+    void login_RehashRejectedByFullPool_StillAuthenticates() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<String>> saturating = new CopyOnWriteArrayList<>();
+        PasswordEncoder delegate = new BCryptPasswordEncoder(5) {
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                // Appelé après la vérification : d'autres hachages occupent le pool et sa file
+                try {
+                    saturating.add(CompletableFuture.supplyAsync(() -> encoder.encode("a")));
+                    assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+                    saturating.add(CompletableFuture.supplyAsync(() -> encoder.encode("b")));
+                    waitUntil(() -> encoder.getQueueSize() == 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.upgradeEncoding(encodedPassword);
+            }
+
+            @Override
+            public String encode(CharSequence rawPassword) {
+                // Seuls les hachages concurrents restent bloqués, pas celui de la protection contre les attaques temporelles
+                if ("a".contentEquals(rawPassword) || "b".contentEquals(rawPassword)) {
+                    running.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1);
+        String storedHash = new BCryptPasswordEncoder(4).encode("password");
+        User user = user(storedHash);
+        when(userRepository.findByEmailUser("user@example.com")).thenReturn(Optional.of(user));
+
+        authenticate();
+
+        verify(userRepository, never()).updatePasswordByEmailUser(eq("user@example.com"), argThat(hash -> true));
+        assertThat(user.getPasswordUser()).isEqualTo(storedHash);
+        assertThat(encoder.getRejectedCount()).isEqualTo(1);
+
+        release.countDown();
+        for (CompletableFuture<String> future : saturating) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).startsWith("$2a$05$");
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private void authenticate() {
+        CustomUserDetailService userDetailsService = new CustomUserDetailService(userRepository, repairerRepository);
+        DaoAuthenticationProvider provider = new BestEffortRehashAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
+
+        assertThat(provider.authenticate(new UsernamePasswordAuthenticationToken("user@example.com", "password"))
+                .isAuthenticated()).isTrue();
+    }
+}
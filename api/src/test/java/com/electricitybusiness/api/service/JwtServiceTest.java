@@ -9,6 +9,7 @@ import com.electricitybusiness.api.model.User;
 import com.electricitybusiness.api.model.UserRole;
 import com.electricitybusiness.api.repository.RefreshTokenRepository;
 import com.electricitybusiness.api.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -19,14 +20,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.lang.reflect.Method;
 import java.security.Key;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,6 +55,9 @@ public class JwtServiceTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private JwtService jwtService;
 
@@ -71,7 +79,8 @@ public class JwtServiceTest {
             "FR1111111111111111111111153", false
     );
 
-    private final RefreshToken MOCK_REFRESH_TOKEN = new RefreshToken("refresh-token-123", MOCK_USER);
+    private final RefreshToken MOCK_REFRESH_TOKEN = new RefreshToken(
+            JwtService.hashToken("refresh-token-123"), LocalDateTime.now().plusDays(7), MOCK_USER, null);
 
     @BeforeEach
     void setUp() {
@@ -155,6 +164,37 @@ public class JwtServiceTest {
         assertEquals("test@email.com", email);
     }
 
+    /**
+     * Tests pour la méthode generateAccessToken pour un utilisateur : hors mode sans état,
+     * le token ne porte que le sujet et l'utilisateur doit être chargé
+     */
+    @Test
+    void generateAccessToken_StatelessDisabled_CarriesOnlySubject() {
+        String token = jwtService.generateAccessToken(MOCK_USER);
+        Claims claims = jwtService.extractAllClaims(token, TEST_ACCESS_SECRET_KEY);
+
+        assertEquals("test@email.com", claims.getSubject());
+        assertNull(claims.get(JwtService.ROLE_CLAIM));
+        assertTrue(jwtService.extractStatelessAuthorities(claims).isEmpty());
+        verifyNoInteractions(principalCache);
+    }
+
+    /**
+     * Tests pour la méthode extractStatelessAuthorities : le rôle du token n'est retenu que si sa version est courante
+     */
+    @Test
+    void extractStatelessAuthorities_OutdatedVersion_ReturnsEmpty() {
+        ReflectionTestUtils.setField(jwtService, "statelessTokens", true);
+        when(principalCache.tokenVersion("user:1")).thenReturn(0L, 0L, 5L);
+
+        Claims claims = jwtService.extractAllClaims(jwtService.generateAccessToken(MOCK_USER), TEST_ACCESS_SECRET_KEY);
+
+        assertEquals("user:1", claims.get(JwtService.UID_CLAIM));
+        assertEquals(List.of("USER"), jwtService.extractStatelessAuthorities(claims).orElseThrow().stream()
+                .map(GrantedAuthority::getAuthority).toList());
+        assertTrue(jwtService.extractStatelessAuthorities(claims).isEmpty());
+    }
+
     /**
      * Tests pour la méthode generateRefreshToken pour un nom d'utilisateur valide
      */
@@ -180,16 +220,45 @@ public class JwtServiceTest {
      */
     @Test
     void generateRefreshTokenBdd_ValidUser_ReturnsSavedToken() {
-        when(refreshTokenRepository.save(any(RefreshToken.class))).thenReturn(MOCK_REFRESH_TOKEN);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         RefreshToken result = jwtService.generateRefreshTokenBdd(MOCK_USER);
 
         assertNotNull(result);
-        assertEquals(MOCK_REFRESH_TOKEN.getIdRefreshToken(), result.getIdRefreshToken());
+        assertEquals("test@email.com", jwtService.extractUsername(result.getToken(), TEST_REFRESH_SECRET_KEY));
+        assertEquals(JwtService.hashToken(result.getToken()), result.getTokenHash());
+        assertEquals(64, result.getTokenHash().length());
+        assertTrue(result.getExpiresAt().isAfter(LocalDateTime.now().plusDays(6)));
         assertEquals(MOCK_USER, result.getUser());
         verify(refreshTokenRepository, times(1)).save(any(RefreshToken.class));
     }
 
+    /**
+     * Test de la rotation d'un refresh token : l'ancien est supprimé et un nouveau est émis
+     */
+    @Test
+    void rotateRefreshToken_ValidToken_ReplacesToken() {
+        when(refreshTokenRepository.deleteByTokenHash(MOCK_REFRESH_TOKEN.getTokenHash())).thenReturn(1);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RefreshToken rotated = jwtService.rotateRefreshToken(MOCK_REFRESH_TOKEN);
+
+        assertNotEquals(MOCK_REFRESH_TOKEN.getTokenHash(), rotated.getTokenHash());
+        assertEquals(MOCK_USER, rotated.getUser());
+        verify(refreshTokenRepository).deleteByTokenHash(MOCK_REFRESH_TOKEN.getTokenHash());
+    }
+
+    /**
+     * Test de la rotation d'un refresh token déjà utilisé : aucun nouveau jeton n'est émis
+     */
+    @Test
+    void rotateRefreshToken_AlreadyRotated_ThrowsInvalidTokenException() {
+        when(refreshTokenRepository.deleteByTokenHash(MOCK_REFRESH_TOKEN.getTokenHash())).thenReturn(0);
+
+        assertThrows(InvalidTokenException.class, () -> jwtService.rotateRefreshToken(MOCK_REFRESH_TOKEN));
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
     /**
      * Test de l'extraction du nom d'utilisateur à partir d'un token valide
      */
@@ -312,13 +381,13 @@ public class JwtServiceTest {
      */
     @Test
     void getRefreshTokenByToken_TokenExists_ReturnsRefreshToken() {
-        when(refreshTokenRepository.findById("refresh-token-123")).thenReturn(Optional.of(MOCK_REFRESH_TOKEN));
+        when(refreshTokenRepository.findByTokenHash(JwtService.hashToken("refresh-token-123"))).thenReturn(Optional.of(MOCK_REFRESH_TOKEN));
 
         Optional<RefreshToken> result = jwtService.getRefreshTokenByToken("refresh-token-123");
 
         assertTrue(result.isPresent());
         assertEquals(MOCK_REFRESH_TOKEN, result.get());
-        verify(refreshTokenRepository, times(1)).findById("refresh-token-123");
+        verify(refreshTokenRepository, times(1)).findByTokenHash(JwtService.hashToken("refresh-token-123"));
     }
 
     /**
@@ -326,12 +395,12 @@ public class JwtServiceTest {
      */
     @Test
     void getRefreshTokenByToken_TokenNotFound_ReturnsEmptyOptional() {
-        when(refreshTokenRepository.findById("non-existent-token")).thenReturn(Optional.empty());
+        when(refreshTokenRepository.findByTokenHash(JwtService.hashToken("non-existent-token"))).thenReturn(Optional.empty());
 
         Optional<RefreshToken> result = jwtService.getRefreshTokenByToken("non-existent-token");
 
         assertTrue(result.isEmpty());
-        verify(refreshTokenRepository, times(1)).findById("non-existent-token");
+        verify(refreshTokenRepository, times(1)).findByTokenHash(JwtService.hashToken("non-existent-token"));
     }
 
     /**
@@ -340,7 +409,7 @@ public class JwtServiceTest {
     @Test
     void deleteRefreshToken_ValidToken_DeletesToken() {
         jwtService.deleteRefreshToken("refresh-token-123");
-        verify(refreshTokenRepository, times(1)).deleteById("refresh-token-123");
+        verify(refreshTokenRepository, times(1)).deleteById(JwtService.hashToken("refresh-token-123"));
     }
 
     /**
@@ -393,4 +462,20 @@ public class JwtServiceTest {
 
         assertTrue(isExpired);
     }
+
+    /**
+     * Tests que les clés et parseurs sont construits une seule fois par secret (type de token)
+     */
+    @Test
+    void extractAllClaims_ReusesParserPerSecret() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("test@email.com", jwtService.extractAllClaims(VALID_ACCESS_TOKEN, TEST_ACCESS_SECRET_KEY).getSubject());
+            assertEquals("test@email.com", jwtService.extractAllClaims(VALID_REFRESH_TOKEN, TEST_REFRESH_SECRET_KEY).getSubject());
+        }
+
+        Map<?, ?> parsers = (Map<?, ?>) ReflectionTestUtils.getField(jwtService, "parsers");
+        assertEquals(2, parsers.size());
+        assertThrows(InvalidTokenException.class,
+                () -> jwtService.extractAllClaims(VALID_ACCESS_TOKEN, TEST_REFRESH_SECRET_KEY));
+    }
 }
@@ -0,0 +1,138 @@
+package com.electricitybusiness.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoginRateLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 20);
+        ReflectionTestUtils.setField(limiter, "ipRefillPeriod", Duration.ofSeconds(3));
+        ReflectionTestUtils.setField(limiter, "emailCapacity", 5);
+        ReflectionTestUtils.setField(limiter, "emailRefillPeriod", Duration.ofSeconds(12));
+        ReflectionTestUtils.setField(limiter, "maxEntries", 1000);
+    }
+
+    /**
+     * Au-delà de la capacité du seau d'un email, les tentatives sont rejetées avec le délai avant le prochain jeton ;
+     * un autre email depuis la même adresse reste accepté, et l'email en refait une après ce délai.
+     */
+    @Test
+    void acquire_EmailBucketEmpty_RejectsOnlyThatEmailUntilRefill() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.acquire("10.0.0.1", "user@example.com", 0)).isZero();
+        }
+
+        long wait = limiter.acquire("10.0.0.1", "User@Example.com ", 0);
+
+        assertThat(wait).isEqualTo(12 * SECOND);
+        assertThat(limiter.acquire("10.0.0.1", "other@example.com", 0)).isZero();
+        assertThat(limiter.acquire("10.0.0.1", "user@example.com", 12 * SECOND)).isZero();
+        assertThat(limiter.getEmailRejectionCount()).isEqualTo(1);
+    }
+
+    /**
+     * Une adresse IP essayant de nombreux emails est limitée par son propre seau.
+     */
+    @Test
+    void acquire_IpBucketEmpty_RejectsAnyEmailFromThatIp() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.acquire("10.0.0.1", "user" + i + "@example.com", 0)).isZero();
+        }
+
+        assertThat(limiter.acquire("10.0.0.1", "fresh@example.com", 0)).isEqualTo(3 * SECOND);
+        assertThat(limiter.acquire("10.0.0.2", "fresh@example.com", 0)).isZero();
+        assertThat(limiter.getIpRejectionCount()).isEqualTo(1);
+    }
+
+    /**
+     * Les seaux redevenus pleins sont retirés au balayage ; les autres sont conservés.
+     */
+    @Test
+    void sweep_RemovesOnlyRefilledBuckets() {
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire("10.0.0." + i, null, 0);
+        }
+        limiter.acquire("10.1.0.1", null, Duration.ofMinutes(2).toNanos());
+
+        limiter.sweep(Duration.ofMinutes(2).toNanos());
+
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.getEvictionCount()).isEqualTo(100);
+    }
+
+    /**
+     * Borne atteinte : une nouvelle clé est acceptée et prend la place du moins récemment utilisé des seaux
+     * non épuisés ; le seau épuisé, pourtant le plus ancien, est conservé et continue de limiter son client.
+     */
+    @Test
+    void acquire_MaxEntriesReached_EvictsLeastRecentlyUsedNonEmptyBucket() {
+        ReflectionTestUtils.setField(limiter, "maxEntries", 10);
+        // Seau épuisé, le plus ancien
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire("10.0.0.1", null, 0);
+        }
+        for (int i = 2; i <= 10; i++) {
+            limiter.acquire("10.0.0." + i, null, i);
+        }
+
+        assertThat(limiter.acquire("10.0.0.11", null, 10)).isZero();
+
+        assertThat(limiter.size()).isEqualTo(10);
+        assertThat(limiter.getEvictionCount()).isEqualTo(1);
+        assertThat(limiter.acquire("10.0.0.1", null, 10)).isPositive();
+        // 10.0.0.2 a été évincé : il repart d'un seau neuf, qui évince à son tour 10.0.0.3
+        assertThat(limiter.acquire("10.0.0.2", null, 11)).isZero();
+        assertThat(limiter.getEvictionCount()).isEqualTo(2);
+    }
+
+    /**
+     * Un afflux d'emails distincts (credential stuffing) ne rejette jamais un nouvel utilisateur faute de place :
+     * chaque nouvelle clé évince un seau, et la taille reste bornée.
+     */
+    @Test
+    void acquire_ManyDistinctEmails_NeverRejectsNewUsers() {
+        ReflectionTestUtils.setField(limiter, "maxEntries", 10);
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.acquire("10.0.1." + i, "victim" + i + "@example.com", i)).isZero();
+        }
+
+        assertThat(limiter.acquire("10.0.2.1", "newcomer@example.com", 100)).isZero();
+        assertThat(limiter.size()).isLessThanOrEqualTo(10);
+        assertThat(limiter.getEmailRejectionCount()).isZero();
+    }
+
+    /**
+     * Les tentatives concurrentes ne consomment jamais plus de jetons que la capacité.
+     */
+    @Test
+    void acquire_ConcurrentAttempts_NeverExceedCapacity() throws Exception {
+        int threads = 8;
+        AtomicInteger accepted = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    if (limiter.acquire("10.0.0." + (i % 2), "user@example.com", 0) == 0) accepted.incrementAndGet();
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+
+        assertThat(accepted).hasValue(5);
+    }
+}
@@ -3,6 +3,7 @@ package com.electricitybusiness.api.service;
 import com.electricitybusiness.api.model.Place;
 import com.electricitybusiness.api.model.User;
 import com.electricitybusiness.api.repository.PlaceRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +24,9 @@ public class PlaceServiceTest {
     @Mock
     private PlaceRepository placeRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private PlaceService placeService;
 
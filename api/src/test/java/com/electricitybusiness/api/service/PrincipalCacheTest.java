@@ -0,0 +1,198 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.config.JwtAuthFilter;
+import com.electricitybusiness.api.mapper.EntityMapper;
+import com.electricitybusiness.api.model.User;
+import com.electricitybusiness.api.model.UserRole;
+import com.electricitybusiness.api.repository.RefreshTokenRepository;
+import com.electricitybusiness.api.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PrincipalCacheTest {
+    private static final String TEST_ACCESS_SECRET_KEY = "dGVzdC1hY2Nlc3Mta2V5LWZvci11bml0LXRlc3RzLW11c3QtYmUtYXQtbGVhc3QtMjU2LWJpdHMtbG9uZy1IUzI1Ng==";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private EntityMapper entityMapper;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserService userService;
+
+    private PrincipalCache principalCache;
+
+    private final User user = user(1L, "user@example.com");
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "enabled", true);
+        ReflectionTestUtils.setField(principalCache, "maxEntries", 1000);
+        ReflectionTestUtils.setField(principalCache, "ttl", Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static User user(Long id, String email) {
+        return new User(
+                id, "Dupont", "Martin", "martin" + id,
+                email, "password",
+                UserRole.USER, LocalDate.of(2003, 1, 1),
+                "0123456789", null,
+                false, null, null, null, null, null
+        );
+    }
+
+    /**
+     * Exécute le filtre JWT sur une requête portant le token et renvoie l'authentification obtenue.
+     */
+    private Authentication authenticate(JwtAuthFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(200);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    /**
+     * Les requêtes successives avec le même token ne chargent l'utilisateur qu'une fois ;
+     * un nouveau token, ou une modification de l'utilisateur, provoque un nouveau chargement.
+     */
+    @Test
+    void filter_RepeatedRequests_LoadUserOncePerToken() throws Exception {
+        JwtService jwtService = new JwtService(refreshTokenRepository, entityMapper, userRepository, userService, principalCache);
+        ReflectionTestUtils.setField(jwtService, "accessSecretKey", TEST_ACCESS_SECRET_KEY);
+        JwtAuthFilter filter = new JwtAuthFilter(jwtService, userDetailsService, principalCache);
+        when(userDetailsService.loadUserByUsername("user@example.com")).thenReturn(user);
+
+        String token = jwtService.generateAccessToken("user@example.com");
+        for (int i = 0; i < 5; i++) {
+            Authentication authentication = authenticate(filter, token);
+            assertThat(authentication.getName()).isEqualTo("user@example.com");
+            assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("USER");
+        }
+        verify(userDetailsService, times(1)).loadUserByUsername("user@example.com");
+
+        authenticate(filter, jwtService.generateAccessToken("user@example.com"));
+        verify(userDetailsService, times(2)).loadUserByUsername("user@example.com");
+
+        principalCache.evictUser(1L);
+        authenticate(filter, token);
+        verify(userDetailsService, times(3)).loadUserByUsername("user@example.com");
+    }
+
+    /**
+     * En mode sans état, le token porte le rôle : l'utilisateur n'est chargé qu'une fois le token révoqué
+     * par une invalidation ; un token émis ensuite est de nouveau accepté sans chargement.
+     */
+    @Test
+    void filter_StatelessToken_SkipsUserLoadUntilRevoked() throws Exception {
+        JwtService jwtService = new JwtService(refreshTokenRepository, entityMapper, userRepository, userService, principalCache);
+        ReflectionTestUtils.setField(jwtService, "accessSecretKey", TEST_ACCESS_SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "statelessTokens", true);
+        JwtAuthFilter filter = new JwtAuthFilter(jwtService, userDetailsService, principalCache);
+
+        String token = jwtService.generateAccessToken(user);
+        for (int i = 0; i < 3; i++) {
+            Authentication authentication = authenticate(filter, token);
+            assertThat(authentication.getName()).isEqualTo("user@example.com");
+            assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("USER");
+        }
+        verifyNoInteractions(userDetailsService);
+
+        principalCache.evictUser(1L);
+        when(userDetailsService.loadUserByUsername("user@example.com")).thenReturn(user);
+        authenticate(filter, token);
+        verify(userDetailsService, times(1)).loadUserByUsername("user@example.com");
+
+        Authentication refreshed = authenticate(filter, jwtService.generateAccessToken(user));
+        assertThat(refreshed.getPrincipal()).isEqualTo("user@example.com");
+        verify(userDetailsService, times(1)).loadUserByUsername("user@example.com");
+    }
+
+    /**
+     * L'éviction ne retire que les entrées de l'utilisateur concerné.
+     */
+    @Test
+    void evictUser_RemovesOnlyThatUser() {
+        User other = user(2L, "other@example.com");
+        principalCache.get("user@example.com", "a", () -> user);
+        principalCache.get("user@example.com", "b", () -> user);
+        principalCache.get("other@example.com", "c", () -> other);
+
+        principalCache.evictUser(1L);
+
+        assertThat(principalCache.size()).isEqualTo(1);
+        assertThat(principalCache.get("other@example.com", "c", () -> null)).isSameAs(other);
+        assertThat(principalCache.getHitCount()).isEqualTo(1);
+    }
+
+    /**
+     * Un utilisateur chargé pendant une invalidation n'est pas conservé : le chargement suivant relit la base.
+     */
+    @Test
+    void get_InvalidationDuringLoad_DoesNotKeepLoadedUser() {
+        UserDetails loaded = principalCache.get("user@example.com", "a", () -> {
+            principalCache.evictUser(1L);
+            return user;
+        });
+
+        assertThat(loaded).isSameAs(user);
+        assertThat(principalCache.size()).isZero();
+    }
+
+    /**
+     * Le cache est borné en nombre d'entrées (LRU) et en durée de vie.
+     */
+    @Test
+    void get_BoundedBySizeAndTtl() {
+        ReflectionTestUtils.setField(principalCache, "maxEntries", 2);
+        AtomicInteger loads = new AtomicInteger();
+        principalCache.get("user@example.com", "a", () -> { loads.incrementAndGet(); return user; });
+        principalCache.get("user@example.com", "b", () -> { loads.incrementAndGet(); return user; });
+        principalCache.get("user@example.com", "c", () -> { loads.incrementAndGet(); return user; });
+        assertThat(principalCache.size()).isEqualTo(2);
+
+        ReflectionTestUtils.setField(principalCache, "ttl", Duration.ZERO);
+        principalCache.get("user@example.com", "c", () -> { loads.incrementAndGet(); return user; });
+
+        assertThat(loads).hasValue(4);
+        assertThat(principalCache.getHitCount()).isZero();
+    }
+}
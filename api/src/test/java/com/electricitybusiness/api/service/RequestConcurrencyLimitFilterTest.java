@@ -0,0 +1,86 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.config.RequestConcurrencyLimitFilter;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RequestConcurrencyLimitFilterTest {
+
+    /**
+     * Teste qu'une requête arrivant quand tous les permis sont pris reçoit une réponse 503 sans être traitée.
+     */
+    @Test
+    void doFilter_AllPermitsTaken_Returns503WithoutCallingChain() throws Exception {
+        RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(1, Duration.ofMillis(10));
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        AtomicBoolean rejectedHandled = new AtomicBoolean();
+
+        // La première requête tient l'unique permis pendant que la seconde arrive
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {
+            assertThat(filter.getInFlightCount()).isEqualTo(1);
+            filter.doFilter(new MockHttpServletRequest(), rejected, (req, res) -> rejectedHandled.set(true));
+        });
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(rejectedHandled).isFalse();
+        assertThat(filter.getRejectionCount()).isEqualTo(1);
+        assertThat(filter.getInFlightCount()).isZero();
+    }
+
+    /**
+     * Teste que le permis est rendu après la requête, y compris lorsqu'elle échoue.
+     */
+    @Test
+    void doFilter_ChainThrows_ReleasesPermit() throws Exception {
+        RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(1, Duration.ofMillis(10));
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                (request, response) -> { throw new ServletException("échec"); }))
+                .isInstanceOf(ServletException.class);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest(), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(filter.getInFlightCount()).isZero();
+        assertThat(filter.getRejectionCount()).isZero();
+    }
+
+    /**
+     * Teste qu'une requête asynchrone garde son permis après le retour du thread de la requête,
+     * jusqu'à la fin du traitement asynchrone.
+     */
+    @Test
+    void doFilter_AsyncRequest_HoldsPermitUntilAsyncCompletes() throws Exception {
+        RequestConcurrencyLimitFilter filter = new RequestConcurrencyLimitFilter(1, Duration.ofMillis(10));
+        MockHttpServletRequest streaming = new MockHttpServletRequest();
+        streaming.setAsyncSupported(true);
+
+        filter.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        assertThat(filter.getInFlightCount()).isEqualTo(1);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(503);
+
+        streaming.getAsyncContext().complete();
+
+        assertThat(filter.getInFlightCount()).isZero();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+}
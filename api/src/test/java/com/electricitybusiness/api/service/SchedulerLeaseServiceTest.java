@@ -0,0 +1,148 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.config.BookingTransitionWorker;
+import com.electricitybusiness.api.model.BookingTransition;
+import com.electricitybusiness.api.model.TransitionType;
+import com.electricitybusiness.api.repository.BookingTransitionRepository;
+import com.electricitybusiness.api.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests du bail entre instances : deux contextes Spring indépendants (node-a et node-b)
+ * partagent la même base H2, comme deux répliques de l'API derrière le load balancer.
+ */
+public class SchedulerLeaseServiceTest {
+
+    private static final String DATABASE_URL = "jdbc:h2:mem:scheduler-nodes;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = {"com.electricitybusiness.api.model"})
+    @EnableJpaRepositories(basePackageClasses = BookingTransitionRepository.class)
+    @Import({SchedulerLeaseService.class, BookingSchedulerService.class, BookingTransitionWorker.class,
+            TerminalSearchCache.class, TerminalSpatialIndex.class})
+    static class NodeConfig {
+
+        @Bean
+        TaskScheduler taskScheduler() {
+            ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+            taskScheduler.initialize();
+            return taskScheduler;
+        }
+    }
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (nodeB.isActive()) {
+            nodeB.getBean(BookingTransitionRepository.class).deleteAll();
+            nodeB.getBean(SchedulerLeaseRepository.class).deleteAll();
+        }
+        nodeA.close();
+        nodeB.close();
+    }
+
+    private ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(NodeConfig.class)
+                .web(WebApplicationType.NONE)
+                // Horloge enregistrée hors de NodeConfig, que les tests @DataJpaTest du paquet reprennent aussi
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("clock", Clock.system(BookingService.BOOKING_ZONE)))
+                // Arguments prioritaires sur application.properties (create-drop supprimerait le schéma partagé)
+                .run("--spring.datasource.url=" + DATABASE_URL,
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.show-sql=false",
+                        "--booking.scheduler.node-id=" + nodeId,
+                        "--booking.scheduler.lease-ttl=PT1M");
+    }
+
+    private void enqueueDueTransitions(ConfigurableApplicationContext node, int count) {
+        BookingTransitionRepository repository = node.getBean(BookingTransitionRepository.class);
+        for (int i = 0; i < count; i++) {
+            repository.save(new BookingTransition(null, UUID.randomUUID(), UUID.randomUUID(),
+                    TransitionType.OCCUPATION_BORNE, LocalDateTime.now(BookingService.BOOKING_ZONE).minusMinutes(1)));
+        }
+    }
+
+    private long firedOn(ConfigurableApplicationContext node) {
+        return node.getBean(BookingSchedulerService.class).getFiredTaskCount();
+    }
+
+    /**
+     * Les deux instances interrogent la file : seule celle qui détient le bail applique les transitions.
+     */
+    @Test
+    void pollDueTransitions_TwoNodes_OnlyLeaderAppliesTransitions() {
+        enqueueDueTransitions(nodeA, 3);
+
+        nodeA.getBean(BookingTransitionWorker.class).pollDueTransitions();
+        nodeB.getBean(BookingTransitionWorker.class).pollDueTransitions();
+
+        assertThat(firedOn(nodeA)).isEqualTo(3);
+        assertThat(firedOn(nodeB)).isZero();
+        assertThat(nodeA.getBean(BookingTransitionRepository.class).count()).isZero();
+    }
+
+    /**
+     * À l'arrêt du leader, le bail est libéré et l'autre instance reprend immédiatement la file.
+     */
+    @Test
+    void pollDueTransitions_LeaderStops_OtherNodeTakesOver() {
+        nodeA.getBean(BookingTransitionWorker.class).pollDueTransitions();
+        nodeA.close();
+
+        enqueueDueTransitions(nodeB, 2);
+        nodeB.getBean(BookingTransitionWorker.class).pollDueTransitions();
+
+        assertThat(firedOn(nodeB)).isEqualTo(2);
+    }
+
+    /**
+     * Un leader qui ne renouvelle plus son bail (crash, pause) le perd à l'expiration ;
+     * il ne peut plus le prolonger une fois repris par une autre instance.
+     */
+    @Test
+    void tryAcquire_ExpiredLease_IsTakenOverByAnotherNode() {
+        SchedulerLeaseService leaseService = nodeA.getBean(SchedulerLeaseService.class);
+        LocalDateTime now = LocalDateTime.now();
+        Duration ttl = Duration.ofSeconds(30);
+
+        assertThat(leaseService.tryAcquire("test-lease", "node-a", now, ttl)).isTrue();
+        assertThat(leaseService.tryAcquire("test-lease", "node-b", now.plusSeconds(10), ttl)).isFalse();
+        assertThat(leaseService.tryAcquire("test-lease", "node-a", now.plusSeconds(20), ttl)).isTrue();
+
+        // node-a ne renouvelle plus : le bail expire à now + 50 s
+        assertThat(leaseService.tryAcquire("test-lease", "node-b", now.plusSeconds(49), ttl)).isFalse();
+        assertThat(leaseService.tryAcquire("test-lease", "node-b", now.plusSeconds(51), ttl)).isTrue();
+        assertThat(leaseService.tryAcquire("test-lease", "node-a", now.plusSeconds(52), ttl)).isFalse();
+    }
+}
@@ -0,0 +1,167 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.dto.terminal.TerminalPointDTO;
+import com.electricitybusiness.api.model.Terminal;
+import com.electricitybusiness.api.repository.TerminalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TerminalSearchCacheTest {
+
+    @Mock
+    private TerminalRepository terminalRepository;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private TerminalSpatialIndex terminalSpatialIndex;
+
+    private TerminalSearchCache terminalSearchCache;
+
+    private final Random random = new Random(11);
+
+    private final Map<UUID, Terminal> terminals = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        List<TerminalPointDTO> points = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            // Bornes réparties autour de Paris
+            Terminal terminal = terminal(48.6 + random.nextDouble() * 0.5, 2.0 + random.nextDouble() * 0.7);
+            terminal.setIdTerminal(id);
+            terminals.put(terminal.getPublicId(), terminal);
+            points.add(new TerminalPointDTO(id, terminal.getPublicId(), terminal.getLatitude(), terminal.getLongitude()));
+        }
+        when(terminalRepository.findPointsAfter(anyLong(), any(Pageable.class))).thenReturn(points);
+        when(terminalRepository.findByPublicIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> publicIds = invocation.getArgument(0);
+            return publicIds.stream().map(terminals::get).filter(Objects::nonNull).toList();
+        });
+
+        terminalSpatialIndex = new TerminalSpatialIndex(terminalRepository, taskScheduler);
+        terminalSpatialIndex.reload();
+
+        terminalSearchCache = new TerminalSearchCache(terminalSpatialIndex, terminalRepository);
+        ReflectionTestUtils.setField(terminalSearchCache, "enabled", true);
+        ReflectionTestUtils.setField(terminalSearchCache, "precision", 6);
+        ReflectionTestUtils.setField(terminalSearchCache, "maxEntries", 1000);
+        ReflectionTestUtils.setField(terminalSearchCache, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(terminalSearchCache, "maxRadiusKm", 50.0);
+    }
+
+    private static Terminal terminal(double latitude, double longitude) {
+        Terminal terminal = new Terminal();
+        terminal.setPublicId(UUID.randomUUID());
+        terminal.setLatitude(decimal(latitude));
+        terminal.setLongitude(decimal(longitude));
+        return terminal;
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(8, RoundingMode.HALF_UP);
+    }
+
+    private Set<UUID> cachedWithin(BigDecimal latitude, BigDecimal longitude, double radius) {
+        Set<UUID> found = new HashSet<>();
+        for (Terminal terminal : terminalSearchCache.terminalsAround(latitude, longitude, radius)) {
+            if (TerminalSpatialIndex.distanceKm(latitude, longitude, terminal.getLatitude(), terminal.getLongitude()) <= radius) {
+                found.add(terminal.getPublicId());
+            }
+        }
+        return found;
+    }
+
+    private Set<UUID> indexWithin(BigDecimal latitude, BigDecimal longitude, double radius) {
+        Set<UUID> found = new HashSet<>();
+        terminalSpatialIndex.withinRadius(latitude, longitude, radius).forEach(hit -> found.add(hit.publicId()));
+        return found;
+    }
+
+    /**
+     * Depuis n'importe quel point d'une cellule, l'entrée partagée contient toutes les bornes du rayon demandé :
+     * le résultat filtré est identique à celui de l'index spatial, et les recherches voisines sont servies par le cache.
+     */
+    @Test
+    void terminalsAround_FromAnyPointOfCell_CoversExactRadius() {
+        for (int i = 0; i < 200; i++) {
+            BigDecimal latitude = decimal(48.8 + random.nextDouble() * 0.1);
+            BigDecimal longitude = decimal(2.3 + random.nextDouble() * 0.1);
+            double radius = 0.5 + random.nextDouble() * 20;
+
+            assertThat(cachedWithin(latitude, longitude, radius)).isEqualTo(indexWithin(latitude, longitude, radius));
+        }
+
+        assertThat(terminalSearchCache.getHitCount()).isPositive();
+        assertThat(terminalSearchCache.getHitCount() + terminalSearchCache.getMissCount()).isEqualTo(200);
+        assertThat(terminalSearchCache.covers(51)).isFalse();
+    }
+
+    /**
+     * Une borne créée n'évince que les entrées qui couvrent sa position ;
+     * un changement de statut n'évince que les entrées qui contiennent la borne.
+     */
+    @Test
+    void evict_RemovesOnlyAffectedEntries() {
+        BigDecimal parisLatitude = decimal(48.8566);
+        BigDecimal parisLongitude = decimal(2.3522);
+        BigDecimal versaillesLatitude = decimal(48.8049);
+        BigDecimal versaillesLongitude = decimal(2.1204);
+        terminalSearchCache.terminalsAround(parisLatitude, parisLongitude, 1);
+        terminalSearchCache.terminalsAround(versaillesLatitude, versaillesLongitude, 1);
+        assertThat(terminalSearchCache.size()).isEqualTo(2);
+
+        Terminal added = terminal(48.8570, 2.3525);
+        terminals.put(added.getPublicId(), added);
+        terminalSpatialIndex.index(added);
+        terminalSearchCache.evict(added);
+
+        assertThat(terminalSearchCache.getInvalidatedEvictionCount()).isEqualTo(1);
+        assertThat(terminalSearchCache.size()).isEqualTo(1);
+        assertThat(cachedWithin(parisLatitude, parisLongitude, 1)).contains(added.getPublicId());
+
+        terminalSearchCache.evictAll(List.of(UUID.randomUUID()));
+        assertThat(terminalSearchCache.size()).isEqualTo(2);
+
+        terminalSearchCache.evictAll(List.of(added.getPublicId()));
+        assertThat(terminalSearchCache.getInvalidatedEvictionCount()).isEqualTo(2);
+        assertThat(terminalSearchCache.size()).isEqualTo(1);
+    }
+
+    /**
+     * Le cache est borné en nombre d'entrées (LRU) et en durée de vie.
+     */
+    @Test
+    void terminalsAround_BoundedBySizeAndTtl() {
+        ReflectionTestUtils.setField(terminalSearchCache, "maxEntries", 2);
+        terminalSearchCache.terminalsAround(decimal(48.70), decimal(2.10), 1);
+        terminalSearchCache.terminalsAround(decimal(48.80), decimal(2.30), 1);
+        terminalSearchCache.terminalsAround(decimal(48.90), decimal(2.50), 1);
+
+        assertThat(terminalSearchCache.size()).isEqualTo(2);
+        assertThat(terminalSearchCache.getSizeEvictionCount()).isEqualTo(1);
+
+        ReflectionTestUtils.setField(terminalSearchCache, "ttl", Duration.ZERO);
+        terminalSearchCache.terminalsAround(decimal(48.90), decimal(2.50), 1);
+
+        assertThat(terminalSearchCache.getExpiredEvictionCount()).isEqualTo(1);
+        assertThat(terminalSearchCache.getHitCount()).isZero();
+    }
+}
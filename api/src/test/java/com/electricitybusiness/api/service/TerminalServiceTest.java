@@ -7,6 +7,7 @@ import com.electricitybusiness.api.model.TerminalStatus;
 import com.electricitybusiness.api.model.User;
 import com.electricitybusiness.api.repository.BookingRepository;
 import com.electricitybusiness.api.repository.TerminalRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +24,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -36,6 +38,14 @@ public class TerminalServiceTest {
     private TerminalRepository terminalRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private TerminalSpatialIndex terminalSpatialIndex;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private TerminalSearchCache terminalSearchCache;
+    @Mock
+    private EntityManager entityManager;
 
     @InjectMocks
     private TerminalService terminalService;
@@ -242,28 +252,18 @@ public class TerminalServiceTest {
     }
 
     /**
-     * Tests pour la méthode setOccupiedByPublicId pour vérifier qu'elle met à jour le statut et l'occupation du terminal existant
+     * Tests pour la méthode setOccupiedByPublicId pour vérifier qu'elle met à jour le statut et l'occupation
+     * du terminal par une requête groupée, sans le charger
      */
     @Test
-    void setOccupiedByPublicId_shouldUpdateStatusAndOccupiedIfTerminalExists() {
-        Terminal terminalToUpdate = new Terminal();
-        terminalToUpdate.setIdTerminal(id);
-        terminalToUpdate.setPublicId(publicId);
-        terminalToUpdate.setStatusTerminal(TerminalStatus.LIBRE);
-        terminalToUpdate.setOccupied(false);
-
-        when(terminalRepository.findByPublicId(publicId)).thenReturn(Optional.of(terminalToUpdate));
-        when(terminalRepository.save(any(Terminal.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    void setOccupiedByPublicId_shouldUpdateStatusAndOccupiedWithoutLoadingTerminal() {
+        when(terminalRepository.updateStatusByPublicIdIn(List.of(publicId), TerminalStatus.HORS_SERVICE, true)).thenReturn(1);
 
         terminalService.setOccupiedByPublicId(publicId, TerminalStatus.HORS_SERVICE, true);
 
-        ArgumentCaptor<Terminal> terminalCaptor = ArgumentCaptor.forClass(Terminal.class);
-        verify(terminalRepository, times(1)).findByPublicId(publicId);
-        verify(terminalRepository, times(1)).save(terminalCaptor.capture());
-
-        Terminal savedTerminal = terminalCaptor.getValue();
-        assertThat(savedTerminal.getStatusTerminal()).isEqualTo(TerminalStatus.HORS_SERVICE);
-        assertThat(savedTerminal.getOccupied()).isTrue();
+        verify(terminalRepository, times(1)).updateStatusByPublicIdIn(List.of(publicId), TerminalStatus.HORS_SERVICE, true);
+        verify(terminalRepository, never()).findByPublicId(any(UUID.class));
+        verify(terminalRepository, never()).save(any(Terminal.class));
     }
 
     /**
@@ -271,11 +271,11 @@ public class TerminalServiceTest {
      */
     @Test
     void setOccupiedByPublicId_shouldDoNothingIfTerminalNotFound() {
-        when(terminalRepository.findByPublicId(any(UUID.class))).thenReturn(Optional.empty());
+        UUID unknownPublicId = UUID.randomUUID();
+        when(terminalRepository.updateStatusByPublicIdIn(List.of(unknownPublicId), TerminalStatus.LIBRE, false)).thenReturn(0);
 
-        terminalService.setOccupiedByPublicId(UUID.randomUUID(), TerminalStatus.LIBRE, false);
+        terminalService.setOccupiedByPublicId(unknownPublicId, TerminalStatus.LIBRE, false);
 
-        verify(terminalRepository, times(1)).findByPublicId(any(UUID.class));
         verify(terminalRepository, never()).save(any(Terminal.class)); // Assure que save n'a pas été appelé
     }
 
@@ -330,6 +330,170 @@ public class TerminalServiceTest {
                 minPrice, maxPrice, minRating, occupied, startDate, endDate);
     }
 
+    /**
+     * Tests pour la méthode searchTerminals pour vérifier que, l'index spatial chargé,
+     * seuls les candidats du rayon sont vérifiés en base
+     */
+    @Test
+    void testSearchTerminals_withReadyIndex_shouldCheckOnlyCandidatesInDatabase() {
+        // Arrange
+        BigDecimal longitude = new BigDecimal("2.35");
+        BigDecimal latitude = new BigDecimal("48.85");
+        LocalDateTime startDate = LocalDateTime.now();
+        LocalDateTime endDate = startDate.plusHours(2);
+        UUID candidate = UUID.randomUUID();
+        Terminal terminal = new Terminal();
+        terminal.setPublicId(candidate);
+
+        when(terminalSpatialIndex.isReady()).thenReturn(true);
+        when(terminalSpatialIndex.withinRadius(latitude, longitude, 5.0))
+                .thenReturn(List.of(new TerminalSpatialIndex.Hit(candidate, 1.2)));
+        when(terminalRepository.findAvailableByPublicIdIn(List.of(candidate), false, startDate, endDate))
+                .thenReturn(List.of(terminal));
+
+        // Act
+        List<Terminal> result = terminalService.searchTerminals(longitude, latitude, 5.0, false, startDate, endDate);
+
+        // Assert
+        assertThat(result).containsExactly(terminal);
+        verify(terminalRepository, never()).searchTerminals(any(), any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Tests pour la méthode searchTerminals pour vérifier que, l'index des créneaux chargé,
+     * la période est vérifiée en mémoire, comme pour les recherches servies par le cache :
+     * la requête ne filtre plus que le statut et l'occupation des bornes restantes
+     */
+    @Test
+    void testSearchTerminals_withWarmedBookingIndex_shouldCheckPeriodInMemoryOnly() {
+        // Arrange
+        BigDecimal longitude = new BigDecimal("2.35");
+        BigDecimal latitude = new BigDecimal("48.85");
+        LocalDateTime startDate = LocalDateTime.now();
+        LocalDateTime endDate = startDate.plusHours(2);
+        UUID free = UUID.randomUUID();
+        UUID booked = UUID.randomUUID();
+        Terminal terminal = new Terminal();
+        terminal.setPublicId(free);
+
+        when(terminalSpatialIndex.isReady()).thenReturn(true);
+        when(terminalSpatialIndex.withinRadius(latitude, longitude, 5.0)).thenReturn(List.of(
+                new TerminalSpatialIndex.Hit(free, 1.2), new TerminalSpatialIndex.Hit(booked, 2.5)));
+        when(bookingIntervalIndex.isWarmedUp()).thenReturn(true);
+        when(bookingIntervalIndex.isFree(free, startDate, endDate)).thenReturn(true);
+        when(bookingIntervalIndex.isFree(booked, startDate, endDate)).thenReturn(false);
+        when(terminalRepository.findAvailableByPublicIdIn(List.of(free), false, null, null))
+                .thenReturn(List.of(terminal));
+
+        // Act
+        List<Terminal> result = terminalService.searchTerminals(longitude, latitude, 5.0, false, startDate, endDate);
+
+        // Assert : seule la borne libre selon l'index est lue en base, sans vérification de la période
+        assertThat(result).containsExactly(terminal);
+        verify(terminalRepository, times(1)).findAvailableByPublicIdIn(anyCollection(), any(), any(), any());
+    }
+
+    /**
+     * Tests pour la méthode searchTerminals pour vérifier qu'une recherche couverte par le cache
+     * est filtrée en mémoire (statut, occupation, distance, période) sans requête en base
+     */
+    @Test
+    void testSearchTerminals_coveredByCache_shouldFilterCachedTerminals() {
+        // Arrange
+        BigDecimal longitude = new BigDecimal("2.35");
+        BigDecimal latitude = new BigDecimal("48.85");
+        LocalDateTime startDate = LocalDateTime.now();
+        LocalDateTime endDate = startDate.plusHours(2);
+        Terminal free = cachedTerminal("48.851", "2.351", TerminalStatus.LIBRE, false);
+        Terminal booked = cachedTerminal("48.852", "2.352", TerminalStatus.LIBRE, false);
+        Terminal occupiedTerminal = cachedTerminal("48.851", "2.352", TerminalStatus.OCCUPEE, true);
+        Terminal tooFar = cachedTerminal("49.10", "2.35", TerminalStatus.LIBRE, false);
+
+        when(terminalSearchCache.covers(5.0)).thenReturn(true);
+        when(bookingIntervalIndex.isWarmedUp()).thenReturn(true);
+        when(terminalSearchCache.terminalsAround(latitude, longitude, 5.0))
+                .thenReturn(List.of(free, booked, occupiedTerminal, tooFar));
+        when(bookingIntervalIndex.isFree(free.getPublicId(), startDate, endDate)).thenReturn(true);
+        when(bookingIntervalIndex.isFree(booked.getPublicId(), startDate, endDate)).thenReturn(false);
+
+        // Act
+        List<Terminal> result = terminalService.searchTerminals(longitude, latitude, 5.0, false, startDate, endDate);
+
+        // Assert
+        assertThat(result).containsExactly(free);
+        verifyNoInteractions(terminalRepository);
+    }
+
+    private static Terminal cachedTerminal(String latitude, String longitude, TerminalStatus status, boolean occupied) {
+        Terminal terminal = new Terminal();
+        terminal.setPublicId(UUID.randomUUID());
+        terminal.setLatitude(new BigDecimal(latitude));
+        terminal.setLongitude(new BigDecimal(longitude));
+        terminal.setStatusTerminal(status);
+        terminal.setOccupied(occupied);
+        return terminal;
+    }
+
+    /**
+     * Tests pour la méthode findNearestAvailable pour vérifier que la recherche s'élargit par anneaux,
+     * ne revérifie pas en base les bornes des anneaux précédents et s'arrête dès que k bornes sont confirmées
+     */
+    @Test
+    void findNearestAvailable_withReadyIndex_shouldExpandRingsUntilKAvailable() {
+        // Arrange
+        BigDecimal longitude = new BigDecimal("2.35");
+        BigDecimal latitude = new BigDecimal("48.85");
+        UUID busy = UUID.randomUUID();
+        UUID free = UUID.randomUUID();
+        Terminal freeTerminal = new Terminal();
+        freeTerminal.setPublicId(free);
+
+        when(terminalSpatialIndex.isReady()).thenReturn(true);
+        when(terminalSpatialIndex.withinRadius(latitude, longitude, 2.0))
+                .thenReturn(List.of(new TerminalSpatialIndex.Hit(busy, 1.5)));
+        when(terminalSpatialIndex.withinRadius(latitude, longitude, 4.0))
+                .thenReturn(List.of(new TerminalSpatialIndex.Hit(busy, 1.5), new TerminalSpatialIndex.Hit(free, 3.0)));
+        when(terminalRepository.findAvailableByPublicIdIn(List.of(busy), false, null, null)).thenReturn(List.of());
+        when(terminalRepository.findAvailableByPublicIdIn(List.of(free), false, null, null)).thenReturn(List.of(freeTerminal));
+
+        // Act
+        List<TerminalService.NearbyTerminal> result = terminalService.findNearestAvailable(longitude, latitude, 1, false, null, null);
+
+        // Assert
+        assertThat(result).containsExactly(new TerminalService.NearbyTerminal(freeTerminal, 3.0));
+        verify(terminalSpatialIndex, never()).withinRadius(latitude, longitude, 8.0);
+        verify(terminalRepository, times(2)).findAvailableByPublicIdIn(anyCollection(), any(), any(), any());
+    }
+
+    /**
+     * Tests pour la méthode findNearestAvailable pour vérifier que, sans index chargé,
+     * la distance est calculée sur les résultats de la recherche en base et qu'ils sont triés
+     */
+    @Test
+    void findNearestAvailable_withoutIndex_shouldSortDatabaseResultsByDistance() {
+        // Arrange
+        BigDecimal longitude = new BigDecimal("2.35");
+        BigDecimal latitude = new BigDecimal("48.85");
+        Terminal far = new Terminal();
+        far.setPublicId(UUID.randomUUID());
+        far.setLatitude(new BigDecimal("48.86"));
+        far.setLongitude(new BigDecimal("2.35"));
+        Terminal near = new Terminal();
+        near.setPublicId(UUID.randomUUID());
+        near.setLatitude(new BigDecimal("48.851"));
+        near.setLongitude(new BigDecimal("2.35"));
+
+        when(terminalSpatialIndex.isReady()).thenReturn(false);
+        when(terminalRepository.searchTerminals(longitude, latitude, 2.0, null, null, null)).thenReturn(List.of(far, near));
+
+        // Act
+        List<TerminalService.NearbyTerminal> result = terminalService.findNearestAvailable(longitude, latitude, 2, null, null, null);
+
+        // Assert
+        assertThat(result).extracting(TerminalService.NearbyTerminal::terminal).containsExactly(near, far);
+        assertThat(result.get(0).distanceKm()).isCloseTo(0.111, within(0.001));
+    }
+
     /**
      * Tests pour la méthode getTerminalByPublicId pour vérifier qu'elle retourne le terminal lorsqu'il est trouvé
      */
@@ -0,0 +1,147 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.dto.terminal.TerminalPointDTO;
+import com.electricitybusiness.api.model.Terminal;
+import com.electricitybusiness.api.repository.TerminalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TerminalSpatialIndexTest {
+
+    @Mock
+    private TerminalRepository terminalRepository;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @InjectMocks
+    private TerminalSpatialIndex terminalSpatialIndex;
+
+    private final Random random = new Random(42);
+
+    private final Map<UUID, double[]> positions = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        List<TerminalPointDTO> points = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            // Bornes réparties sur la France métropolitaine, plus quelques-unes près de l'antiméridien
+            double latitude = id % 100 == 0 ? -17 + random.nextDouble() : 42 + random.nextDouble() * 9;
+            double longitude = id % 100 == 0 ? 179.5 + random.nextDouble() * 0.5 : -4.5 + random.nextDouble() * 12.5;
+            UUID publicId = UUID.randomUUID();
+            positions.put(publicId, new double[]{latitude, longitude});
+            points.add(new TerminalPointDTO(id, publicId, decimal(latitude), decimal(longitude)));
+        }
+        when(terminalRepository.findPointsAfter(anyLong(), any(Pageable.class))).thenReturn(points);
+        terminalSpatialIndex.reload();
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(8, RoundingMode.HALF_UP);
+    }
+
+    private Set<UUID> bruteForce(double latitude, double longitude, double radiusKm) {
+        Set<UUID> expected = new HashSet<>();
+        positions.forEach((publicId, position) -> {
+            if (haversine(latitude, longitude, position[0], position[1]) <= radiusKm) expected.add(publicId);
+        });
+        return expected;
+    }
+
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 6371 * 2 * Math.asin(Math.sqrt(a));
+    }
+
+    private Set<UUID> search(double latitude, double longitude, double radiusKm) {
+        Set<UUID> found = new HashSet<>();
+        terminalSpatialIndex.withinRadius(decimal(latitude), decimal(longitude), radiusKm)
+                .forEach(hit -> found.add(hit.publicId()));
+        return found;
+    }
+
+    /**
+     * La recherche par rayon retourne exactement les bornes trouvées par un parcours complet (haversine),
+     * y compris autour de l'antiméridien.
+     */
+    @Test
+    void withinRadius_MatchesBruteForceHaversine() {
+        for (int i = 0; i < 50; i++) {
+            double latitude = 42 + random.nextDouble() * 9;
+            double longitude = -4.5 + random.nextDouble() * 12.5;
+            double radius = 1 + random.nextDouble() * 60;
+            // Tolérance d'arrondi des coordonnées (8 décimales) : on compare au centre effectivement indexé
+            double roundedLatitude = decimal(latitude).doubleValue();
+            double roundedLongitude = decimal(longitude).doubleValue();
+
+            assertThat(search(roundedLatitude, roundedLongitude, radius))
+                    .isEqualTo(bruteForce(roundedLatitude, roundedLongitude, radius));
+        }
+
+        assertThat(search(-16.5, -179.9, 80)).isEqualTo(bruteForce(-16.5, -179.9, 80)).isNotEmpty();
+    }
+
+    /**
+     * Les créations, déplacements et suppressions sont visibles immédiatement hors transaction,
+     * y compris après la fusion de la surcharge dans l'arbre.
+     */
+    @Test
+    void index_AddMoveAndRemove_AreReflectedInSearches() {
+        // La fusion planifiée s'exécute immédiatement
+        when(taskScheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        });
+
+        Terminal added = new Terminal();
+        added.setPublicId(UUID.randomUUID());
+        added.setLatitude(new BigDecimal("45.00000000"));
+        added.setLongitude(new BigDecimal("5.00000000"));
+        terminalSpatialIndex.index(added);
+        assertThat(search(45, 5, 0.5)).contains(added.getPublicId());
+
+        added.setLatitude(new BigDecimal("46.00000000"));
+        terminalSpatialIndex.index(added);
+        assertThat(search(45, 5, 0.5)).doesNotContain(added.getPublicId());
+        assertThat(search(46, 5, 0.5)).contains(added.getPublicId());
+
+        UUID removed = positions.keySet().iterator().next();
+        terminalSpatialIndex.remove(removed);
+        double[] position = positions.get(removed);
+        assertThat(search(position[0], position[1], 1)).doesNotContain(removed);
+
+        // Dépasse le seuil de fusion : les recherches restent exactes pendant et après la reconstruction
+        for (int i = 0; i < 1100; i++) {
+            Terminal terminal = new Terminal();
+            terminal.setPublicId(UUID.randomUUID());
+            terminal.setLatitude(new BigDecimal("30.00000000"));
+            terminal.setLongitude(new BigDecimal("30.00000000"));
+            terminalSpatialIndex.index(terminal);
+        }
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        assertThat(search(30, 30, 1)).hasSize(1100);
+        assertThat(search(46, 5, 0.5)).contains(added.getPublicId());
+        assertThat(search(position[0], position[1], 1)).doesNotContain(removed);
+    }
+}
@@ -9,6 +9,7 @@ import com.electricitybusiness.api.mapper.EntityMapper;
 import com.electricitybusiness.api.model.User;
 import com.electricitybusiness.api.model.UserRole;
 import com.electricitybusiness.api.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,6 +34,12 @@ public class UserServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -216,6 +223,7 @@ public class UserServiceTest {
 
         verify(userRepository, times(1)).existsById(USER_ID);
         verify(userRepository, times(1)).deleteById(USER_ID);
+        verify(principalCache, times(1)).evictUser(USER_ID);
     }
 
     /**
@@ -333,6 +341,7 @@ public class UserServiceTest {
         verify(userRepository, times(1)).existsById(userId);
         verify(userRepository, times(1)).save(userEntityPassedToService);
         verify(entityMapper, times(1)).toDTO(savedUpdatedUserEntity);
+        verify(principalCache, times(1)).evictUser(userId);
     }
 
     /**
@@ -0,0 +1,102 @@
+package com.electricitybusiness.api.service;
+
+import com.electricitybusiness.api.config.VirtualThreadPinningMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VirtualThreadPinningMonitorTest {
+
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new VirtualThreadPinningMonitor();
+        ReflectionTestUtils.setField(monitor, "threshold", Duration.ofMillis(5));
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    /**
+     * Teste qu'un thread virtuel bloqué dans un bloc synchronized est détecté comme épinglé.
+     * Depuis le JDK 24 (JEP 491), un bloc synchronized n'épingle plus le thread porteur.
+     */
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_23)
+    void start_BlockingInsideSynchronized_CountsPinnedThread() throws Exception {
+        Object monitorLock = new Object();
+
+        Thread.ofVirtual().start(() -> {
+            synchronized (monitorLock) {
+                sleep(50);
+            }
+        }).join();
+
+        awaitPinnedEvent();
+        assertThat(monitor.getPinnedCount()).isPositive();
+        assertThat(monitor.getPinnedNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+    }
+
+    /**
+     * Teste qu'un blocage sous ReentrantLock libère le thread porteur et n'est pas compté.
+     */
+    @Test
+    void start_BlockingUnderReentrantLock_CountsNothing() throws Exception {
+        ReentrantLock lock = new ReentrantLock();
+
+        Thread.ofVirtual().start(() -> {
+            lock.lock();
+            try {
+                sleep(50);
+            } finally {
+                lock.unlock();
+            }
+        }).join();
+
+        // Épinglage témoin, publié par le flux JFR après tout événement antérieur
+        Thread.ofVirtual().start(PinnedInInitializer::load).join();
+        awaitPinnedEvent();
+
+        assertThat(monitor.getPinnedCount()).isEqualTo(1);
+    }
+
+    private void awaitPinnedEvent() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (monitor.getPinnedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Un blocage pendant l'initialisation d'une classe épingle le thread porteur, y compris depuis le JDK 24.
+     */
+    private static class PinnedInInitializer {
+        static {
+            sleep(50);
+        }
+
+        static void load() {
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}